@@ -0,0 +1,77 @@
+/*
+ * CozyDeliveries - An item and money delivery service for a minecraft server.
+ * Copyright (C) 2024  Smuddgge
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.cozyplugins.cozydeliveries.benchmark;
+
+import com.github.cozyplugins.cozydeliveries.delivery.Delivery;
+import com.github.cozyplugins.cozydeliveries.delivery.DeliveryContent;
+import com.github.cozyplugins.cozylibrary.item.CozyItem;
+import org.bukkit.Material;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+
+/**
+ * Contains the data the benchmarks are run against.
+ * Items are plain materials so no item meta is needed.
+ */
+public final class BenchmarkData {
+
+    private static final @NotNull Material[] MATERIALS = {
+            Material.DIAMOND, Material.GOLD_INGOT, Material.IRON_INGOT,
+            Material.EMERALD, Material.BREAD, Material.OAK_LOG
+    };
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Used to create a delivery content.
+     *
+     * @param itemCount    The number of items in the content.
+     * @param commandCount The number of commands in the content.
+     * @return The instance of the content.
+     */
+    public static @NotNull DeliveryContent createContent(int itemCount, int commandCount) {
+        DeliveryContent content = new DeliveryContent();
+        content.setMoney(100);
+
+        for (int i = 0; i < itemCount; i++) {
+            content.addItems(new CozyItem(MATERIALS[i % MATERIALS.length]));
+        }
+
+        for (int i = 0; i < commandCount; i++) {
+            content.addCommands("give {player} diamond " + (i + 1));
+        }
+
+        return content;
+    }
+
+    /**
+     * Used to create a delivery.
+     *
+     * @param content         The content of the delivery.
+     * @param timeStampExpire The time stamp the delivery expires, or -1.
+     * @return The instance of the delivery.
+     */
+    public static @NotNull Delivery createDelivery(@NotNull DeliveryContent content, long timeStampExpire) {
+        return new Delivery(UUID.randomUUID(), System.currentTimeMillis())
+                .setFromName("Server")
+                .setTimeStampExpire(timeStampExpire)
+                .setDeliveryContent(content);
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * CozyDeliveries - An item and money delivery service for a minecraft server.
+ * Copyright (C) 2024  Smuddgge
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.cozyplugins.cozydeliveries.benchmark;
+
+import com.github.cozyplugins.cozydeliveries.CozyDeliveries;
+import com.github.cozyplugins.cozydeliveries.bus.DeliveryBus;
+import com.github.cozyplugins.cozydeliveries.bus.LoopbackDeliveryBus;
+import com.github.cozyplugins.cozydeliveries.cache.DeliveryCache;
+import com.github.cozyplugins.cozydeliveries.cache.PlayerDirectory;
+import com.github.cozyplugins.cozydeliveries.configuration.ContentConfigurationDirectory;
+import com.github.cozyplugins.cozydeliveries.database.DatabaseExecutor;
+import com.github.cozyplugins.cozydeliveries.database.DeliveryExpiryScheduler;
+import com.github.cozyplugins.cozydeliveries.database.migration.SchemaMigration;
+import com.github.cozyplugins.cozydeliveries.delivery.DeliveryContent;
+import com.github.cozyplugins.cozydeliveries.delivery.DeliveryItemRenderer;
+import com.github.cozyplugins.cozydeliveries.placeholder.PlaceholderRegistry;
+import com.github.smuddgge.squishyconfiguration.ConfigurationFactory;
+import com.github.smuddgge.squishyconfiguration.interfaces.Configuration;
+import com.github.smuddgge.squishydatabase.interfaces.Database;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.Server;
+import org.bukkit.inventory.ItemFactory;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import sun.misc.Unsafe;
+
+import java.io.File;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Represents the headless environment the benchmarks run in.
+ * <p>
+ * A stubbed bukkit server is installed and an instance of the
+ * plugin is created without enabling it. The plugin's default
+ * config.yml is loaded from a temporary folder, the database is
+ * a stub that is never used and the content directory returns
+ * contents registered with {@link #registerContent(String, DeliveryContent)}.
+ */
+public final class BenchmarkEnvironment {
+
+    private static final @NotNull Map<String, DeliveryContent> CONTENT_MAP = new ConcurrentHashMap<>();
+    private static @Nullable CozyDeliveries plugin;
+
+    private BenchmarkEnvironment() {
+    }
+
+    /**
+     * Represents a content directory that does not read files.
+     * Created without calling the constructor, so the
+     * configuration directory is never initialized.
+     */
+    private static class StubContentConfigurationDirectory extends ContentConfigurationDirectory {
+
+        @Override
+        public @NotNull Optional<DeliveryContent> getType(@NotNull String identifier) {
+            return Optional.ofNullable(CONTENT_MAP.get(identifier));
+        }
+
+        @Override
+        public boolean contains(@NotNull String identifier) {
+            return CONTENT_MAP.containsKey(identifier);
+        }
+    }
+
+    /**
+     * Used to set up the environment.
+     * Calling this more than once has no effect.
+     *
+     * @return The instance of the plugin.
+     */
+    public static synchronized @NotNull CozyDeliveries setup() {
+        if (BenchmarkEnvironment.plugin != null) return BenchmarkEnvironment.plugin;
+
+        try {
+            if (Bukkit.getServer() == null) Bukkit.setServer(BenchmarkEnvironment.createServer());
+
+            CozyDeliveries instance = BenchmarkEnvironment.allocate(CozyDeliveries.class);
+            BenchmarkEnvironment.setField(CozyDeliveries.class, null, "instance", instance);
+            Configuration config = BenchmarkEnvironment.loadConfig();
+            BenchmarkEnvironment.setField(CozyDeliveries.class, instance, "config", config);
+            BenchmarkEnvironment.setField(CozyDeliveries.class, instance, "placeholderRegistry", new PlaceholderRegistry(config));
+            BenchmarkEnvironment.setField(CozyDeliveries.class, instance, "playerDirectory", new PlayerDirectory(instance));
+            BenchmarkEnvironment.setField(CozyDeliveries.class, instance, "itemRenderer", new DeliveryItemRenderer());
+            BenchmarkEnvironment.setField(CozyDeliveries.class, instance, "contentDirectory",
+                    BenchmarkEnvironment.allocate(StubContentConfigurationDirectory.class)
+            );
+
+            // The database is never reached by the benchmarked methods.
+            Database database = BenchmarkEnvironment.stub(Database.class, (method, args) -> null);
+            SchemaMigration schemaMigration = new SchemaMigration(instance, database);
+            DatabaseExecutor executor = new DatabaseExecutor(instance, 1, 16, 1000L, false);
+            DeliveryCache deliveryCache = new DeliveryCache(instance, database, executor, schemaMigration);
+            DeliveryBus deliveryBus = new LoopbackDeliveryBus("benchmark");
+
+            BenchmarkEnvironment.setField(CozyDeliveries.class, instance, "database", database);
+            BenchmarkEnvironment.setField(CozyDeliveries.class, instance, "schemaMigration", schemaMigration);
+            BenchmarkEnvironment.setField(CozyDeliveries.class, instance, "deliveryCache", deliveryCache);
+            BenchmarkEnvironment.setField(CozyDeliveries.class, instance, "deliveryBus", deliveryBus);
+            BenchmarkEnvironment.setField(CozyDeliveries.class, instance, "expiryScheduler",
+                    new DeliveryExpiryScheduler(instance, database, deliveryCache, deliveryBus)
+            );
+
+            BenchmarkEnvironment.plugin = instance;
+            return instance;
+
+        } catch (Exception exception) {
+            throw new RuntimeException("Failed to set up the benchmark environment.", exception);
+        }
+    }
+
+    /**
+     * Used to register a content that will be returned
+     * by the content configuration directory.
+     *
+     * @param identifier The content's identifier.
+     * @param content    The instance of the content.
+     */
+    public static void registerContent(@NotNull String identifier, @NotNull DeliveryContent content) {
+        CONTENT_MAP.put(identifier, content);
+    }
+
+    private static @NotNull Configuration loadConfig() throws Exception {
+        File folder = Files.createTempDirectory("cozydeliveries-benchmark").toFile();
+        folder.deleteOnExit();
+
+        try (InputStream input = CozyDeliveries.class.getResourceAsStream("/config.yml")) {
+            if (input == null) throw new RuntimeException("Could not find config.yml in the plugin jar.");
+            Files.copy(input, new File(folder, "config.yml").toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        Configuration config = ConfigurationFactory.YAML.create(folder, "config");
+        config.load();
+        return config;
+    }
+
+    private static @NotNull Server createServer() {
+        final Logger logger = Logger.getLogger("CozyDeliveriesBenchmark");
+
+        // Item stacks compare their meta using the item factory.
+        final ItemFactory itemFactory = BenchmarkEnvironment.stub(ItemFactory.class, (method, args) ->
+                method.getName().equals("equals") && args != null && args.length == 2
+                        ? Objects.equals(args[0], args[1])
+                        : null
+        );
+
+        return BenchmarkEnvironment.stub(Server.class, (method, args) -> switch (method.getName()) {
+            case "getLogger" -> logger;
+            case "getName" -> "Benchmark";
+            case "getVersion", "getBukkitVersion" -> "benchmark";
+            case "getItemFactory" -> itemFactory;
+            case "isPrimaryThread" -> true;
+            case "getOfflinePlayer" -> args[0] instanceof UUID uuid
+                    ? BenchmarkEnvironment.createOfflinePlayer(uuid)
+                    : null;
+            default -> null;
+        });
+    }
+
+    private static @NotNull OfflinePlayer createOfflinePlayer(@NotNull UUID uuid) {
+        final String name = "Player" + Integer.toHexString(uuid.hashCode());
+
+        return BenchmarkEnvironment.stub(OfflinePlayer.class, (method, args) -> switch (method.getName()) {
+            case "getUniqueId" -> uuid;
+            case "getName" -> name;
+            default -> null;
+        });
+    }
+
+    private interface StubHandler {
+        @Nullable Object invoke(@NotNull Method method, @Nullable Object[] args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> @NotNull T stub(@NotNull Class<T> clazz, @NotNull StubHandler handler) {
+        return (T) Proxy.newProxyInstance(clazz.getClassLoader(), new Class<?>[]{clazz}, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> clazz.getSimpleName() + "Stub";
+                };
+            }
+
+            Object result = handler.invoke(method, args);
+            return result == null ? BenchmarkEnvironment.defaultValue(method.getReturnType()) : result;
+        });
+    }
+
+    private static @Nullable Object defaultValue(@NotNull Class<?> type) {
+        if (!type.isPrimitive() || type == void.class) return null;
+        if (type == boolean.class) return false;
+        if (type == char.class) return '\0';
+        if (type == long.class) return 0L;
+        if (type == float.class) return 0F;
+        if (type == double.class) return 0D;
+        if (type == byte.class) return (byte) 0;
+        if (type == short.class) return (short) 0;
+        return 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> @NotNull T allocate(@NotNull Class<T> clazz) throws Exception {
+        Field field = Unsafe.class.getDeclaredField("theUnsafe");
+        field.setAccessible(true);
+        return (T) ((Unsafe) field.get(null)).allocateInstance(clazz);
+    }
+
+    private static void setField(@NotNull Class<?> clazz, @Nullable Object instance, @NotNull String name, @Nullable Object value) throws Exception {
+        Field field = clazz.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(instance, value);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * CozyDeliveries - An item and money delivery service for a minecraft server.
+ * Copyright (C) 2024  Smuddgge
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.cozyplugins.cozydeliveries.benchmark;
+
+import com.github.cozyplugins.cozydeliveries.delivery.Delivery;
+import com.github.cozyplugins.cozydeliveries.delivery.DeliveryContent;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures rendering the lore and placeholders
+ * shown in the delivery menu.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DeliveryLoreBenchmark {
+
+    private static final String ITEM_LORE = String.join("\n",
+            "&7Click to collect delivery.",
+            "&7",
+            "&e&lContent",
+            "&f{lore}",
+            "&7",
+            "&7From {from}",
+            "&7Expires in &f{expire}"
+    );
+
+    @Param({"1", "9", "36"})
+    public int itemCount;
+
+    private DeliveryContent content;
+    private Delivery delivery;
+
+    @Setup
+    public void setup() {
+        BenchmarkEnvironment.setup();
+        this.content = BenchmarkData.createContent(this.itemCount, 2);
+        this.delivery = BenchmarkData.createDelivery(this.content, System.currentTimeMillis() + 3_600_000L);
+    }
+
+    @Benchmark
+    public List<String> getDefaultLore() {
+        return this.content.getDefaultLore();
+    }
+
+    @Benchmark
+    public String parsePlaceholders() {
+        return this.delivery.parsePlaceholders(ITEM_LORE);
+    }
+}
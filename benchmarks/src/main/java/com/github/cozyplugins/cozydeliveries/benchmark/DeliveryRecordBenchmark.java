@@ -0,0 +1,65 @@
+/*
+ * CozyDeliveries - An item and money delivery service for a minecraft server.
+ * Copyright (C) 2024  Smuddgge
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.cozyplugins.cozydeliveries.benchmark;
+
+import com.github.cozyplugins.cozydeliveries.database.DeliveryRecord;
+import com.github.cozyplugins.cozydeliveries.delivery.Delivery;
+import com.github.cozyplugins.cozydeliveries.delivery.DeliveryCodec;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures converting deliveries to and from database records.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DeliveryRecordBenchmark {
+
+    @Param({"0", "9", "36"})
+    public int itemCount;
+
+    private Delivery delivery;
+    private DeliveryRecord record;
+
+    @Setup
+    public void setup() {
+        BenchmarkEnvironment.setup();
+        this.delivery = BenchmarkData.createDelivery(BenchmarkData.createContent(this.itemCount, 2), -1L);
+        this.record = new DeliveryRecord(this.delivery);
+    }
+
+    @Benchmark
+    public DeliveryRecord construct() {
+        return new DeliveryRecord(this.delivery);
+    }
+
+    @Benchmark
+    public Delivery getDelivery() {
+        return this.record.getDelivery();
+    }
+
+    @Benchmark
+    public DeliveryCodec.Header getHeader() {
+        return this.record.getHeader();
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * CozyDeliveries - An item and money delivery service for a minecraft server.
+ * Copyright (C) 2024  Smuddgge
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.cozyplugins.cozydeliveries.benchmark;
+
+import com.github.cozyplugins.cozydeliveries.delivery.DeliveryContent;
+import com.github.cozyplugins.cozydeliveries.delivery.event.WeightedContentTable;
+import com.github.cozyplugins.cozydeliveries.delivery.event.handler.StandardDeliveryEventHandler;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures picking a random content for a delivery event.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PickDeliveryContentBenchmark {
+
+    @Param({"3", "20", "100"})
+    public int contentCount;
+
+    private final UUID playerUuid = UUID.randomUUID();
+    private StandardDeliveryEventHandler handler;
+    private List<String> pickingList;
+    private WeightedContentTable table;
+
+    @Setup
+    public void setup() {
+        BenchmarkEnvironment.setup();
+        this.handler = new StandardDeliveryEventHandler();
+        this.pickingList = new ArrayList<>();
+
+        for (int i = 0; i < this.contentCount; i++) {
+            final String identifier = "content_" + i;
+            BenchmarkEnvironment.registerContent(identifier, BenchmarkData.createContent(1, 1));
+
+            // Use uneven weights with a few decimal places.
+            this.pickingList.add(identifier + " " + (0.05 + (i % 7) * 0.125));
+        }
+
+        this.table = WeightedContentTable.parse(this.pickingList);
+    }
+
+    @Benchmark
+    public DeliveryContent pickDeliveryContent() {
+        return this.handler.pickDeliveryContent(this.pickingList, this.playerUuid);
+    }
+
+    @Benchmark
+    public String pickFromTable() {
+        return this.table.pick();
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * CozyDeliveries - An item and money delivery service for a minecraft server.
+ * Copyright (C) 2024  Smuddgge
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.cozyplugins.cozydeliveries.benchmark;
+
+import com.github.cozyplugins.cozydeliveries.CozyDeliveries;
+import com.github.cozyplugins.cozydeliveries.delivery.Delivery;
+import com.github.cozyplugins.cozydeliveries.delivery.DeliveryContent;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures filtering expired deliveries from a list.
+ * None of the deliveries have expired, otherwise each
+ * invocation would keep adding them to the expiry scheduler.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class RemoveExpiredDeliveriesBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int deliveryCount;
+
+    private CozyDeliveries plugin;
+    private List<Delivery> deliveryList;
+
+    @Setup
+    public void setup() {
+        this.plugin = BenchmarkEnvironment.setup();
+        this.deliveryList = new ArrayList<>(this.deliveryCount);
+
+        DeliveryContent content = BenchmarkData.createContent(1, 0);
+        final long expire = System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1);
+
+        // Half of the deliveries expire later and half never expire.
+        for (int i = 0; i < this.deliveryCount; i++) {
+            this.deliveryList.add(BenchmarkData.createDelivery(content, i % 2 == 0 ? expire : -1L));
+        }
+    }
+
+    @Benchmark
+    public List<Delivery> removeExpiredDeliveries() {
+        return this.plugin.removeExpiredDeliveries(this.deliveryList);
+    }
+}
@@ -18,15 +18,29 @@
 
 package com.github.cozyplugins.cozydeliveries;
 
+import com.github.cozyplugins.cozydeliveries.bus.*;
+import com.github.cozyplugins.cozydeliveries.cache.DeliveryCache;
+import com.github.cozyplugins.cozydeliveries.cache.PlayerDirectory;
 import com.github.cozyplugins.cozydeliveries.command.DeliveryCommand;
+import com.github.cozyplugins.cozydeliveries.configuration.ConfigurationDirectoryWatcher;
 import com.github.cozyplugins.cozydeliveries.configuration.ContentConfigurationDirectory;
 import com.github.cozyplugins.cozydeliveries.configuration.EventConfigurationDirectory;
 import com.github.cozyplugins.cozydeliveries.database.*;
+import com.github.cozyplugins.cozydeliveries.database.migration.CooldownTableV1;
+import com.github.cozyplugins.cozydeliveries.database.migration.DeliveryTableV1;
+import com.github.cozyplugins.cozydeliveries.database.migration.SchemaMigration;
+import com.github.cozyplugins.cozydeliveries.delivery.BulkDelivery;
 import com.github.cozyplugins.cozydeliveries.delivery.Delivery;
 import com.github.cozyplugins.cozydeliveries.delivery.DeliveryContent;
+import com.github.cozyplugins.cozydeliveries.delivery.DeliveryItemRenderer;
+import com.github.cozyplugins.cozydeliveries.delivery.event.CooldownScheduler;
+import com.github.cozyplugins.cozydeliveries.delivery.event.PlayerJoinContext;
+import com.github.cozyplugins.cozydeliveries.event.DeliveryBulkSendEvent;
 import com.github.cozyplugins.cozydeliveries.event.DeliverySendEvent;
 import com.github.cozyplugins.cozydeliveries.inventory.AddItemsInventory;
 import com.github.cozyplugins.cozydeliveries.inventory.PickPlayerInventory;
+import com.github.cozyplugins.cozydeliveries.placeholder.PlaceholderContext;
+import com.github.cozyplugins.cozydeliveries.placeholder.PlaceholderRegistry;
 import com.github.cozyplugins.cozylibrary.CozyPlugin;
 import com.github.cozyplugins.cozylibrary.item.CozyItem;
 import com.github.cozyplugins.cozylibrary.user.PlayerUser;
@@ -42,10 +56,14 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerKickEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
 
 /**
  * Represents the main plugin class.
@@ -56,8 +74,22 @@ public final class CozyDeliveries extends CozyPlugin implements CozyDeliveriesAP
     private static CozyDeliveries instance;
     private @Nullable Configuration config;
     private @Nullable Database database;
+    private @Nullable DatabaseExecutor databaseExecutor;
+    private @Nullable SchemaMigration schemaMigration;
+    private @Nullable DeliveryWriteQueue writeQueue;
+    private @Nullable PlayerStatistics playerStatistics;
+    private @Nullable DeliveryCache deliveryCache;
+    private @Nullable DeliveryBus deliveryBus;
+    private @Nullable LocalDeliveryBroker deliveryBroker;
+    private @Nullable DeliveryClaimService claimService;
+    private @Nullable DeliveryExpiryScheduler expiryScheduler;
+    private @Nullable CooldownScheduler cooldownScheduler;
+    private @Nullable PlayerDirectory playerDirectory;
+    private @Nullable PlaceholderRegistry placeholderRegistry;
+    private @Nullable DeliveryItemRenderer itemRenderer;
     private @Nullable ContentConfigurationDirectory contentDirectory;
     private @Nullable EventConfigurationDirectory eventDirectory;
+    private @Nullable ConfigurationDirectoryWatcher directoryWatcher;
 
     @Override
     public void onLoad() {
@@ -80,14 +112,40 @@ public final class CozyDeliveries extends CozyPlugin implements CozyDeliveriesAP
         this.config.setDefaultPath("config.yml");
         this.config.load();
 
+        // Initialize the placeholder registry.
+        this.placeholderRegistry = new PlaceholderRegistry(this.config);
+
+        // Initialize the delivery item renderer.
+        this.itemRenderer = new DeliveryItemRenderer();
+        this.itemRenderer.reload(this.config.getSection("delivery.default_item"));
+
         // Initialize the database.
         this.setupDatabase();
 
+        // Load the player directory.
+        this.playerDirectory = new PlayerDirectory(this);
+        this.playerDirectory.loadAsync();
+
         // Initialize the configuration directory's.
         this.contentDirectory = new ContentConfigurationDirectory();
-        this.contentDirectory.getDirectory().reload();
+        this.contentDirectory.reload();
         this.eventDirectory = new EventConfigurationDirectory();
-        this.eventDirectory.getDirectory().reload();
+        this.eventDirectory.reload();
+
+        // Reload the configuration directory's when their files change.
+        if (this.config.getBoolean("configuration.watch_directories", false)) {
+            this.directoryWatcher = new ConfigurationDirectoryWatcher(
+                    this, this.config.getInteger("configuration.watch_debounce_millis", 500)
+            );
+
+            try {
+                this.directoryWatcher.start(this.contentDirectory, this.eventDirectory);
+            } catch (IOException exception) {
+                this.getLogger().log(Level.WARNING, "Failed to watch the configuration directories.", exception);
+                this.directoryWatcher.stop();
+                this.directoryWatcher = null;
+            }
+        }
 
         // Register the commands.
         this.addCommandType(new DeliveryCommand());
@@ -96,6 +154,37 @@ public final class CozyDeliveries extends CozyPlugin implements CozyDeliveriesAP
         this.getServer().getPluginManager().registerEvents(this, this);
     }
 
+    @Override
+    public void onDisable() {
+
+        // Stop watching the configuration directory's.
+        if (this.directoryWatcher != null) this.directoryWatcher.stop();
+
+        // Stop removing expired deliveries.
+        if (this.expiryScheduler != null) this.expiryScheduler.stop();
+
+        // Stop giving cooldown deliveries.
+        if (this.cooldownScheduler != null) this.cooldownScheduler.stop();
+
+        // Finish the running database operations.
+        if (this.databaseExecutor != null) this.databaseExecutor.shutdown();
+
+        // Put back the claimed deliveries that could not be given.
+        if (this.claimService != null) this.claimService.shutdown();
+
+        // Write the remaining queued deliveries.
+        if (this.writeQueue != null) this.writeQueue.shutdown();
+
+        // Disconnect from the other servers.
+        if (this.deliveryBus != null) this.deliveryBus.close();
+        if (this.deliveryBroker != null) this.deliveryBroker.stop();
+
+        // Write the remaining player statistics.
+        if (this.playerStatistics != null) this.playerStatistics.stop();
+
+        super.onDisable();
+    }
+
     private void setupDatabase() {
 
         // Get the instance of the database factory.
@@ -120,9 +209,105 @@ public final class CozyDeliveries extends CozyPlugin implements CozyDeliveriesAP
             ));
         }
 
+        // Start the database executor.
+        this.databaseExecutor = new DatabaseExecutor(
+                this,
+                this.getConfiguration().getInteger("database.executor.threads", 4),
+                this.getConfiguration().getInteger("database.executor.max_pending", 1000),
+                this.getConfiguration().getInteger("database.executor.timeout_millis", 10000),
+                this.getConfiguration().getBoolean("database.executor.virtual_threads", false)
+        );
+
         this.database.createTable(new CooldownTable());
         this.database.createTable(new DeliveryTable());
         this.database.createTable(new PlayerTable());
+        this.database.createTable(new ClaimTable());
+
+        // Create the version 1 tables so they can be migrated.
+        this.database.createTable(new CooldownTableV1());
+        this.database.createTable(new DeliveryTableV1());
+        this.schemaMigration = new SchemaMigration(this, this.database);
+
+        // Start counting the player statistics.
+        this.playerStatistics = new PlayerStatistics(this, this.database);
+        this.playerStatistics.start(this.getConfiguration().getInteger("database.statistics_flush_seconds", 10));
+
+        // Start the delivery write queue.
+        this.writeQueue = new DeliveryWriteQueue(
+                this.database,
+                this.playerStatistics,
+                this.getConfiguration().getInteger("database.write_queue.capacity", 10000),
+                this.getConfiguration().getInteger("database.write_queue.batch_size", 500)
+        );
+
+        // Initialize the delivery cache.
+        this.deliveryCache = new DeliveryCache(this, this.database, this.databaseExecutor, this.schemaMigration);
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            this.deliveryCache.loadAsync(player.getUniqueId());
+        }
+
+        // Connect to the other servers.
+        this.setupDeliveryBus();
+        this.deliveryBus.addListener(new DeliveryBusSubscriber(
+                this, this.deliveryBus, this.database, this.databaseExecutor, this.deliveryCache, this::notifyDelivery
+        ));
+
+        // Initialize the claim service.
+        this.claimService = new DeliveryClaimService(
+                this, this.database, this.databaseExecutor, this.schemaMigration, this.deliveryCache, this.deliveryBus,
+                this.getConfiguration().getInteger("delivery.claim_timeout_seconds", 60) * 1000L
+        );
+
+        // Start the expiry scheduler.
+        this.expiryScheduler = new DeliveryExpiryScheduler(this, this.database, this.deliveryCache, this.deliveryBus);
+        this.expiryScheduler.start(this.getConfiguration().getInteger("delivery.expiry_check_seconds", 30));
+
+        // Initialize the cooldown scheduler.
+        this.cooldownScheduler = new CooldownScheduler(this, this.database, this.databaseExecutor, this.schemaMigration);
+        this.eventDirectory.addReloadListener(this.cooldownScheduler::reload);
+
+        // Migrate the database, put back the deliveries from unfinished
+        // claims and then load the deliveries that will expire.
+        Bukkit.getScheduler().runTaskAsynchronously(this, () -> {
+            this.schemaMigration.migrateAll();
+            this.claimService.recoverStaleClaims();
+            this.expiryScheduler.loadAll();
+        });
+    }
+
+    private void setupDeliveryBus() {
+        String serverId = this.getConfiguration().getString("bus.server_id", "");
+        if (serverId.isEmpty()) serverId = UUID.randomUUID().toString();
+
+        final String type = this.getConfiguration().getString("bus.type", "LOOPBACK");
+        final int port = this.getConfiguration().getInteger("bus.port", 6379);
+
+        // Check if only this server is used.
+        if (!type.equalsIgnoreCase("REDIS")) {
+            this.deliveryBus = new LoopbackDeliveryBus(serverId);
+            return;
+        }
+
+        // Start the local broker if it is being used instead of redis.
+        if (this.getConfiguration().getBoolean("bus.local_broker", false)) {
+            this.deliveryBroker = new LocalDeliveryBroker(this, port);
+            try {
+                this.deliveryBroker.start();
+            } catch (IOException exception) {
+                this.getLogger().log(Level.WARNING, "Failed to start the local delivery broker on port " + port, exception);
+                this.deliveryBroker = null;
+            }
+        }
+
+        this.deliveryBus = new SocketDeliveryBus(
+                this,
+                serverId,
+                this.getConfiguration().getString("bus.host", "localhost"),
+                port,
+                this.getConfiguration().getString("bus.password", ""),
+                this.getConfiguration().getString("bus.channel", "cozydeliveries"),
+                this.getConfiguration().getInteger("bus.capacity", 10000)
+        );
     }
 
     @Override
@@ -147,6 +332,138 @@ public final class CozyDeliveries extends CozyPlugin implements CozyDeliveriesAP
         return this.database;
     }
 
+    @Override
+    public @NotNull DatabaseExecutor getDatabaseExecutor() {
+
+        // Check if the database executor is null.
+        if (this.databaseExecutor == null) throw new RuntimeException(
+                "Tried to get the database executor but the database has not been initialized yet."
+        );
+
+        return this.databaseExecutor;
+    }
+
+    @Override
+    public @NotNull SchemaMigration getSchemaMigration() {
+
+        // Check if the schema migration is null.
+        if (this.schemaMigration == null) throw new RuntimeException(
+                "Tried to get the schema migration but the database has not been initialized yet."
+        );
+
+        return this.schemaMigration;
+    }
+
+    @Override
+    public @NotNull DeliveryWriteQueue getWriteQueue() {
+
+        // Check if the write queue is null.
+        if (this.writeQueue == null) throw new RuntimeException(
+                "Tried to get the write queue but the database has not been initialized yet."
+        );
+
+        return this.writeQueue;
+    }
+
+    @Override
+    public @NotNull PlayerStatistics getPlayerStatistics() {
+
+        // Check if the player statistics are null.
+        if (this.playerStatistics == null) throw new RuntimeException(
+                "Tried to get the player statistics but the database has not been initialized yet."
+        );
+
+        return this.playerStatistics;
+    }
+
+    @Override
+    public @NotNull DeliveryCache getDeliveryCache() {
+
+        // Check if the delivery cache is null.
+        if (this.deliveryCache == null) throw new RuntimeException(
+                "Tried to get the delivery cache but the database has not been initialized yet."
+        );
+
+        return this.deliveryCache;
+    }
+
+    @Override
+    public @NotNull DeliveryBus getDeliveryBus() {
+
+        // Check if the delivery bus is null.
+        if (this.deliveryBus == null) throw new RuntimeException(
+                "Tried to get the delivery bus but the database has not been initialized yet."
+        );
+
+        return this.deliveryBus;
+    }
+
+    @Override
+    public @NotNull DeliveryClaimService getClaimService() {
+
+        // Check if the claim service is null.
+        if (this.claimService == null) throw new RuntimeException(
+                "Tried to get the claim service but the database has not been initialized yet."
+        );
+
+        return this.claimService;
+    }
+
+    @Override
+    public @NotNull DeliveryExpiryScheduler getExpiryScheduler() {
+
+        // Check if the expiry scheduler is null.
+        if (this.expiryScheduler == null) throw new RuntimeException(
+                "Tried to get the expiry scheduler but the database has not been initialized yet."
+        );
+
+        return this.expiryScheduler;
+    }
+
+    @Override
+    public @NotNull CooldownScheduler getCooldownScheduler() {
+
+        // Check if the cooldown scheduler is null.
+        if (this.cooldownScheduler == null) throw new RuntimeException(
+                "Tried to get the cooldown scheduler but the database has not been initialized yet."
+        );
+
+        return this.cooldownScheduler;
+    }
+
+    @Override
+    public @NotNull PlayerDirectory getPlayerDirectory() {
+
+        // Check if the player directory is null.
+        if (this.playerDirectory == null) throw new RuntimeException(
+                "Tried to get the player directory but the player directory has not been initialized yet."
+        );
+
+        return this.playerDirectory;
+    }
+
+    @Override
+    public @NotNull PlaceholderRegistry getPlaceholderRegistry() {
+
+        // Check if the placeholder registry is null.
+        if (this.placeholderRegistry == null) throw new RuntimeException(
+                "Tried to get the placeholder registry but the placeholder registry has not been initialized yet."
+        );
+
+        return this.placeholderRegistry;
+    }
+
+    @Override
+    public @NotNull DeliveryItemRenderer getItemRenderer() {
+
+        // Check if the item renderer is null.
+        if (this.itemRenderer == null) throw new RuntimeException(
+                "Tried to get the item renderer but the item renderer has not been initialized yet."
+        );
+
+        return this.itemRenderer;
+    }
+
     @Override
     public @NotNull ContentConfigurationDirectory getContentConfiguration() {
 
@@ -175,6 +492,9 @@ public final class CozyDeliveries extends CozyPlugin implements CozyDeliveriesAP
         // Check if the database is disabled.
         if (this.getDatabase().isDisabled()) return Optional.empty();
 
+        // Make sure the delivery is in the version 2 table.
+        this.getSchemaMigration().migrateDelivery(uuid);
+
         DeliveryRecord record = this.getDatabase()
                 .getTable(DeliveryTable.class)
                 .getFirstRecord(new Query().match("uuid", uuid.toString()));
@@ -187,16 +507,31 @@ public final class CozyDeliveries extends CozyPlugin implements CozyDeliveriesAP
         return Optional.ofNullable(delivery);
     }
 
+    @Override
+    public @NotNull CompletableFuture<Optional<Delivery>> getDeliveryAsync(@NotNull UUID uuid) {
+        return this.getDatabaseExecutor().submit(() -> this.getDelivery(uuid));
+    }
+
     @Override
     public @NotNull List<Delivery> getDeliveryList() {
 
         // Check if the database is disabled.
         if (this.getDatabase().isDisabled()) return new ArrayList<>();
 
+        // Read the deliveries that have not been migrated yet
+        // instead of waiting for the migration to finish.
+        // A delivery that is moved between the two reads is
+        // in both lists, so they are merged by uuid.
+        Map<UUID, DeliveryRecord> recordMap = new LinkedHashMap<>();
+        for (DeliveryRecord record : this.getSchemaMigration().readUnmigratedDeliveries()) {
+            recordMap.put(record.getUuid(), record);
+        }
+        for (DeliveryRecord record : this.getDatabase().getTable(DeliveryTable.class).getRecordList()) {
+            recordMap.put(record.getUuid(), record);
+        }
+
         // Get the list of deliveries.
-        List<Delivery> deliveryList = this.getDatabase()
-                .getTable(DeliveryTable.class)
-                .getRecordList()
+        List<Delivery> deliveryList = recordMap.values()
                 .stream().map(DeliveryRecord::getDelivery)
                 .toList();
 
@@ -209,14 +544,86 @@ public final class CozyDeliveries extends CozyPlugin implements CozyDeliveriesAP
         // Check if the database is disabled.
         if (this.getDatabase().isDisabled()) return new ArrayList<>();
 
-        // Get the list of deliveries.
-        List<Delivery> deliveryList = this.getDatabase()
-                .getTable(DeliveryTable.class)
-                .getRecordList(new Query().match("toPlayerUuid", playerUuid.toString()))
-                .stream().map(DeliveryRecord::getDelivery)
-                .toList();
+        // Get the list of deliveries from the cache.
+        // If the player is not in the cache load them from the database.
+        try {
+            List<Delivery> deliveryList = this.getDeliveryCache()
+                    .getDeliveryList(playerUuid)
+                    .orElseGet(() -> this.getDeliveryCache().load(playerUuid));
 
-        return this.removeExpiredDeliveries(deliveryList);
+            return this.removeExpiredDeliveries(deliveryList);
+
+        } catch (Exception exception) {
+            this.getLogger().log(Level.WARNING, "Failed to load the deliveries for " + playerUuid, exception);
+            return new ArrayList<>();
+        }
+    }
+
+    @Override
+    public @NotNull CompletableFuture<List<Delivery>> getDeliveryListAsync(@NotNull UUID playerUuid) {
+
+        // Check if the deliveries are already in the cache.
+        Optional<List<Delivery>> cached = this.getDeliveryCache().getDeliveryList(playerUuid);
+        if (cached.isPresent()) return CompletableFuture.completedFuture(this.removeExpiredDeliveries(cached.get()));
+
+        // Check if the database is disabled.
+        if (this.getDatabase().isDisabled()) return CompletableFuture.completedFuture(new ArrayList<>());
+
+        return this.getDatabaseExecutor().submit(() -> this.removeExpiredDeliveries(this.getDeliveryCache().load(playerUuid)));
+    }
+
+    @Override
+    public @NotNull List<Delivery> getDeliveryPage(@NotNull UUID playerUuid, int from, int amount) {
+
+        // Check if the database is disabled.
+        if (this.getDatabase().isDisabled()) return new ArrayList<>();
+
+        // Get the page from the cache.
+        // If the player is not in the cache load them from the database.
+        try {
+            return this.getDeliveryCache()
+                    .getDeliveryPage(playerUuid, from, amount)
+                    .orElseGet(() -> this.getDeliveryCache().loadPage(playerUuid, from, amount));
+
+        } catch (Exception exception) {
+            this.getLogger().log(Level.WARNING, "Failed to load the deliveries for " + playerUuid, exception);
+            return new ArrayList<>();
+        }
+    }
+
+    @Override
+    public @NotNull CompletableFuture<DeliveryCache.Page> getDeliveryPageAsync(@NotNull UUID playerUuid, int from, int amount) {
+
+        // Check if the database is disabled.
+        if (this.getDatabase().isDisabled()) {
+            return CompletableFuture.completedFuture(new DeliveryCache.Page(new ArrayList<>(), 0));
+        }
+
+        // Check if the player is in the cache.
+        Optional<List<Delivery>> cachedPage = this.getDeliveryCache().getDeliveryPage(playerUuid, from, amount);
+        OptionalInt cachedCount = this.getDeliveryCache().getDeliveryCount(playerUuid);
+        if (cachedPage.isPresent() && cachedCount.isPresent()) {
+            return CompletableFuture.completedFuture(new DeliveryCache.Page(cachedPage.get(), cachedCount.getAsInt()));
+        }
+
+        return this.getDatabaseExecutor().submit(() -> this.getDeliveryCache().loadPageAndCount(playerUuid, from, amount));
+    }
+
+    @Override
+    public int getDeliveryCount(@NotNull UUID playerUuid) {
+
+        // Check if the database is disabled.
+        if (this.getDatabase().isDisabled()) return 0;
+
+        try {
+            return this.getDeliveryCache()
+                    .getDeliveryCount(playerUuid)
+                    .orElseGet(() -> this.getDeliveryCache().loadCount(playerUuid));
+
+        } catch (Exception exception) {
+            this.getLogger().log(Level.WARNING, "Failed to count the deliveries for " + playerUuid, exception);
+            return 0;
+        }
     }
 
     @Override
@@ -238,6 +645,65 @@ public final class CozyDeliveries extends CozyPlugin implements CozyDeliveriesAP
         return true;
     }
 
+    @Override
+    public @NotNull CompletableFuture<Boolean> sendDeliveryAsync(@NotNull Delivery delivery) {
+
+        // Check if the database is disabled.
+        if (this.getDatabase().isDisabled()) return CompletableFuture.completedFuture(false);
+
+        // Call a delivery send event.
+        DeliverySendEvent event = new DeliverySendEvent(delivery);
+        Bukkit.getPluginManager().callEvent(event);
+
+        // Check if the event was cancelled.
+        if (event.isCancelled()) return CompletableFuture.completedFuture(false);
+
+        return this.sendDelivery0(event);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Integer> sendDeliveriesAsync(@NotNull List<Delivery> deliveryList) {
+
+        // Check if the database is disabled.
+        if (this.getDatabase().isDisabled() || deliveryList.isEmpty()) return CompletableFuture.completedFuture(0);
+
+        List<Delivery> sentList = new ArrayList<>(deliveryList.size());
+        List<CompletableFuture<Boolean>> futureList = new ArrayList<>(deliveryList.size());
+
+        for (Delivery delivery : deliveryList) {
+
+            // Call a delivery send event.
+            DeliverySendEvent event = new DeliverySendEvent(delivery);
+            Bukkit.getPluginManager().callEvent(event);
+
+            // Check if the event was cancelled.
+            if (event.isCancelled()) continue;
+
+            sentList.add(event.getDelivery());
+            futureList.add(this.sendDelivery0(event, false).exceptionally(throwable -> false));
+        }
+
+        return CompletableFuture.allOf(futureList.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+
+            // Group the deliveries that were saved by player.
+            Map<UUID, List<Delivery>> playerMap = new HashMap<>();
+            int sent = 0;
+            for (int index = 0; index < sentList.size(); index++) {
+                if (!futureList.get(index).join()) continue;
+
+                Delivery delivery = sentList.get(index);
+                playerMap.computeIfAbsent(delivery.getToPlayerUuid(), uuid -> new ArrayList<>()).add(delivery);
+                sent++;
+            }
+
+            // Notify each player once.
+            if (!playerMap.isEmpty() && this.isEnabled()) {
+                Bukkit.getScheduler().runTask(this, () -> playerMap.forEach(this::notifyDeliveries));
+            }
+            return sent;
+        });
+    }
+
     @Override
     public boolean sendDelivery(@NotNull UUID playerUuid, @Nullable String fromName, @NotNull CozyItem... items) {
         return this.sendDelivery(playerUuid, fromName, Arrays.stream(items).toList());
@@ -252,6 +718,39 @@ public final class CozyDeliveries extends CozyPlugin implements CozyDeliveriesAP
         return this.sendDelivery(delivery);
     }
 
+    @Override
+    public @NotNull BulkDelivery sendBulkDelivery(@NotNull Collection<UUID> playerUuids, @NotNull DeliveryContent content) {
+        BulkDelivery bulkDelivery = new BulkDelivery(new ArrayList<>(new LinkedHashSet<>(playerUuids)), content);
+
+        // Check if the database is disabled.
+        if (this.getDatabase().isDisabled()) {
+            bulkDelivery.getFuture().complete(0);
+            return bulkDelivery;
+        }
+
+        // Call a delivery bulk send event.
+        DeliveryBulkSendEvent event = new DeliveryBulkSendEvent(bulkDelivery);
+        Bukkit.getPluginManager().callEvent(event);
+
+        // Check if the event was cancelled.
+        if (event.isCancelled()) {
+            bulkDelivery.getFuture().complete(0);
+            return bulkDelivery;
+        }
+
+        // Write the deliveries on the database executor.
+        // This is not timed out, so it is not interrupted part way through.
+        this.getDatabaseExecutor().submit(() -> {
+            this.sendBulkDelivery0(bulkDelivery);
+            return null;
+        }, 0L).exceptionally(throwable -> {
+            this.getLogger().log(Level.WARNING, "Failed to send a bulk delivery.", throwable);
+            bulkDelivery.getFuture().completeExceptionally(throwable);
+            return null;
+        });
+        return bulkDelivery;
+    }
+
     @Override
     public void createDelivery(@NotNull Player fromPlayer) {
         new PickPlayerInventory().open(fromPlayer);
@@ -270,57 +769,196 @@ public final class CozyDeliveries extends CozyPlugin implements CozyDeliveriesAP
 
     @Override
     public @NotNull List<Delivery> removeExpiredDeliveries(@NotNull List<Delivery> deliveryList) {
-        List<Delivery> list = new ArrayList<>(deliveryList);
-
-        // The list of expired deliveries.
-        List<Delivery> toRemove = new ArrayList<>();
+        List<Delivery> list = new ArrayList<>(deliveryList.size());
 
-        // Remove expired deliveries.
-        for (Delivery delivery : list) {
-            if (!delivery.hasExpireDate()) continue;
-            if (!delivery.hasExpired()) continue;
-            toRemove.add(delivery);
+        for (Delivery delivery : deliveryList) {
 
-            // Remove the delivery from the database.
-            if (this.getDatabase().isDisabled()) continue;
+            // Check if the delivery has not expired.
+            if (!delivery.hasExpireDate() || !delivery.hasExpired()) {
+                list.add(delivery);
+                continue;
+            }
 
-            // Remove the record from the database.
-            this.getDatabase()
-                    .getTable(DeliveryTable.class)
-                    .removeRecord(new DeliveryRecord(delivery));
+            // Otherwise make sure the expiry scheduler will remove it.
+            this.getDeliveryCache().removeDelivery(delivery);
+            this.getExpiryScheduler().schedule(delivery);
         }
 
-        list.removeAll(toRemove);
         return list;
     }
 
-    private void sendDelivery0(@NotNull DeliverySendEvent event) {
+    private @NotNull CompletableFuture<Boolean> sendDelivery0(@NotNull DeliverySendEvent event) {
+        return this.sendDelivery0(event, true);
+    }
+
+    private @NotNull CompletableFuture<Boolean> sendDelivery0(@NotNull DeliverySendEvent event, boolean notify) {
+        final Delivery delivery = event.getDelivery();
+
+        // Add the delivery to the cache so it can be seen straight away.
+        this.getDeliveryCache().addDelivery(delivery);
+        this.getExpiryScheduler().schedule(delivery);
+
+        // Queue the delivery to be saved to the database.
+        // The player's statistics are updated by the write queue.
+        return this.getWriteQueue().submit(new DeliveryRecord(delivery)).thenApply(success -> {
+
+            // Check if the delivery failed to save.
+            if (!success) {
+                this.getDeliveryCache().removeDelivery(delivery);
+                return false;
+            }
+
+            // Tell the other servers and attempt
+            // to notify the player it was sent to.
+            this.getDeliveryBus().publish(
+                    DeliveryBusMessage.Type.SEND, delivery.getToPlayerUuid(), delivery.getUuid(), delivery.getFromName()
+            );
+
+            // Tasks can not be scheduled once the plugin is disabled,
+            // which happens while the write queue is drained.
+            if (notify && this.isEnabled()) Bukkit.getScheduler().runTask(this, () -> this.notifyDelivery(delivery));
+            return true;
+        });
+    }
 
-        // Save the delivery to the database.
-        this.getDatabase().getTable(DeliveryTable.class)
-                .insertRecord(new DeliveryRecord(event.getDelivery()));
+    private void sendBulkDelivery0(@NotNull BulkDelivery bulkDelivery) {
+        final String fromName = "Server";
+        final List<UUID> playerUuidList = bulkDelivery.getPlayerUuidList();
+        final int chunkSize = Math.max(1, this.getConfiguration().getInteger("database.bulk_chunk_size", 500));
+        final long publishTimeout = this.getConfiguration().getInteger("bus.bulk_publish_timeout_millis", 5000);
 
-        // Update the player's statistics.
-        PlayerTable playerTable = this.getDatabase().getTable(PlayerTable.class);
-        playerTable.insertRecord(
-                playerTable.getPlayerRecord(event.getDelivery().getToPlayerUuid())
-                        .orElse(new PlayerRecord(event.getDelivery().getToPlayerUuid()))
-                        .incrementReceived(1)
+        // Serialize the delivery once for every player.
+        DeliveryRecordTemplate template = new DeliveryRecordTemplate(
+                fromName, bulkDelivery.getContent(), System.currentTimeMillis(), -1L
         );
 
-        // Attempt to notify the player it was sent to.
-        Player player = Bukkit.getPlayer(event.getDelivery().getToPlayerUuid());
+        DeliveryTable deliveryTable = this.getDatabase().getTable(DeliveryTable.class);
+        Set<UUID> sentSet = new HashSet<>();
+
+        // The database library has no batch insert, so each
+        // record is still its own insert. The chunks only
+        // decide how often the progress is reported.
+        for (int from = 0; from < playerUuidList.size(); from += chunkSize) {
+            List<UUID> chunk = playerUuidList.subList(from, Math.min(playerUuidList.size(), from + chunkSize));
+            int sent = 0;
+
+            for (UUID playerUuid : chunk) {
+                final DeliveryRecord record;
+                try {
+                    record = template.create(playerUuid);
+                    deliveryTable.insertRecord(record);
+
+                } catch (Exception exception) {
+
+                    // Carry on with the other players.
+                    if (bulkDelivery.getFailed() == 0) {
+                        this.getLogger().log(Level.WARNING, "Failed to send a bulk delivery to " + playerUuid, exception);
+                    }
+                    bulkDelivery.incrementFailed(1);
+                    continue;
+                }
+
+                sent++;
+                sentSet.add(playerUuid);
+
+                // Add the delivery to the cache if the player is online,
+                // and tell the other servers. This waits for space on
+                // the bus instead of dropping the messages.
+                this.getDeliveryCache().addRecord(record);
+                this.getDeliveryBus().publish(new DeliveryBusMessage(
+                        DeliveryBusMessage.Type.SEND, this.getDeliveryBus().getServerId(), playerUuid, record.getUuid(), fromName
+                ), publishTimeout);
+
+                // Count the delivery in the player's statistics.
+                this.getPlayerStatistics().incrementReceived(playerUuid, 1);
+            }
+
+            bulkDelivery.incrementSent(sent);
+        }
+
+        if (bulkDelivery.getFailed() > 0) {
+            this.getLogger().log(Level.WARNING, "Failed to send " + bulkDelivery.getFailed() + " of "
+                    + bulkDelivery.getTotal() + " bulk deliveries. Only the first error was logged.");
+        }
+
+        // Notify the players that are online.
+        if (this.isEnabled()) {
+            Bukkit.getScheduler().runTask(this, () -> {
+                for (Player player : Bukkit.getOnlinePlayers()) {
+                    if (!sentSet.contains(player.getUniqueId())) continue;
+                    this.notifyDelivery(player.getUniqueId(), fromName);
+                }
+            });
+        }
+
+        bulkDelivery.getFuture().complete(bulkDelivery.getSent());
+    }
+
+    private void notifyDelivery(@NotNull Delivery delivery) {
+        this.notifyDelivery(delivery.getToPlayerUuid(), delivery.getFromName("null"));
+    }
+
+    private void notifyDelivery(@NotNull UUID playerUuid, @NotNull String fromName) {
+
+        // Check if the player is online.
+        Player player = Bukkit.getPlayer(playerUuid);
         if (player == null) return;
 
-        new PlayerUser(player).sendMessage(this.getConfiguration()
-                .getAdaptedString("delivery.receive_message", "\n", "&7You have received a delivery from &f{sender}")
-                .replace("{sender}", event.getDelivery().getFromName("null"))
+        new PlayerUser(player).sendMessage(this.getPlaceholderRegistry()
+                .getTemplate("delivery.receive_message", "&7You have received a delivery from &f{sender}")
+                .render(PlaceholderContext.of(playerUuid), (placeholder, context) -> placeholder.equals("sender") ? fromName : null)
         );
     }
 
+    private void notifyDeliveries(@NotNull UUID playerUuid, @NotNull List<Delivery> deliveryList) {
+
+        // Use the normal message for a single delivery.
+        if (deliveryList.size() == 1) {
+            this.notifyDelivery(deliveryList.get(0));
+            return;
+        }
+
+        // Check if the player is online.
+        Player player = Bukkit.getPlayer(playerUuid);
+        if (player == null) return;
+
+        final String amount = String.valueOf(deliveryList.size());
+        new PlayerUser(player).sendMessage(this.getPlaceholderRegistry()
+                .getTemplate("delivery.receive_many_message", "&7You have received &f{amount} &7deliveries")
+                .render(PlaceholderContext.of(playerUuid), (placeholder, context) -> placeholder.equals("amount") ? amount : null)
+        );
+    }
+
+    private void onPlayerJoin0(@NotNull PlayerJoinContext context) {
+        try {
+
+            // Call the delivery events and send the
+            // deliveries they picked together.
+            this.getEventConfiguration().onPlayerJoinEvent(context);
+            this.sendDeliveriesAsync(context.getDeliveryList());
+
+        } catch (Exception exception) {
+            this.getLogger().log(Level.WARNING, "Failed to give the join deliveries to " + context.getPlayerName(), exception);
+        }
+    }
+
     @EventHandler
     public void onPlayerJoin(PlayerJoinEvent event) {
-        this.getEventConfiguration().onPlayerJoinEvent(event);
+        this.getDeliveryCache().loadAsync(event.getPlayer().getUniqueId());
+        this.getPlayerDirectory().add(event.getPlayer().getUniqueId(), event.getPlayer().getName());
+
+        // Copy the player's data and handle the delivery events on the
+        // database executor. This is not limited or timed out, so the
+        // deliveries are not dropped when the executor is busy or
+        // interrupted part way through being sent.
+        PlayerJoinContext context = PlayerJoinContext.of(event.getPlayer());
+        this.getDatabaseExecutor().submitRequired(() -> {
+            this.onPlayerJoin0(context);
+            return null;
+        }).exceptionally(throwable -> {
+            this.getLogger().log(Level.WARNING, "Failed to give the join deliveries to " + context.getPlayerName(), throwable);
+            return null;
+        });
     }
 
     @EventHandler
@@ -328,6 +966,12 @@ public final class CozyDeliveries extends CozyPlugin implements CozyDeliveriesAP
         this.getEventConfiguration().onPlayerLeaveEvent(event);
     }
 
+    @EventHandler
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        this.getDeliveryCache().evict(event.getPlayer().getUniqueId());
+        this.getCooldownScheduler().removePlayer(event.getPlayer().getUniqueId());
+    }
+
     /**
      * Used to get the instance of the plugin api methods
      * from bukkit.
@@ -18,9 +18,23 @@
 
 package com.github.cozyplugins.cozydeliveries;
 
+import com.github.cozyplugins.cozydeliveries.bus.DeliveryBus;
+import com.github.cozyplugins.cozydeliveries.cache.DeliveryCache;
+import com.github.cozyplugins.cozydeliveries.cache.PlayerDirectory;
 import com.github.cozyplugins.cozydeliveries.configuration.ContentConfigurationDirectory;
 import com.github.cozyplugins.cozydeliveries.configuration.EventConfigurationDirectory;
+import com.github.cozyplugins.cozydeliveries.database.DatabaseExecutor;
+import com.github.cozyplugins.cozydeliveries.database.DeliveryClaimService;
+import com.github.cozyplugins.cozydeliveries.database.DeliveryExpiryScheduler;
+import com.github.cozyplugins.cozydeliveries.database.DeliveryWriteQueue;
+import com.github.cozyplugins.cozydeliveries.database.PlayerStatistics;
+import com.github.cozyplugins.cozydeliveries.database.migration.SchemaMigration;
+import com.github.cozyplugins.cozydeliveries.delivery.BulkDelivery;
 import com.github.cozyplugins.cozydeliveries.delivery.Delivery;
+import com.github.cozyplugins.cozydeliveries.delivery.DeliveryContent;
+import com.github.cozyplugins.cozydeliveries.delivery.DeliveryItemRenderer;
+import com.github.cozyplugins.cozydeliveries.delivery.event.CooldownScheduler;
+import com.github.cozyplugins.cozydeliveries.placeholder.PlaceholderRegistry;
 import com.github.cozyplugins.cozylibrary.item.CozyItem;
 import com.github.smuddgge.squishyconfiguration.interfaces.Configuration;
 import com.github.smuddgge.squishydatabase.interfaces.Database;
@@ -28,9 +42,11 @@ import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Represents the cozy deliveries api interface.
@@ -59,6 +75,111 @@ public interface CozyDeliveriesAPI {
      */
     @NotNull Database getDatabase();
 
+    /**
+     * Used to get the schema migration.
+     * This moves the rows in the version 1 tables
+     * into the version 2 tables.
+     *
+     * @return The schema migration.
+     */
+    @NotNull SchemaMigration getSchemaMigration();
+
+    /**
+     * Used to get the executor used to run
+     * database operations in the background.
+     *
+     * @return The database executor.
+     */
+    @NotNull DatabaseExecutor getDatabaseExecutor();
+
+    /**
+     * Used to get the queue that writes deliveries
+     * to the database in the background.
+     * This can be used to check how many deliveries
+     * are waiting to be written.
+     *
+     * @return The delivery write queue.
+     */
+    @NotNull DeliveryWriteQueue getWriteQueue();
+
+    /**
+     * Used to get the player statistics accumulator.
+     * The counts are written to the player table
+     * in the background.
+     *
+     * @return The player statistics.
+     */
+    @NotNull PlayerStatistics getPlayerStatistics();
+
+    /**
+     * Used to get the cache of deliveries for
+     * the players that are online.
+     * This can be used to check if the cache is working
+     * with its hit, miss and load time counters.
+     *
+     * @return The delivery cache.
+     */
+    @NotNull DeliveryCache getDeliveryCache();
+
+    /**
+     * Used to get the bus used to tell the other
+     * servers sharing the database when deliveries
+     * are sent, claimed or expire.
+     *
+     * @return The delivery bus.
+     */
+    @NotNull DeliveryBus getDeliveryBus();
+
+    /**
+     * Used to get the service used to give
+     * deliveries to players without blocking
+     * the main thread.
+     *
+     * @return The delivery claim service.
+     */
+    @NotNull DeliveryClaimService getClaimService();
+
+    /**
+     * Used to get the scheduler that removes
+     * expired deliveries from the database.
+     *
+     * @return The delivery expiry scheduler.
+     */
+    @NotNull DeliveryExpiryScheduler getExpiryScheduler();
+
+    /**
+     * Used to get the scheduler that gives
+     * deliveries when a player's cooldown ends.
+     *
+     * @return The cooldown scheduler.
+     */
+    @NotNull CooldownScheduler getCooldownScheduler();
+
+    /**
+     * Used to get the directory of players
+     * that have joined the server, sorted by name.
+     *
+     * @return The player directory.
+     */
+    @NotNull PlayerDirectory getPlayerDirectory();
+
+    /**
+     * Used to get the placeholder registry.
+     * Other plugins can register their own
+     * placeholders with this registry.
+     *
+     * @return The placeholder registry.
+     */
+    @NotNull PlaceholderRegistry getPlaceholderRegistry();
+
+    /**
+     * Used to get the renderer used to create
+     * the items shown for deliveries.
+     *
+     * @return The delivery item renderer.
+     */
+    @NotNull DeliveryItemRenderer getItemRenderer();
+
     /**
      * Used to get the instance of the content
      * configuration directory.
@@ -85,21 +206,30 @@ public interface CozyDeliveriesAPI {
      * from the database.
      * This will also check if the database is enabled.
      * If the delivery is expired it will return an empty
-     * optional and remove it from the database.
+     * optional.
      *
      * @param uuid The delivery's identifier.
      * @return The optional delivery.
      */
     @NotNull Optional<Delivery> getDelivery(@NotNull UUID uuid);
 
+    /**
+     * Used to get a delivery from the database
+     * on the database executor.
+     *
+     * @param uuid The delivery's uuid.
+     * @return The future that completes with the
+     * optional delivery.
+     */
+    @NotNull CompletableFuture<Optional<Delivery>> getDeliveryAsync(@NotNull UUID uuid);
+
     /**
      * Used to get the list of all the
      * deliveries.
      * Be careful using this method as it interacts
      * with the database.
      * This will also check if the database is enabled.
-     * If the delivery is expired it removes it from the
-     * database and this list.
+     * Expired deliveries are not included in the list.
      *
      * @return The list of deliveries.
      * Empty list if the database is disabled.
@@ -108,9 +238,10 @@ public interface CozyDeliveriesAPI {
 
     /**
      * Used to get a player's list of deliveries.
+     * If the player is online the deliveries are
+     * taken from the delivery cache.
      * This will also check if the database is enabled.
-     * If the delivery is expired it removes it from the
-     * database and this list.
+     * Expired deliveries are not included in the list.
      *
      * @param playerUuid The player's uuid.
      * @return The list of deliveries that has
@@ -119,34 +250,141 @@ public interface CozyDeliveriesAPI {
      */
     @NotNull List<Delivery> getDeliveryList(@NotNull UUID playerUuid);
 
+    /**
+     * Used to get a player's list of deliveries
+     * without blocking the calling thread.
+     * If the player is online the future is
+     * completed straight away from the delivery cache.
+     *
+     * @param playerUuid The player's uuid.
+     * @return The future that completes with the
+     * list of deliveries sent to the player.
+     */
+    @NotNull CompletableFuture<List<Delivery>> getDeliveryListAsync(@NotNull UUID playerUuid);
+
+    /**
+     * Used to get a page of a player's deliveries,
+     * oldest first.
+     * If the player is online the deliveries are
+     * taken from the delivery cache, and only the
+     * deliveries on the page are decoded.
+     * Expired deliveries are not included.
+     *
+     * @param playerUuid The player's uuid.
+     * @param from       The index of the first delivery.
+     * @param amount     The maximum number of deliveries.
+     * @return The page of deliveries.
+     * Empty list if the database is disabled.
+     */
+    @NotNull List<Delivery> getDeliveryPage(@NotNull UUID playerUuid, int from, int amount);
+
+    /**
+     * Used to get a page of a player's deliveries
+     * and the number of deliveries, oldest first.
+     * If the player is online the page is taken from
+     * the delivery cache straight away, otherwise it
+     * is read on the database executor.
+     * Expired deliveries are not included.
+     *
+     * @param playerUuid The player's uuid.
+     * @param from       The index of the first delivery.
+     * @param amount     The maximum number of deliveries.
+     * @return The future that completes with the page.
+     * An empty page if the database is disabled.
+     */
+    @NotNull CompletableFuture<DeliveryCache.Page> getDeliveryPageAsync(@NotNull UUID playerUuid, int from, int amount);
+
+    /**
+     * Used to get the number of deliveries
+     * sent to a player that have not expired.
+     * If the player is online the number is taken
+     * from the delivery cache.
+     *
+     * @param playerUuid The player's uuid.
+     * @return The number of deliveries.
+     * 0 if the database is disabled.
+     */
+    int getDeliveryCount(@NotNull UUID playerUuid);
+
     /**
      * Used to send a delivery to a player.
+     * The delivery is written to the database in the background,
+     * so returning true only means it was queued. It can still fail
+     * to be written, for example if the write queue is full.
+     * Use {@link #sendDeliveryAsync(Delivery)} to know
+     * when it has been written.
      *
      * @param delivery The instance of a delivery.
-     * @return True if the delivery was sent.
+     * @return True if the delivery was queued to be sent.
      */
     boolean sendDelivery(@NotNull Delivery delivery);
 
     /**
      * Used to send a delivery to a player.
+     * The delivery is written to the database in the
+     * background, the future completes when it has been written.
+     * This should be called on the main thread.
+     *
+     * @param delivery The instance of a delivery.
+     * @return The future that completes with true
+     * if the delivery was sent.
+     */
+    @NotNull CompletableFuture<Boolean> sendDeliveryAsync(@NotNull Delivery delivery);
+
+    /**
+     * Used to send many deliveries at once.
+     * The deliveries are written to the database in the background
+     * and each player is sent a single message for all the
+     * deliveries they received.
+     * This can be called off the main thread.
+     *
+     * @param deliveryList The list of deliveries.
+     * @return The future that completes with the
+     * number of deliveries that were sent.
+     */
+    @NotNull CompletableFuture<Integer> sendDeliveriesAsync(@NotNull List<Delivery> deliveryList);
+
+    /**
+     * Used to send a delivery to a player.
+     * Returning true only means the delivery was queued,
+     * see {@link #sendDelivery(Delivery)}.
      *
      * @param playerUuid The player's uuid to send to.
      * @param fromName   The name of the sender.
      * @param items      The list of items to send.
-     * @return True if the delivery was sent.
+     * @return True if the delivery was queued to be sent.
      */
     boolean sendDelivery(@NotNull UUID playerUuid, @Nullable String fromName, @NotNull CozyItem... items);
 
     /**
      * Used to send a delivery to a player.
+     * Returning true only means the delivery was queued,
+     * see {@link #sendDelivery(Delivery)}.
      *
      * @param playerUuid The player's uuid to send to.
      * @param fromName   The name of the sender.
      * @param itemList   The list of items to send.
-     * @return True if the delivery was sent.
+     * @return True if the delivery was queued to be sent.
      */
     boolean sendDelivery(@NotNull UUID playerUuid, @Nullable String fromName, @NotNull List<CozyItem> itemList);
 
+    /**
+     * Used to send the same delivery content to many players.
+     * The content is serialized once and the deliveries are
+     * written to the database one by one on the database executor,
+     * as the database library has no batch insert.
+     * A delivery that fails to be written is counted with
+     * {@link BulkDelivery#getFailed()} and the rest are still sent.
+     * A single {@link com.github.cozyplugins.cozydeliveries.event.DeliveryBulkSendEvent}
+     * is called instead of an event for each player.
+     * This should be called on the main thread.
+     *
+     * @param playerUuids The players to send the delivery to.
+     * @param content     The content to send.
+     * @return The bulk delivery that can be used to track the progress.
+     */
+    @NotNull BulkDelivery sendBulkDelivery(@NotNull Collection<UUID> playerUuids, @NotNull DeliveryContent content);
+
     /**
      * Used to ask the player who to send the delivery too,
      * asks for which items or money to send and then sends them.
@@ -166,8 +404,9 @@ public interface CozyDeliveriesAPI {
     void createDelivery(@NotNull Player fromPlayer, @NotNull UUID toPlayerUuid);
 
     /**
-     * Used to remove a delivery from the database
-     * if it is expired.
+     * Used to filter a delivery if it is expired.
+     * Expired deliveries are removed from the database
+     * in the background by the expiry scheduler.
      *
      * @param delivery The instance of the delivery.
      * @return The optional delivery if it hasn't expired.
@@ -175,7 +414,9 @@ public interface CozyDeliveriesAPI {
     @NotNull Optional<Delivery> removeIfExpired(@NotNull Delivery delivery);
 
     /**
-     * Removes the expired deliveries from the database.
+     * Used to filter the expired deliveries from a list.
+     * Expired deliveries are removed from the database
+     * in the background by the expiry scheduler.
      *
      * @param deliveryList The list of deliveries.
      * @return The deliveries that have not expired.
@@ -0,0 +1,118 @@
+/*
+ * CozyDeliveries - An item and money delivery service for a minecraft server.
+ * Copyright (C) 2024  Smuddgge
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.github.cozyplugins.cozydeliveries.bus;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.UUID;
+
+/**
+ * Represents the delivery bus.
+ * Used to tell the other servers sharing the database
+ * when deliveries are sent, claimed or expire, so they
+ * can update their caches and notify their players
+ * without reading the database.
+ */
+public interface DeliveryBus {
+
+    /**
+     * Represents a listener for messages on the bus.
+     */
+    interface Listener {
+
+        /**
+         * Called when a message is received.
+         * This can be called off the main thread,
+         * including for messages sent by this server.
+         *
+         * @param message The message.
+         */
+        void onMessage(@NotNull DeliveryBusMessage message);
+    }
+
+    /**
+     * Used to get the identifier of this server.
+     * This is used to ignore messages sent by this server.
+     *
+     * @return The server identifier.
+     */
+    @NotNull String getServerId();
+
+    /**
+     * Used to publish a message to every server.
+     * This should not block, so it can be called
+     * on the main thread.
+     *
+     * @param message The message to publish.
+     */
+    void publish(@NotNull DeliveryBusMessage message);
+
+    /**
+     * Used to publish a message to every server,
+     * waiting for space if too many messages are waiting.
+     * This blocks, so it should only be called
+     * off the main thread, for example when
+     * publishing many messages at once.
+     *
+     * @param message       The message to publish.
+     * @param timeoutMillis The maximum time to wait for space.
+     */
+    default void publish(@NotNull DeliveryBusMessage message, long timeoutMillis) {
+        this.publish(message);
+    }
+
+    /**
+     * Used to publish a message from this server.
+     *
+     * @param type         The type of change.
+     * @param playerUuid   The player the delivery was sent to.
+     * @param deliveryUuid The delivery's uuid.
+     * @param fromName     The name of the sender, or null.
+     */
+    default void publish(@NotNull DeliveryBusMessage.Type type,
+                         @NotNull UUID playerUuid,
+                         @NotNull UUID deliveryUuid,
+                         @Nullable String fromName) {
+
+        this.publish(new DeliveryBusMessage(type, this.getServerId(), playerUuid, deliveryUuid, fromName));
+    }
+
+    /**
+     * Used to add a listener for messages.
+     *
+     * @param listener The listener.
+     */
+    void addListener(@NotNull Listener listener);
+
+    /**
+     * Used to remove a listener.
+     *
+     * @param listener The listener.
+     */
+    void removeListener(@NotNull Listener listener);
+
+    /**
+     * Used to stop the bus.
+     * No more messages will be accepted or received.
+     * Messages that were already accepted may still
+     * be published before this returns.
+     */
+    void close();
+}
@@ -0,0 +1,168 @@
+/*
+ * CozyDeliveries - An item and money delivery service for a minecraft server.
+ * Copyright (C) 2024  Smuddgge
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.github.cozyplugins.cozydeliveries.bus;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Represents a message sent on the {@link DeliveryBus}.
+ * Tells other servers that a player's deliveries have changed.
+ */
+public class DeliveryBusMessage {
+
+    private static final @NotNull String SEPARATOR = "\n";
+
+    /**
+     * Represents the types of change.
+     */
+    public enum Type {
+
+        /**
+         * A delivery was sent to a player.
+         */
+        SEND,
+
+        /**
+         * A delivery was claimed by a player.
+         */
+        CLAIM,
+
+        /**
+         * A delivery expired and was removed.
+         */
+        EXPIRE
+    }
+
+    private final @NotNull Type type;
+    private final @NotNull String serverId;
+    private final @NotNull UUID playerUuid;
+    private final @NotNull UUID deliveryUuid;
+    private final @Nullable String fromName;
+
+    /**
+     * Used to create a new delivery bus message.
+     *
+     * @param type         The type of change.
+     * @param serverId     The identifier of the server that sent the message.
+     * @param playerUuid   The player the delivery was sent to.
+     * @param deliveryUuid The delivery's uuid.
+     * @param fromName     The name of the sender, or null.
+     */
+    public DeliveryBusMessage(@NotNull Type type,
+                              @NotNull String serverId,
+                              @NotNull UUID playerUuid,
+                              @NotNull UUID deliveryUuid,
+                              @Nullable String fromName) {
+
+        this.type = type;
+        this.serverId = serverId;
+        this.playerUuid = playerUuid;
+        this.deliveryUuid = deliveryUuid;
+        this.fromName = fromName;
+    }
+
+    /**
+     * Used to get the type of change.
+     *
+     * @return The type of change.
+     */
+    public @NotNull Type getType() {
+        return this.type;
+    }
+
+    /**
+     * Used to get the identifier of the
+     * server that sent the message.
+     *
+     * @return The server identifier.
+     */
+    public @NotNull String getServerId() {
+        return this.serverId;
+    }
+
+    /**
+     * Used to get the player the delivery was sent to.
+     *
+     * @return The player's uuid.
+     */
+    public @NotNull UUID getPlayerUuid() {
+        return this.playerUuid;
+    }
+
+    /**
+     * Used to get the delivery's uuid.
+     *
+     * @return The delivery's uuid.
+     */
+    public @NotNull UUID getDeliveryUuid() {
+        return this.deliveryUuid;
+    }
+
+    /**
+     * Used to get the name of the sender.
+     *
+     * @return The name of the sender, or null.
+     */
+    public @Nullable String getFromName() {
+        return this.fromName;
+    }
+
+    /**
+     * Used to encode the message so it
+     * can be sent to other servers.
+     *
+     * @return The encoded message.
+     */
+    public @NotNull String encode() {
+        return this.type.name() + SEPARATOR
+                + this.serverId.replace(SEPARATOR, " ") + SEPARATOR
+                + this.playerUuid + SEPARATOR
+                + this.deliveryUuid
+                + (this.fromName == null ? "" : SEPARATOR + this.fromName);
+    }
+
+    /**
+     * Used to decode a message.
+     *
+     * @param encoded The encoded message.
+     * @return The message.
+     * Empty if it is not a valid message.
+     */
+    public static @NotNull Optional<DeliveryBusMessage> decode(@NotNull String encoded) {
+        String[] parts = encoded.split(SEPARATOR, 5);
+        if (parts.length < 4) return Optional.empty();
+
+        try {
+            return Optional.of(new DeliveryBusMessage(
+                    Type.valueOf(parts[0]),
+                    parts[1],
+                    UUID.fromString(parts[2]),
+                    UUID.fromString(parts[3]),
+                    parts.length == 5 ? parts[4] : null
+            ));
+
+        } catch (IllegalArgumentException exception) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * CozyDeliveries - An item and money delivery service for a minecraft server.
+ * Copyright (C) 2024  Smuddgge
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.github.cozyplugins.cozydeliveries.bus;
+
+import com.github.cozyplugins.cozydeliveries.cache.DeliveryCache;
+import com.github.cozyplugins.cozydeliveries.database.DatabaseExecutor;
+import com.github.cozyplugins.cozydeliveries.database.DeliveryRecord;
+import com.github.cozyplugins.cozydeliveries.database.DeliveryTable;
+import com.github.smuddgge.squishydatabase.Query;
+import com.github.smuddgge.squishydatabase.interfaces.Database;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.logging.Level;
+
+/**
+ * Represents the delivery bus subscriber.
+ * Applies the changes made on other servers to
+ * this server's delivery cache and notifies the
+ * players that received a delivery.
+ */
+public class DeliveryBusSubscriber implements DeliveryBus.Listener {
+
+    private final @NotNull Plugin plugin;
+    private final @NotNull DeliveryBus bus;
+    private final @NotNull Database database;
+    private final @NotNull DatabaseExecutor executor;
+    private final @NotNull DeliveryCache deliveryCache;
+    private final @NotNull BiConsumer<UUID, String> notifier;
+
+    /**
+     * Used to create a new delivery bus subscriber.
+     *
+     * @param plugin        The instance of the plugin used to schedule tasks.
+     * @param bus           The bus the messages are received from.
+     * @param database      The database to read sent deliveries from.
+     * @param executor      The executor used to run the database operations.
+     * @param deliveryCache The cache to update.
+     * @param notifier      Called on the main thread with the player's
+     *                      uuid and the sender's name when a player
+     *                      receives a delivery.
+     */
+    public DeliveryBusSubscriber(@NotNull Plugin plugin,
+                                 @NotNull DeliveryBus bus,
+                                 @NotNull Database database,
+                                 @NotNull DatabaseExecutor executor,
+                                 @NotNull DeliveryCache deliveryCache,
+                                 @NotNull BiConsumer<UUID, String> notifier) {
+
+        this.plugin = plugin;
+        this.bus = bus;
+        this.database = database;
+        this.executor = executor;
+        this.deliveryCache = deliveryCache;
+        this.notifier = notifier;
+    }
+
+    @Override
+    public void onMessage(@NotNull DeliveryBusMessage message) {
+
+        // Ignore the changes made on this server.
+        if (message.getServerId().equals(this.bus.getServerId())) return;
+
+        switch (message.getType()) {
+            case SEND -> this.onSend(message);
+            case CLAIM, EXPIRE -> this.deliveryCache.removeDelivery(message.getPlayerUuid(), message.getDeliveryUuid());
+        }
+    }
+
+    private void onSend(@NotNull DeliveryBusMessage message) {
+        final UUID playerUuid = message.getPlayerUuid();
+
+        // Check if the player is on this server.
+        if (!this.deliveryCache.contains(playerUuid)) return;
+
+        // Read only the delivery that was sent.
+        this.executor.execute(() -> {
+            DeliveryRecord record = this.database
+                    .getTable(DeliveryTable.class)
+                    .getFirstRecord(new Query().match("uuid", message.getDeliveryUuid().toString()));
+
+            // Check if it was already claimed.
+            if (record == null) return;
+            this.deliveryCache.addRecord(record);
+
+            Bukkit.getScheduler().runTask(this.plugin, () -> this.notifier.accept(
+                    playerUuid, message.getFromName() == null ? "null" : message.getFromName()
+            ));
+
+        }).exceptionally(throwable -> {
+            this.plugin.getLogger().log(Level.WARNING,
+                    "Failed to load delivery " + message.getDeliveryUuid() + " sent on " + message.getServerId(), throwable
+            );
+            return null;
+        });
+    }
+}
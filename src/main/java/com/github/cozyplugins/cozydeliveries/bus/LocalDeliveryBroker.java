@@ -0,0 +1,232 @@
+/*
+ * CozyDeliveries - An item and money delivery service for a minecraft server.
+ * Copyright (C) 2024  Smuddgge
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.github.cozyplugins.cozydeliveries.bus;
+
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+/**
+ * Represents a local delivery broker.
+ * A minimal publish and subscribe server that uses the redis protocol.
+ * It only listens on the loopback address and is meant for testing
+ * the {@link SocketDeliveryBus} without running redis.
+ * <p>
+ * The supported commands are PING, AUTH, SUBSCRIBE,
+ * UNSUBSCRIBE and PUBLISH.
+ */
+public class LocalDeliveryBroker {
+
+    private final @NotNull Plugin plugin;
+    private final int port;
+    private final @NotNull Map<String, Set<Client>> channelMap;
+    private @Nullable ServerSocket serverSocket;
+    private @Nullable Thread thread;
+
+    /**
+     * Represents a connected client.
+     */
+    private static class Client {
+
+        private final @NotNull Socket socket;
+        private final @NotNull OutputStream output;
+
+        private Client(@NotNull Socket socket) throws IOException {
+            this.socket = socket;
+            this.output = new BufferedOutputStream(socket.getOutputStream());
+        }
+
+        private synchronized void writeArray(@NotNull String... parts) throws IOException {
+            Resp.writeArray(this.output, parts);
+        }
+
+        private synchronized void writeSimple(@NotNull String reply) throws IOException {
+            Resp.writeSimple(this.output, reply);
+        }
+    }
+
+    /**
+     * Used to create a new local delivery broker.
+     *
+     * @param plugin The instance of the plugin used for logging.
+     * @param port   The port to listen on.
+     */
+    public LocalDeliveryBroker(@NotNull Plugin plugin, int port) {
+        this.plugin = plugin;
+        this.port = port;
+        this.channelMap = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Used to start accepting connections.
+     *
+     * @throws IOException If the port cannot be used.
+     */
+    public void start() throws IOException {
+        if (this.serverSocket != null) return;
+
+        ServerSocket socket = new ServerSocket(this.port, 50, InetAddress.getLoopbackAddress());
+        this.serverSocket = socket;
+
+        this.thread = new Thread(() -> this.accept(socket), "CozyDeliveries Broker");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Used to stop the broker and
+     * disconnect every client.
+     */
+    public void stop() {
+        try {
+            if (this.serverSocket != null) this.serverSocket.close();
+        } catch (IOException ignored) {
+        }
+
+        this.serverSocket = null;
+        this.thread = null;
+
+        for (Set<Client> clientSet : this.channelMap.values()) {
+            for (Client client : clientSet) {
+                try {
+                    client.socket.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+        this.channelMap.clear();
+    }
+
+    /**
+     * Used to get the port the broker listens on.
+     *
+     * @return The port.
+     */
+    public int getPort() {
+        return this.serverSocket == null ? this.port : this.serverSocket.getLocalPort();
+    }
+
+    private void accept(@NotNull ServerSocket serverSocket) {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread thread = new Thread(() -> this.handle(socket), "CozyDeliveries Broker Client");
+                thread.setDaemon(true);
+                thread.start();
+
+            } catch (IOException exception) {
+                if (serverSocket.isClosed()) return;
+                this.plugin.getLogger().log(Level.WARNING, "Failed to accept a delivery broker connection.", exception);
+            }
+        }
+    }
+
+    private void handle(@NotNull Socket socket) {
+        Client client = null;
+
+        try (socket) {
+            client = new Client(socket);
+            InputStream input = new BufferedInputStream(socket.getInputStream());
+
+            while (!socket.isClosed()) {
+                if (!(Resp.read(input) instanceof List<?> command) || command.isEmpty()) {
+                    client.writeSimple("-ERR expected a command");
+                    continue;
+                }
+
+                this.execute(client, command);
+            }
+
+        } catch (IOException ignored) {
+
+            // The client disconnected.
+
+        } finally {
+            if (client != null) this.unsubscribeAll(client);
+        }
+    }
+
+    private void execute(@NotNull Client client, @NotNull List<?> command) throws IOException {
+        final String name = String.valueOf(command.get(0)).toUpperCase();
+
+        switch (name) {
+            case "PING" -> client.writeSimple("+PONG");
+            case "AUTH" -> client.writeSimple("+OK");
+            case "SUBSCRIBE" -> {
+                for (int index = 1; index < command.size(); index++) {
+                    final String channel = String.valueOf(command.get(index));
+                    this.channelMap.computeIfAbsent(channel, key -> ConcurrentHashMap.newKeySet()).add(client);
+                    client.writeArray("subscribe", channel, String.valueOf(index));
+                }
+            }
+            case "UNSUBSCRIBE" -> {
+                for (int index = 1; index < command.size(); index++) {
+                    final String channel = String.valueOf(command.get(index));
+                    Set<Client> clientSet = this.channelMap.get(channel);
+                    if (clientSet != null) clientSet.remove(client);
+                    client.writeArray("unsubscribe", channel, "0");
+                }
+            }
+            case "PUBLISH" -> {
+                if (command.size() != 3) {
+                    client.writeSimple("-ERR wrong number of arguments for 'publish' command");
+                    return;
+                }
+                client.writeSimple(":" + this.publish(String.valueOf(command.get(1)), String.valueOf(command.get(2))));
+            }
+            default -> client.writeSimple("-ERR unknown command '" + name + "'");
+        }
+    }
+
+    private int publish(@NotNull String channel, @NotNull String message) {
+        Set<Client> clientSet = this.channelMap.get(channel);
+        if (clientSet == null) return 0;
+
+        int received = 0;
+        for (Client client : clientSet) {
+            try {
+                client.writeArray("message", channel, message);
+                received++;
+            } catch (IOException exception) {
+                clientSet.remove(client);
+            }
+        }
+        return received;
+    }
+
+    private void unsubscribeAll(@NotNull Client client) {
+        for (Set<Client> clientSet : this.channelMap.values()) {
+            clientSet.remove(client);
+        }
+    }
+}
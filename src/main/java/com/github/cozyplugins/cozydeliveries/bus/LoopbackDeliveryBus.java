@@ -0,0 +1,77 @@
+/*
+ * CozyDeliveries - An item and money delivery service for a minecraft server.
+ * Copyright (C) 2024  Smuddgge
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.github.cozyplugins.cozydeliveries.bus;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * Represents the loopback delivery bus.
+ * Messages are given straight to the listeners in this process.
+ * This is used when there is only one server, and can be
+ * shared by more than one plugin instance in tests.
+ */
+public class LoopbackDeliveryBus implements DeliveryBus {
+
+    private final @NotNull String serverId;
+    private final @NotNull Set<Listener> listenerSet;
+    private volatile boolean closed;
+
+    /**
+     * Used to create a new loopback delivery bus.
+     *
+     * @param serverId The identifier of this server.
+     */
+    public LoopbackDeliveryBus(@NotNull String serverId) {
+        this.serverId = serverId;
+        this.listenerSet = new CopyOnWriteArraySet<>();
+    }
+
+    @Override
+    public @NotNull String getServerId() {
+        return this.serverId;
+    }
+
+    @Override
+    public void publish(@NotNull DeliveryBusMessage message) {
+        if (this.closed) return;
+
+        for (Listener listener : this.listenerSet) {
+            listener.onMessage(message);
+        }
+    }
+
+    @Override
+    public void addListener(@NotNull Listener listener) {
+        this.listenerSet.add(listener);
+    }
+
+    @Override
+    public void removeListener(@NotNull Listener listener) {
+        this.listenerSet.remove(listener);
+    }
+
+    @Override
+    public void close() {
+        this.closed = true;
+        this.listenerSet.clear();
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * CozyDeliveries - An item and money delivery service for a minecraft server.
+ * Copyright (C) 2024  Smuddgge
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.github.cozyplugins.cozydeliveries.bus;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents the redis serialization protocol.
+ * Only the parts needed to publish and subscribe are supported,
+ * so it can be used to talk to redis and the {@link LocalDeliveryBroker}.
+ */
+final class Resp {
+
+    private static final byte[] CRLF = "\r\n".getBytes(StandardCharsets.UTF_8);
+
+    private Resp() {
+    }
+
+    /**
+     * Used to write an array of bulk strings.
+     * This is how commands are sent.
+     *
+     * @param output The stream to write to.
+     * @param parts  The parts of the array.
+     * @throws IOException If the stream cannot be written to.
+     */
+    static void writeArray(@NotNull OutputStream output, @NotNull String... parts) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        buffer.write(("*" + parts.length).getBytes(StandardCharsets.UTF_8));
+        buffer.write(CRLF);
+
+        for (String part : parts) {
+            byte[] bytes = part.getBytes(StandardCharsets.UTF_8);
+            buffer.write(("$" + bytes.length).getBytes(StandardCharsets.UTF_8));
+            buffer.write(CRLF);
+            buffer.write(bytes);
+            buffer.write(CRLF);
+        }
+
+        buffer.writeTo(output);
+        output.flush();
+    }
+
+    /**
+     * Used to write a simple reply, for example
+     * "+OK", "-ERR message" or ":1".
+     *
+     * @param output The stream to write to.
+     * @param reply  The reply including its type character.
+     * @throws IOException If the stream cannot be written to.
+     */
+    static void writeSimple(@NotNull OutputStream output, @NotNull String reply) throws IOException {
+        output.write(reply.getBytes(StandardCharsets.UTF_8));
+        output.write(CRLF);
+        output.flush();
+    }
+
+    /**
+     * Used to read a value.
+     *
+     * @param input The stream to read from.
+     * @return A string for simple and bulk strings, a long for integers,
+     * a list for arrays, or null for null values.
+     * @throws IOException If the stream ends or the value is an error.
+     */
+    static @Nullable Object read(@NotNull InputStream input) throws IOException {
+        final int type = input.read();
+        if (type == -1) throw new EOFException();
+
+        final String line = Resp.readLine(input);
+        switch (type) {
+            case '+':
+                return line;
+            case '-':
+                throw new IOException(line);
+            case ':':
+                return Long.parseLong(line);
+            case '$': {
+                final int length = Integer.parseInt(line);
+                if (length < 0) return null;
+
+                byte[] bytes = input.readNBytes(length);
+                if (bytes.length < length) throw new EOFException();
+                Resp.readLine(input);
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+            case '*': {
+                final int length = Integer.parseInt(line);
+                if (length < 0) return null;
+
+                List<Object> list = new ArrayList<>(length);
+                for (int i = 0; i < length; i++) {
+                    list.add(Resp.read(input));
+                }
+                return list;
+            }
+            default:
+                throw new IOException("Unknown reply type " + (char) type);
+        }
+    }
+
+    private static @NotNull String readLine(@NotNull InputStream input) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(32);
+
+        int previous = -1;
+        while (true) {
+            final int next = input.read();
+            if (next == -1) throw new EOFException();
+            if (previous == '\r' && next == '\n') break;
+            if (previous != -1) buffer.write(previous);
+            previous = next;
+        }
+
+        return buffer.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,338 @@
+/*
+ * CozyDeliveries - An item and money delivery service for a minecraft server.
+ * Copyright (C) 2024  Smuddgge
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.github.cozyplugins.cozydeliveries.bus;
+
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Represents the socket delivery bus.
+ * Publishes and subscribes to a channel using the redis
+ * protocol, so it works with redis and the {@link LocalDeliveryBroker}.
+ * <p>
+ * Messages are published by a background thread, so publishing
+ * never blocks the main thread. If the connection is lost both
+ * connections are opened again with an increasing delay.
+ * <p>
+ * When the queue is full messages are dropped. A warning is
+ * logged when messages start being dropped, and the number
+ * dropped is logged once the queue has space again.
+ */
+public class SocketDeliveryBus implements DeliveryBus {
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 5000;
+    private static final long MAX_RETRY_MILLIS = 30000;
+    private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+
+    private final @NotNull Plugin plugin;
+    private final @NotNull String serverId;
+    private final @NotNull String host;
+    private final int port;
+    private final @Nullable String password;
+    private final @NotNull String channel;
+    private final @NotNull Set<Listener> listenerSet;
+    private final @NotNull BlockingQueue<DeliveryBusMessage> queue;
+    private final @NotNull AtomicLong droppedCount;
+    private final @NotNull Thread publishThread;
+    private final @NotNull Thread subscribeThread;
+    private volatile boolean closing;
+    private volatile boolean closed;
+    private volatile @Nullable Socket publishSocket;
+    private volatile @Nullable Socket subscribeSocket;
+
+    /**
+     * Used to create a new socket delivery bus.
+     * The bus starts connecting straight away.
+     *
+     * @param plugin   The instance of the plugin used for logging.
+     * @param serverId The identifier of this server.
+     * @param host     The host of the redis server or broker.
+     * @param port     The port of the redis server or broker.
+     * @param password The password, or null if it is not needed.
+     * @param channel  The channel to publish to.
+     * @param capacity The maximum number of messages waiting to be published.
+     */
+    public SocketDeliveryBus(@NotNull Plugin plugin,
+                             @NotNull String serverId,
+                             @NotNull String host,
+                             int port,
+                             @Nullable String password,
+                             @NotNull String channel,
+                             int capacity) {
+
+        this.plugin = plugin;
+        this.serverId = serverId;
+        this.host = host;
+        this.port = port;
+        this.password = password == null || password.isEmpty() ? null : password;
+        this.channel = channel;
+        this.listenerSet = new CopyOnWriteArraySet<>();
+        this.queue = new LinkedBlockingQueue<>(Math.max(1, capacity));
+        this.droppedCount = new AtomicLong();
+
+        this.publishThread = new Thread(this::runPublisher, "CozyDeliveries Bus Publisher");
+        this.publishThread.setDaemon(true);
+        this.publishThread.start();
+
+        this.subscribeThread = new Thread(this::runSubscriber, "CozyDeliveries Bus Subscriber");
+        this.subscribeThread.setDaemon(true);
+        this.subscribeThread.start();
+    }
+
+    @Override
+    public @NotNull String getServerId() {
+        return this.serverId;
+    }
+
+    @Override
+    public void publish(@NotNull DeliveryBusMessage message) {
+        if (this.closing) return;
+
+        // Check if too many messages are waiting.
+        if (!this.queue.offer(message)) this.drop();
+    }
+
+    @Override
+    public void publish(@NotNull DeliveryBusMessage message, long timeoutMillis) {
+        if (this.closing) return;
+
+        try {
+            if (!this.queue.offer(message, timeoutMillis, TimeUnit.MILLISECONDS)) this.drop();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            this.drop();
+        }
+    }
+
+    @Override
+    public void addListener(@NotNull Listener listener) {
+        this.listenerSet.add(listener);
+    }
+
+    @Override
+    public void removeListener(@NotNull Listener listener) {
+        this.listenerSet.remove(listener);
+    }
+
+    /**
+     * Used to stop the bus.
+     * New messages are no longer accepted, and the messages
+     * already waiting are given up to a few seconds to be
+     * published before the connections are closed.
+     */
+    @Override
+    public void close() {
+        this.closing = true;
+
+        // Stop receiving messages straight away.
+        this.subscribeThread.interrupt();
+        SocketDeliveryBus.closeQuietly(this.subscribeSocket);
+
+        // Give the publisher time to send the waiting messages.
+        try {
+            this.publishThread.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (this.publishThread.isAlive()) {
+            this.plugin.getLogger().log(Level.WARNING,
+                    "Closed the delivery bus with " + this.queue.size() + " messages that were not published."
+            );
+        }
+
+        this.closed = true;
+        this.publishThread.interrupt();
+        SocketDeliveryBus.closeQuietly(this.publishSocket);
+    }
+
+    /**
+     * Used to get the number of messages
+     * waiting to be published.
+     *
+     * @return The number of messages.
+     */
+    public int getPendingSize() {
+        return this.queue.size();
+    }
+
+    /**
+     * Used to get the number of messages dropped
+     * since the queue last had space.
+     *
+     * @return The number of messages.
+     */
+    public long getDroppedCount() {
+        return this.droppedCount.get();
+    }
+
+    private void drop() {
+
+        // Only warn for the first message dropped.
+        if (this.droppedCount.getAndIncrement() != 0) return;
+        this.plugin.getLogger().log(Level.WARNING,
+                "The delivery bus queue is full. Messages will be dropped until it has space."
+        );
+    }
+
+    private void logDropped() {
+        final long dropped = this.droppedCount.getAndSet(0);
+        if (dropped == 0) return;
+        this.plugin.getLogger().log(Level.WARNING,
+                "The delivery bus queue has space again. " + dropped + " messages were dropped."
+        );
+    }
+
+    private void runPublisher() {
+        long retryMillis = 1000;
+        DeliveryBusMessage pending = null;
+
+        while (!this.closed) {
+            try (Socket socket = this.connect()) {
+                this.publishSocket = socket;
+                InputStream input = new BufferedInputStream(socket.getInputStream());
+                OutputStream output = new BufferedOutputStream(socket.getOutputStream());
+                this.authenticate(input, output);
+                retryMillis = 1000;
+
+                while (!this.closed) {
+
+                    // Keep the message until it has been
+                    // published, so it is sent again
+                    // after reconnecting.
+                    if (pending == null) pending = this.queue.poll(this.closing ? 0 : 1000, TimeUnit.MILLISECONDS);
+
+                    // Check if the waiting messages
+                    // have been published while closing.
+                    if (pending == null && this.closing) return;
+                    if (pending == null) continue;
+
+                    Resp.writeArray(output, "PUBLISH", this.channel, pending.encode());
+                    Resp.read(input);
+                    pending = null;
+
+                    // Report the messages dropped
+                    // now there is space.
+                    if (this.droppedCount.get() != 0) this.logDropped();
+                }
+
+            } catch (InterruptedException exception) {
+                return;
+            } catch (IOException exception) {
+                if (this.closed) return;
+                this.plugin.getLogger().log(Level.WARNING,
+                        "Lost the delivery bus publisher connection. Retrying in " + retryMillis + "ms. " + exception.getMessage()
+                );
+            }
+
+            if (!this.sleep(retryMillis)) return;
+            retryMillis = Math.min(MAX_RETRY_MILLIS, retryMillis * 2);
+        }
+    }
+
+    private void runSubscriber() {
+        long retryMillis = 1000;
+
+        while (!this.closing) {
+            try (Socket socket = this.connect()) {
+                this.subscribeSocket = socket;
+                InputStream input = new BufferedInputStream(socket.getInputStream());
+                OutputStream output = new BufferedOutputStream(socket.getOutputStream());
+                this.authenticate(input, output);
+                Resp.writeArray(output, "SUBSCRIBE", this.channel);
+                retryMillis = 1000;
+
+                while (!this.closing) {
+                    Object reply = Resp.read(input);
+                    if (!(reply instanceof List<?> list) || list.size() != 3) continue;
+                    if (!"message".equals(list.get(0)) || !(list.get(2) instanceof String payload)) continue;
+
+                    DeliveryBusMessage.decode(payload).ifPresent(this::dispatch);
+                }
+
+            } catch (IOException exception) {
+                if (this.closing) return;
+                this.plugin.getLogger().log(Level.WARNING,
+                        "Lost the delivery bus subscriber connection. Retrying in " + retryMillis + "ms. " + exception.getMessage()
+                );
+            }
+
+            if (!this.sleep(retryMillis)) return;
+            retryMillis = Math.min(MAX_RETRY_MILLIS, retryMillis * 2);
+        }
+    }
+
+    private void dispatch(@NotNull DeliveryBusMessage message) {
+        for (Listener listener : this.listenerSet) {
+            try {
+                listener.onMessage(message);
+            } catch (Exception exception) {
+                this.plugin.getLogger().log(Level.WARNING, "Failed to handle a delivery bus message.", exception);
+            }
+        }
+    }
+
+    private @NotNull Socket connect() throws IOException {
+        Socket socket = new Socket();
+        socket.setKeepAlive(true);
+        socket.setTcpNoDelay(true);
+        socket.connect(new InetSocketAddress(this.host, this.port), CONNECT_TIMEOUT_MILLIS);
+        return socket;
+    }
+
+    private void authenticate(@NotNull InputStream input, @NotNull OutputStream output) throws IOException {
+        if (this.password == null) return;
+        Resp.writeArray(output, "AUTH", this.password);
+        Resp.read(input);
+    }
+
+    private boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return !this.closed;
+        } catch (InterruptedException exception) {
+            return false;
+        }
+    }
+
+    private static void closeQuietly(@Nullable Socket socket) {
+        if (socket == null) return;
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,642 @@
+/*
+ * CozyDeliveries - An item and money delivery service for a minecraft server.
+ * Copyright (C) 2024  Smuddgge
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.github.cozyplugins.cozydeliveries.cache;
+
+import com.github.cozyplugins.cozydeliveries.database.DatabaseExecutor;
+import com.github.cozyplugins.cozydeliveries.database.DeliveryRecord;
+import com.github.cozyplugins.cozydeliveries.database.DeliveryTable;
+import com.github.cozyplugins.cozydeliveries.database.migration.SchemaMigration;
+import com.github.cozyplugins.cozydeliveries.delivery.Delivery;
+import com.github.cozyplugins.cozydeliveries.metric.LatencyRecorder;
+import com.github.smuddgge.squishydatabase.Query;
+import com.github.smuddgge.squishydatabase.interfaces.Database;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ * Represents the delivery cache.
+ * Contains the deliveries of the players that are online,
+ * keyed by the uuid of the player they were sent to.
+ * Players are loaded in the background when they join
+ * and removed when they leave.
+ * <p>
+ * Each player's deliveries are ordered by the time they were
+ * sent. Only the columns of each record are read when loading,
+ * and a delivery's content is decoded the first time it is
+ * needed, so a page of deliveries can be shown without
+ * decoding every delivery the player has.
+ */
+public class DeliveryCache {
+
+    private static final @NotNull Comparator<Holder> ORDER = Comparator
+            .comparingLong((Holder holder) -> holder.timeStampMillis)
+            .thenComparing(holder -> holder.uuid);
+
+    private final @NotNull Plugin plugin;
+    private final @NotNull Database database;
+    private final @NotNull DatabaseExecutor executor;
+    private final @NotNull SchemaMigration schemaMigration;
+    private final @NotNull Map<UUID, Entry> entryMap;
+    private final @NotNull Map<UUID, Set<Listener>> listenerMap;
+
+    private final @NotNull LongAdder hits;
+    private final @NotNull LongAdder misses;
+    private final @NotNull LatencyRecorder loadTime;
+
+    /**
+     * Represents a cached delivery.
+     * Holds the record until the delivery is first needed.
+     */
+    private static class Holder {
+
+        private final @NotNull UUID uuid;
+        private final long timeStampMillis;
+        private final long timeStampExpire;
+        private @Nullable DeliveryRecord record;
+        private @Nullable Delivery delivery;
+
+        private Holder(@NotNull Delivery delivery) {
+            this.uuid = delivery.getUuid();
+            this.timeStampMillis = delivery.getTimeStampMillis();
+            this.timeStampExpire = delivery.getTimeStampExpire();
+            this.delivery = delivery;
+        }
+
+        private Holder(@NotNull DeliveryRecord record) {
+            this.uuid = record.getUuid();
+            this.timeStampMillis = Long.parseLong(record.timeStampMillis);
+            this.timeStampExpire = record.getExpireAt();
+            this.record = record;
+        }
+
+        private synchronized @NotNull Delivery get() {
+            if (this.delivery == null) {
+                this.delivery = Objects.requireNonNull(this.record).getDelivery();
+                this.record = null;
+            }
+            return this.delivery;
+        }
+
+        private boolean hasExpired(long now) {
+            return this.timeStampExpire > -1L && this.timeStampExpire < now;
+        }
+    }
+
+    /**
+     * Represents a player's cached deliveries.
+     * Deliveries sent while the player is still loading
+     * are kept and merged with the loaded deliveries.
+     * Deliveries removed while loading are remembered,
+     * so the load does not add them back.
+     */
+    private static class Entry {
+
+        private final @NotNull Map<UUID, Holder> holderMap = new HashMap<>();
+        private final @NotNull TreeSet<Holder> orderedSet = new TreeSet<>(ORDER);
+        private final @NotNull Set<UUID> removedSet = new HashSet<>();
+        private int loading = 0;
+        private boolean loaded = false;
+
+        private void put(@NotNull Holder holder) {
+            Holder previous = this.holderMap.put(holder.uuid, holder);
+            if (previous != null) this.orderedSet.remove(previous);
+            this.orderedSet.add(holder);
+        }
+
+        private @Nullable Holder remove(@NotNull UUID deliveryUuid) {
+            if (this.loading > 0) this.removedSet.add(deliveryUuid);
+            Holder holder = this.holderMap.remove(deliveryUuid);
+            if (holder != null) this.orderedSet.remove(holder);
+            return holder;
+        }
+    }
+
+    /**
+     * Represents a page of a player's deliveries
+     * and the total number of deliveries across all pages.
+     */
+    public static class Page {
+
+        private final @NotNull List<Delivery> deliveryList;
+        private final int total;
+
+        /**
+         * Used to create a new page.
+         *
+         * @param deliveryList The deliveries on the page.
+         * @param total        The total number of deliveries across all pages.
+         */
+        public Page(@NotNull List<Delivery> deliveryList, int total) {
+            this.deliveryList = deliveryList;
+            this.total = total;
+        }
+
+        /**
+         * Used to get the deliveries on the page.
+         *
+         * @return The list of deliveries, oldest first.
+         */
+        public @NotNull List<Delivery> getDeliveryList() {
+            return this.deliveryList;
+        }
+
+        /**
+         * Used to get the total number of deliveries
+         * across all pages, not only this page.
+         *
+         * @return The total number of deliveries.
+         */
+        public int getTotal() {
+            return this.total;
+        }
+    }
+
+    /**
+     * Represents a listener for changes to
+     * a player's cached deliveries.
+     * This is used by open menus so they can change
+     * only the slots that were affected.
+     * Methods are called on the thread that changed the cache.
+     */
+    public interface Listener {
+
+        /**
+         * Called when a delivery is added to the cache.
+         *
+         * @param delivery The instance of the delivery.
+         */
+        void onDeliveryAdded(@NotNull Delivery delivery);
+
+        /**
+         * Called when a delivery is removed from the cache.
+         *
+         * @param deliveryUuid The delivery's uuid.
+         */
+        void onDeliveryRemoved(@NotNull UUID deliveryUuid);
+    }
+
+    /**
+     * Used to create a new delivery cache.
+     *
+     * @param plugin          The instance of the plugin used to schedule tasks.
+     * @param database        The database to load deliveries from.
+     * @param executor        The executor used to load deliveries in the background.
+     * @param schemaMigration The migration used to move the player's
+     *                        deliveries into the version 2 table first.
+     */
+    public DeliveryCache(@NotNull Plugin plugin,
+                         @NotNull Database database,
+                         @NotNull DatabaseExecutor executor,
+                         @NotNull SchemaMigration schemaMigration) {
+
+        this.plugin = plugin;
+        this.database = database;
+        this.executor = executor;
+        this.schemaMigration = schemaMigration;
+        this.entryMap = new ConcurrentHashMap<>();
+        this.listenerMap = new ConcurrentHashMap<>();
+
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.loadTime = new LatencyRecorder(256);
+    }
+
+    /**
+     * Used to get the cached list of deliveries
+     * sent to a player, oldest first.
+     * This will not interact with the database,
+     * but will decode every delivery that has not been
+     * decoded yet. Use {@link #getDeliveryPage(UUID, int, int)}
+     * when only some of the deliveries are needed.
+     *
+     * @param playerUuid The player's uuid.
+     * @return The list of deliveries.
+     * Empty if the player is not loaded yet.
+     */
+    public @NotNull Optional<List<Delivery>> getDeliveryList(@NotNull UUID playerUuid) {
+        return this.getHolders(playerUuid, 0, Integer.MAX_VALUE, false)
+                .map(holderList -> holderList.stream().map(Holder::get).toList());
+    }
+
+    /**
+     * Used to get a page of the cached deliveries
+     * sent to a player, oldest first.
+     * Expired deliveries are skipped.
+     * Only the deliveries on the page are decoded.
+     *
+     * @param playerUuid The player's uuid.
+     * @param from       The index of the first delivery.
+     * @param amount     The maximum number of deliveries.
+     * @return The list of deliveries.
+     * Empty if the player is not loaded yet.
+     */
+    public @NotNull Optional<List<Delivery>> getDeliveryPage(@NotNull UUID playerUuid, int from, int amount) {
+        return this.getHolders(playerUuid, from, amount, true)
+                .map(holderList -> holderList.stream().map(Holder::get).toList());
+    }
+
+    /**
+     * Used to get the number of cached deliveries
+     * sent to a player that have not expired.
+     * This does not decode any deliveries.
+     *
+     * @param playerUuid The player's uuid.
+     * @return The number of deliveries.
+     * Empty if the player is not loaded yet.
+     */
+    public @NotNull OptionalInt getDeliveryCount(@NotNull UUID playerUuid) {
+        Entry entry = this.entryMap.get(playerUuid);
+        if (entry == null) return OptionalInt.empty();
+
+        final long now = System.currentTimeMillis();
+        synchronized (entry) {
+            if (!entry.loaded) return OptionalInt.empty();
+            return OptionalInt.of((int) entry.orderedSet.stream().filter(holder -> !holder.hasExpired(now)).count());
+        }
+    }
+
+    /**
+     * Used to decode a page of a player's deliveries
+     * in the background, so it is ready when
+     * the page is opened.
+     *
+     * @param playerUuid The player's uuid.
+     * @param from       The index of the first delivery.
+     * @param amount     The maximum number of deliveries.
+     */
+    public void prefetchAsync(@NotNull UUID playerUuid, int from, int amount) {
+        this.executor.execute(() -> this.getHolders(playerUuid, from, amount, true)
+                .ifPresent(holderList -> holderList.forEach(Holder::get))
+        );
+    }
+
+    /**
+     * Used to check if a player is being
+     * kept in the cache.
+     *
+     * @param playerUuid The player's uuid.
+     * @return True if the player is in the cache.
+     */
+    public boolean contains(@NotNull UUID playerUuid) {
+        return this.entryMap.containsKey(playerUuid);
+    }
+
+    /**
+     * Used to start loading a player's deliveries
+     * in the background.
+     * The deliveries are not decoded until they are needed.
+     *
+     * @param playerUuid The player's uuid.
+     */
+    public void loadAsync(@NotNull UUID playerUuid) {
+        this.entryMap.putIfAbsent(playerUuid, new Entry());
+        this.executor.execute(() -> this.loadHolders(playerUuid)).exceptionally(throwable -> {
+
+            // The player is left unloaded, so the deliveries
+            // will be loaded when they are first needed instead.
+            this.plugin.getLogger().log(Level.WARNING, "Failed to load the deliveries for " + playerUuid, throwable);
+            return null;
+        });
+    }
+
+    /**
+     * Used to load a player's deliveries from the database.
+     * Be careful as this contains database methods.
+     * If the player is not being kept in the cache
+     * the loaded deliveries are only returned.
+     * If the database fails the exception is thrown
+     * and the player is left unloaded, so the
+     * next read tries again.
+     *
+     * @param playerUuid The player's uuid.
+     * @return The loaded list of deliveries, oldest first.
+     */
+    public @NotNull List<Delivery> load(@NotNull UUID playerUuid) {
+        return this.loadHolders(playerUuid).stream().map(Holder::get).toList();
+    }
+
+    /**
+     * Used to load a page of a player's deliveries
+     * from the database.
+     * Be careful as this contains database methods.
+     * Only the deliveries on the page are decoded.
+     *
+     * @param playerUuid The player's uuid.
+     * @param from       The index of the first delivery.
+     * @param amount     The maximum number of deliveries.
+     * @return The list of deliveries, oldest first.
+     */
+    public @NotNull List<Delivery> loadPage(@NotNull UUID playerUuid, int from, int amount) {
+        final long now = System.currentTimeMillis();
+        return this.loadHolders(playerUuid).stream()
+                .filter(holder -> !holder.hasExpired(now))
+                .skip(Math.max(0, from))
+                .limit(Math.max(0, amount))
+                .map(Holder::get)
+                .toList();
+    }
+
+    /**
+     * Used to load a page of a player's deliveries and
+     * count them from the database with a single read.
+     * The database library can not count or page rows,
+     * so every row is still read, but only the
+     * deliveries on the page are decoded.
+     * Be careful as this contains database methods.
+     *
+     * @param playerUuid The player's uuid.
+     * @param from       The index of the first delivery.
+     * @param amount     The maximum number of deliveries.
+     * @return The page of deliveries.
+     */
+    public @NotNull Page loadPageAndCount(@NotNull UUID playerUuid, int from, int amount) {
+        final long now = System.currentTimeMillis();
+        List<Holder> holderList = this.loadHolders(playerUuid).stream()
+                .filter(holder -> !holder.hasExpired(now))
+                .toList();
+
+        return new Page(
+                holderList.stream()
+                        .skip(Math.max(0, from))
+                        .limit(Math.max(0, amount))
+                        .map(Holder::get)
+                        .toList(),
+                holderList.size()
+        );
+    }
+
+    /**
+     * Used to count a player's deliveries that
+     * have not expired from the database.
+     * Be careful as this contains database methods.
+     * No deliveries are decoded.
+     *
+     * @param playerUuid The player's uuid.
+     * @return The number of deliveries.
+     */
+    public int loadCount(@NotNull UUID playerUuid) {
+        final long now = System.currentTimeMillis();
+        return (int) this.loadHolders(playerUuid).stream()
+                .filter(holder -> !holder.hasExpired(now))
+                .count();
+    }
+
+    /**
+     * Used to add a delivery to the cache.
+     * This will only be added if the player
+     * it was sent to is in the cache.
+     *
+     * @param delivery The instance of the delivery.
+     */
+    public void addDelivery(@NotNull Delivery delivery) {
+        Entry entry = this.entryMap.get(delivery.getToPlayerUuid());
+        if (entry == null) return;
+
+        synchronized (entry) {
+            entry.put(new Holder(delivery));
+        }
+
+        this.getListeners(delivery.getToPlayerUuid()).forEach(listener -> listener.onDeliveryAdded(delivery));
+    }
+
+    /**
+     * Used to add a delivery record to the cache.
+     * The delivery is not decoded unless an open
+     * menu is listening for the player's deliveries.
+     * This will only be added if the player
+     * it was sent to is in the cache.
+     *
+     * @param record The delivery record.
+     */
+    public void addRecord(@NotNull DeliveryRecord record) {
+        final UUID playerUuid = record.getToPlayerUuid();
+        Entry entry = this.entryMap.get(playerUuid);
+        if (entry == null) return;
+
+        Holder holder = new Holder(record);
+        synchronized (entry) {
+            entry.put(holder);
+        }
+
+        Set<Listener> listenerSet = this.getListeners(playerUuid);
+        if (listenerSet.isEmpty()) return;
+
+        final Delivery delivery = holder.get();
+        listenerSet.forEach(listener -> listener.onDeliveryAdded(delivery));
+    }
+
+    /**
+     * Used to remove a delivery from the cache.
+     *
+     * @param delivery The instance of the delivery.
+     */
+    public void removeDelivery(@NotNull Delivery delivery) {
+        this.removeDelivery(delivery.getToPlayerUuid(), delivery.getUuid());
+    }
+
+    /**
+     * Used to remove a delivery from the cache.
+     *
+     * @param playerUuid   The player the delivery was sent to.
+     * @param deliveryUuid The delivery's uuid.
+     */
+    public void removeDelivery(@NotNull UUID playerUuid, @NotNull UUID deliveryUuid) {
+        Entry entry = this.entryMap.get(playerUuid);
+        if (entry == null) return;
+
+        final Holder removed;
+        synchronized (entry) {
+            removed = entry.remove(deliveryUuid);
+        }
+
+        if (removed == null) return;
+        this.getListeners(playerUuid).forEach(listener -> listener.onDeliveryRemoved(deliveryUuid));
+    }
+
+    /**
+     * Used to listen for changes to a
+     * player's cached deliveries.
+     *
+     * @param playerUuid The player's uuid.
+     * @param listener   The instance of the listener.
+     */
+    public void addListener(@NotNull UUID playerUuid, @NotNull Listener listener) {
+        this.listenerMap.computeIfAbsent(playerUuid, key -> ConcurrentHashMap.newKeySet()).add(listener);
+    }
+
+    /**
+     * Used to stop listening for changes to a
+     * player's cached deliveries.
+     *
+     * @param playerUuid The player's uuid.
+     * @param listener   The instance of the listener.
+     */
+    public void removeListener(@NotNull UUID playerUuid, @NotNull Listener listener) {
+        this.listenerMap.computeIfPresent(playerUuid, (key, listenerSet) -> {
+            listenerSet.remove(listener);
+            return listenerSet.isEmpty() ? null : listenerSet;
+        });
+    }
+
+    private @NotNull Set<Listener> getListeners(@NotNull UUID playerUuid) {
+        return this.listenerMap.getOrDefault(playerUuid, Set.of());
+    }
+
+    private @NotNull Optional<List<Holder>> getHolders(@NotNull UUID playerUuid, int from, int amount, boolean skipExpired) {
+        Entry entry = this.entryMap.get(playerUuid);
+
+        // Check if the player is not loaded.
+        if (entry == null) {
+            this.misses.increment();
+            return Optional.empty();
+        }
+
+        final long now = System.currentTimeMillis();
+        synchronized (entry) {
+            if (!entry.loaded) {
+                this.misses.increment();
+                return Optional.empty();
+            }
+
+            this.hits.increment();
+            return Optional.of(entry.orderedSet.stream()
+                    .filter(holder -> !skipExpired || !holder.hasExpired(now))
+                    .skip(Math.max(0, from))
+                    .limit(Math.max(0, amount))
+                    .toList()
+            );
+        }
+    }
+
+    private @NotNull List<Holder> loadHolders(@NotNull UUID playerUuid) {
+        final long start = System.nanoTime();
+
+        // Remember the deliveries removed while loading.
+        final Entry entry = this.entryMap.get(playerUuid);
+        if (entry != null) {
+            synchronized (entry) {
+                entry.loading++;
+            }
+        }
+
+        final List<Holder> holderList;
+        try {
+            this.schemaMigration.migratePlayer(playerUuid);
+            holderList = this.database
+                    .getTable(DeliveryTable.class)
+                    .getRecordList(new Query().match("toPlayerUuid", playerUuid.toString()))
+                    .stream().map(Holder::new)
+                    .sorted(ORDER)
+                    .toList();
+
+        } catch (RuntimeException exception) {
+            if (entry != null) this.finishLoading(entry);
+            throw exception;
+
+        } finally {
+            this.loadTime.record(System.nanoTime() - start);
+        }
+
+        // Check if the player is still being kept in the cache.
+        if (entry == null || this.entryMap.get(playerUuid) != entry) {
+            if (entry != null) this.finishLoading(entry);
+            return holderList;
+        }
+
+        synchronized (entry) {
+
+            // Merge with the deliveries sent while loading, skipping
+            // the deliveries removed since the database was read.
+            List<Holder> sentWhileLoading = new ArrayList<>(entry.holderMap.values());
+            entry.holderMap.clear();
+            entry.orderedSet.clear();
+            holderList.stream()
+                    .filter(holder -> !entry.removedSet.contains(holder.uuid))
+                    .forEach(entry::put);
+            sentWhileLoading.forEach(entry::put);
+            entry.loaded = true;
+            this.finishLoading(entry);
+
+            return new ArrayList<>(entry.orderedSet);
+        }
+    }
+
+    private void finishLoading(@NotNull Entry entry) {
+        synchronized (entry) {
+            entry.loading--;
+            if (entry.loading == 0) entry.removedSet.clear();
+        }
+    }
+
+    /**
+     * Used to remove a player from the cache.
+     *
+     * @param playerUuid The player's uuid.
+     */
+    public void evict(@NotNull UUID playerUuid) {
+        this.entryMap.remove(playerUuid);
+    }
+
+    /**
+     * Used to get the number of players
+     * in the cache.
+     *
+     * @return The number of players.
+     */
+    public int getSize() {
+        return this.entryMap.size();
+    }
+
+    /**
+     * Used to get the number of times a player's
+     * deliveries were found in the cache.
+     *
+     * @return The number of hits.
+     */
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    /**
+     * Used to get the number of times a player's
+     * deliveries were not found in the cache.
+     *
+     * @return The number of misses.
+     */
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    /**
+     * Used to get the load time recorder.
+     * Each sample is the time taken to load
+     * a player's deliveries from the database.
+     *
+     * @return The load time recorder.
+     */
+    public @NotNull LatencyRecorder getLoadTime() {
+        return this.loadTime;
+    }
+}
@@ -0,0 +1,354 @@
+/*
+ * CozyDeliveries - An item and money delivery service for a minecraft server.
+ * Copyright (C) 2024  Smuddgge
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.cozyplugins.cozydeliveries.cache;
+
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+
+/**
+ * Represents the player directory.
+ * Contains the name and uuid of every player that
+ * has joined the server, sorted by name ignoring case.
+ * <p>
+ * The sorted array is replaced when it changes,
+ * so it can be read from any thread without locking.
+ * Pages can be read by index, names can be
+ * searched by prefix with a binary search and
+ * a name can be resolved to a uuid in one lookup.
+ * <p>
+ * Players that join are merged into the sorted array in
+ * batches in the background, so joining does not copy
+ * the array on the main thread. Their name and uuid
+ * can be looked up straight away.
+ */
+public class PlayerDirectory {
+
+    private static final @NotNull Comparator<Entry> COMPARATOR = Comparator
+            .comparing((Entry entry) -> entry.lowerCaseName)
+            .thenComparing(entry -> entry.uuid);
+
+    private final @NotNull Plugin plugin;
+    private final @NotNull Map<UUID, String> nameMap;
+    private final @NotNull Map<String, UUID> uuidMap;
+    private final @NotNull Set<UUID> pendingSet;
+    private final @NotNull AtomicBoolean mergeScheduled;
+    private volatile @NotNull Entry[] entries;
+    private volatile boolean loaded;
+
+    /**
+     * Represents a player in the directory.
+     */
+    public static class Entry {
+
+        private final @NotNull UUID uuid;
+        private final @NotNull String name;
+        private final @NotNull String lowerCaseName;
+
+        private Entry(@NotNull UUID uuid, @NotNull String name) {
+            this.uuid = uuid;
+            this.name = name;
+            this.lowerCaseName = name.toLowerCase(Locale.ROOT);
+        }
+
+        /**
+         * Used to get the player's uuid.
+         *
+         * @return The player's uuid.
+         */
+        public @NotNull UUID getUuid() {
+            return this.uuid;
+        }
+
+        /**
+         * Used to get the player's name.
+         *
+         * @return The player's name.
+         */
+        public @NotNull String getName() {
+            return this.name;
+        }
+    }
+
+    /**
+     * Used to create a new player directory.
+     *
+     * @param plugin The instance of the plugin used to schedule tasks.
+     */
+    public PlayerDirectory(@NotNull Plugin plugin) {
+        this.plugin = plugin;
+        this.nameMap = new ConcurrentHashMap<>();
+        this.uuidMap = new ConcurrentHashMap<>();
+        this.pendingSet = ConcurrentHashMap.newKeySet();
+        this.mergeScheduled = new AtomicBoolean(false);
+        this.entries = new Entry[0];
+        this.loaded = false;
+    }
+
+    /**
+     * Used to load every player that has joined
+     * the server in the background.
+     * If loading fails the directory still contains
+     * the players read before it failed and the
+     * players that join afterwards.
+     */
+    public void loadAsync() {
+        Bukkit.getScheduler().runTaskAsynchronously(this.plugin, () -> {
+            try {
+                for (OfflinePlayer player : Bukkit.getOfflinePlayers()) {
+                    if (player.getName() == null) continue;
+
+                    // Players that joined while loading have the newest name.
+                    if (this.nameMap.putIfAbsent(player.getUniqueId(), player.getName()) == null) {
+                        this.uuidMap.putIfAbsent(player.getName().toLowerCase(Locale.ROOT), player.getUniqueId());
+                    }
+                }
+
+            } catch (Exception exception) {
+                this.plugin.getLogger().log(Level.WARNING, "Failed to load the player directory.", exception);
+            }
+
+            synchronized (this) {
+                Entry[] array = this.nameMap.entrySet().stream()
+                        .map(entry -> new Entry(entry.getKey(), entry.getValue()))
+                        .toArray(Entry[]::new);
+
+                Arrays.sort(array, COMPARATOR);
+                this.entries = array;
+                this.loaded = true;
+            }
+
+            // Merge the players that joined while loading.
+            if (!this.pendingSet.isEmpty()) this.scheduleMerge();
+        });
+    }
+
+    /**
+     * Used to check if the directory has
+     * finished loading.
+     * This is also true if loading failed.
+     *
+     * @return True if it has loaded.
+     */
+    public boolean isLoaded() {
+        return this.loaded;
+    }
+
+    /**
+     * Used to add a player to the directory,
+     * or update their name if it has changed.
+     *
+     * @param uuid The player's uuid.
+     * @param name The player's name.
+     */
+    public void add(@NotNull UUID uuid, @NotNull String name) {
+        final String oldName = this.nameMap.put(uuid, name);
+        this.uuidMap.put(name.toLowerCase(Locale.ROOT), uuid);
+        if (name.equals(oldName)) return;
+
+        // Remove the old name if it still points to this player.
+        if (oldName != null && !oldName.equalsIgnoreCase(name)) {
+            this.uuidMap.remove(oldName.toLowerCase(Locale.ROOT), uuid);
+        }
+
+        // Players are added when loading finishes.
+        this.pendingSet.add(uuid);
+        if (this.loaded) this.scheduleMerge();
+    }
+
+    private void scheduleMerge() {
+        if (!this.mergeScheduled.compareAndSet(false, true)) return;
+        Bukkit.getScheduler().runTaskAsynchronously(this.plugin, this::merge);
+    }
+
+    /**
+     * Used to merge the players that have joined
+     * or changed their name into the sorted array.
+     * The changed players are sorted and merged in
+     * one pass, so the array is only copied once
+     * for every batch of players.
+     */
+    private void merge() {
+        this.mergeScheduled.set(false);
+
+        synchronized (this) {
+            if (this.pendingSet.isEmpty()) return;
+
+            // Take the changed players.
+            Set<UUID> changedSet = new HashSet<>();
+            for (Iterator<UUID> iterator = this.pendingSet.iterator(); iterator.hasNext(); ) {
+                changedSet.add(iterator.next());
+                iterator.remove();
+            }
+
+            Entry[] added = changedSet.stream()
+                    .filter(this.nameMap::containsKey)
+                    .map(uuid -> new Entry(uuid, this.nameMap.get(uuid)))
+                    .sorted(COMPARATOR)
+                    .toArray(Entry[]::new);
+
+            // Merge them, skipping their old entries.
+            Entry[] current = this.entries;
+            Entry[] merged = new Entry[current.length + added.length];
+            int size = 0;
+            int i = 0;
+            int j = 0;
+
+            while (i < current.length || j < added.length) {
+                if (i < current.length && changedSet.contains(current[i].uuid)) {
+                    i++;
+                    continue;
+                }
+
+                if (j >= added.length || (i < current.length && COMPARATOR.compare(current[i], added[j]) <= 0)) {
+                    merged[size++] = current[i++];
+                } else {
+                    merged[size++] = added[j++];
+                }
+            }
+
+            this.entries = Arrays.copyOf(merged, size);
+        }
+    }
+
+    /**
+     * Used to get the number of players
+     * in the directory.
+     *
+     * @return The number of players.
+     */
+    public int getSize() {
+        return this.entries.length;
+    }
+
+    /**
+     * Used to get the player at a position
+     * in the sorted directory.
+     *
+     * @param index The position.
+     * @return The player.
+     * Empty if the position is out of range.
+     */
+    public @NotNull Optional<Entry> get(int index) {
+        Entry[] array = this.entries;
+        if (index < 0 || index >= array.length) return Optional.empty();
+        return Optional.of(array[index]);
+    }
+
+    /**
+     * Used to get a page of players from
+     * the sorted directory.
+     *
+     * @param from The position of the first player.
+     * @param size The maximum number of players.
+     * @return The list of players.
+     */
+    public @NotNull List<Entry> getPage(int from, int size) {
+        Entry[] array = this.entries;
+        if (from < 0 || from >= array.length || size <= 0) return new ArrayList<>();
+        return List.of(Arrays.copyOfRange(array, from, Math.min(array.length, from + size)));
+    }
+
+    /**
+     * Used to get the uuid of every player in the directory,
+     * including the players that joined since the last merge.
+     *
+     * @return The list of player uuids.
+     */
+    public @NotNull List<UUID> getUuids() {
+        return new ArrayList<>(this.nameMap.keySet());
+    }
+
+    /**
+     * Used to get a player's uuid from their name,
+     * ignoring case.
+     *
+     * @param name The player's name.
+     * @return The player's uuid.
+     * Empty if no player with the name has joined.
+     */
+    public @NotNull Optional<UUID> getUuid(@NotNull String name) {
+        return Optional.ofNullable(this.uuidMap.get(name.toLowerCase(Locale.ROOT)));
+    }
+
+    /**
+     * Used to get a player's name from their uuid.
+     *
+     * @param uuid The player's uuid.
+     * @return The player's name.
+     * Empty if the player has not joined.
+     */
+    public @NotNull Optional<String> getName(@NotNull UUID uuid) {
+        return Optional.ofNullable(this.nameMap.get(uuid));
+    }
+
+    /**
+     * Used to get the position of a player
+     * in the sorted directory.
+     *
+     * @param uuid The player's uuid.
+     * @return The position, or -1 if they are not in the directory.
+     */
+    public int indexOf(@NotNull UUID uuid) {
+        final String name = this.nameMap.get(uuid);
+        if (name == null) return -1;
+
+        final int index = Arrays.binarySearch(this.entries, new Entry(uuid, name), COMPARATOR);
+        return Math.max(-1, index);
+    }
+
+    /**
+     * Used to get the players whose names start
+     * with a prefix, ignoring case.
+     *
+     * @param prefix The prefix to search for.
+     * @param limit  The maximum number of players.
+     * @return The list of players in name order.
+     */
+    public @NotNull List<Entry> getPrefix(@NotNull String prefix, int limit) {
+        Entry[] array = this.entries;
+        final String lowerCasePrefix = prefix.toLowerCase(Locale.ROOT);
+
+        List<Entry> list = new ArrayList<>();
+        for (int i = this.lowerBound(array, lowerCasePrefix); i < array.length && list.size() < limit; i++) {
+            if (!array[i].lowerCaseName.startsWith(lowerCasePrefix)) break;
+            list.add(array[i]);
+        }
+
+        return list;
+    }
+
+    private int lowerBound(@NotNull Entry[] array, @NotNull String lowerCaseName) {
+        int low = 0;
+        int high = array.length;
+
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (array[middle].lowerCaseName.compareTo(lowerCaseName) < 0) low = middle + 1;
+            else high = middle;
+        }
+
+        return low;
+    }
+}
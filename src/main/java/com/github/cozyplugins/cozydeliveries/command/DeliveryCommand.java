@@ -57,6 +57,7 @@ public class DeliveryCommand implements CommandType {
     public @Nullable CommandTypePool getSubCommandTypes() {
         return new CommandTypePool()
                 .append(new DeliverySendCommand())
+                .append(new DeliverySendAllCommand())
                 .append(new DeliveryReloadCommand());
     }
 
@@ -19,6 +19,7 @@
 package com.github.cozyplugins.cozydeliveries.command;
 
 import com.github.cozyplugins.cozydeliveries.CozyDeliveries;
+import com.github.cozyplugins.cozydeliveries.CozyDeliveriesAPI;
 import com.github.cozyplugins.cozylibrary.CozyLibrary;
 import com.github.cozyplugins.cozylibrary.command.command.CommandType;
 import com.github.cozyplugins.cozylibrary.command.datatype.CommandArguments;
@@ -31,11 +32,17 @@ import com.github.cozyplugins.cozylibrary.user.PlayerUser;
 import com.github.cozyplugins.cozylibrary.user.User;
 import com.github.smuddgge.squishyconfiguration.interfaces.ConfigurationSection;
 import org.jetbrains.annotations.NotNull;
+import org.bukkit.Bukkit;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+
 /**
  * Represents the reload command.
  * Reloads the configuration files and commands.
+ * Only the event and content files that have changed
+ * are parsed, in the background.
  */
 public class DeliveryReloadCommand implements CommandType {
 
@@ -67,14 +74,32 @@ public class DeliveryReloadCommand implements CommandType {
     @Override
     public @Nullable CommandStatus onUser(@NotNull User user, @NotNull ConfigurationSection section, @NotNull CommandArguments commandArguments) {
 
+        CozyDeliveriesAPI api = CozyDeliveries.getAPI().orElseThrow();
+
         // Reload the configuration files.
-        CozyDeliveries.getAPI().orElseThrow().getConfiguration().load();
-        CozyDeliveries.getAPI().orElseThrow().getEventConfiguration().getDirectory().reload();
-        CozyDeliveries.getAPI().orElseThrow().getContentConfiguration().getDirectory().reload();
+        api.getConfiguration().load();
+        api.getPlaceholderRegistry().reload();
+        api.getItemRenderer().reload(api.getConfiguration().getSection("delivery.default_item"));
         CozyLibrary.getCommandDirectory().reload();
 
-        // Send the confirmation message.
-        user.sendMessage(section.getString("message", "&7&l> &7Reloaded configuration and commands."));
+        // Reload the changed event and content files in the background.
+        CompletableFuture<Integer> eventFuture = api.getEventConfiguration().reloadChangedAsync();
+        CompletableFuture<Integer> contentFuture = api.getContentConfiguration().reloadChangedAsync();
+
+        eventFuture.thenCombine(contentFuture, Integer::sum).whenComplete((parsed, throwable) ->
+                Bukkit.getScheduler().runTask(CozyDeliveries.getPlugin(), () -> {
+
+                    // Check if the files failed to reload.
+                    if (throwable != null) {
+                        CozyDeliveries.getPlugin().getLogger().log(Level.WARNING, "Failed to reload the configuration directories.", throwable);
+                        user.sendMessage(section.getString("failed", "&7&l> &7Failed to reload the event and content files."));
+                        return;
+                    }
+
+                    // Send the confirmation message.
+                    user.sendMessage(section.getString("message", "&7&l> &7Reloaded configuration and commands."));
+                })
+        );
         return new CommandStatus();
     }
 
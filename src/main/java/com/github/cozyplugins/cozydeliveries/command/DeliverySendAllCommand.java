@@ -0,0 +1,151 @@
+/*
+ * CozyDeliveries - An item and money delivery service for a minecraft server.
+ * Copyright (C) 2024  Smuddgge
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.github.cozyplugins.cozydeliveries.command;
+
+import com.github.cozyplugins.cozydeliveries.CozyDeliveries;
+import com.github.cozyplugins.cozydeliveries.cache.PlayerDirectory;
+import com.github.cozyplugins.cozydeliveries.delivery.BulkDelivery;
+import com.github.cozyplugins.cozydeliveries.delivery.DeliveryContent;
+import com.github.cozyplugins.cozylibrary.command.command.CommandType;
+import com.github.cozyplugins.cozylibrary.command.datatype.CommandArguments;
+import com.github.cozyplugins.cozylibrary.command.datatype.CommandStatus;
+import com.github.cozyplugins.cozylibrary.command.datatype.CommandSuggestions;
+import com.github.cozyplugins.cozylibrary.command.datatype.CommandTypePool;
+import com.github.cozyplugins.cozylibrary.user.ConsoleUser;
+import com.github.cozyplugins.cozylibrary.user.FakeUser;
+import com.github.cozyplugins.cozylibrary.user.PlayerUser;
+import com.github.cozyplugins.cozylibrary.user.User;
+import com.github.smuddgge.squishyconfiguration.interfaces.ConfigurationSection;
+import org.bukkit.Bukkit;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Represents the delivery send all command.
+ * Used by the console to send a delivery content
+ * to every player that has joined the server.
+ */
+public class DeliverySendAllCommand implements CommandType {
+
+    @Override
+    public @NotNull String getIdentifier() {
+        return "sendall";
+    }
+
+    @Override
+    public @Nullable String getSyntax() {
+        return "/[parent] [name] <content>";
+    }
+
+    @Override
+    public @Nullable String getDescription() {
+        return "Used to send a delivery to every player.";
+    }
+
+    @Override
+    public @Nullable CommandTypePool getSubCommandTypes() {
+        return null;
+    }
+
+    @Override
+    public @Nullable CommandSuggestions getSuggestions(@NotNull User user, @NotNull ConfigurationSection section, @NotNull CommandArguments arguments) {
+        return new CommandSuggestions().append(
+                CozyDeliveries.getAPI().orElseThrow().getContentConfiguration().getIdentifiers()
+        );
+    }
+
+    @Override
+    public @Nullable CommandStatus onUser(@NotNull User user, @NotNull ConfigurationSection section, @NotNull CommandArguments arguments) {
+        return null;
+    }
+
+    @Override
+    public @Nullable CommandStatus onPlayer(@NotNull PlayerUser user, @NotNull ConfigurationSection section, @NotNull CommandArguments arguments) {
+        return null;
+    }
+
+    @Override
+    public @Nullable CommandStatus onFakeUser(@NotNull FakeUser user, @NotNull ConfigurationSection section, @NotNull CommandArguments arguments) {
+        return null;
+    }
+
+    @Override
+    public @Nullable CommandStatus onConsole(@NotNull ConsoleUser user, @NotNull ConfigurationSection section, @NotNull CommandArguments arguments) {
+
+        // Check if the database is disabled.
+        if (CozyDeliveries.getAPI().orElseThrow().getDatabase().isDisabled()) {
+            user.sendMessage(section.getString("database_disabled", "&7The database is currently disabled. This could be an error."));
+            return new CommandStatus();
+        }
+
+        // Check if they have provided the content.
+        if (arguments.getArguments().isEmpty() || arguments.getArguments().get(0).isEmpty()) {
+            user.sendMessage(section.getString("incorrect_arguments", "&7Incorrect arguments. &e" + this.getSyntax()));
+            return new CommandStatus();
+        }
+
+        // Get the content to send.
+        Optional<DeliveryContent> optionalContent = CozyDeliveries.getAPI().orElseThrow()
+                .getContentConfiguration()
+                .getType(arguments.getArguments().get(0));
+
+        if (optionalContent.isEmpty()) {
+            user.sendMessage(section.getString("incorrect_arguments_content", "&7Content does not exist. &e" + this.getSyntax()));
+            return new CommandStatus();
+        }
+
+        // Check if the players that have joined are still being loaded.
+        PlayerDirectory directory = CozyDeliveries.getAPI().orElseThrow().getPlayerDirectory();
+        if (!directory.isLoaded()) {
+            user.sendMessage(section.getString("loading", "&7The player list is still loading, try again soon."));
+            return new CommandStatus();
+        }
+
+        // Get every player that has joined the server.
+        List<UUID> playerUuidList = directory.getUuids();
+
+        // Send the deliveries.
+        final String progressMessage = section.getString("progress", "&7Sent &f{sent}&7/&f{total} &7deliveries.");
+        BulkDelivery bulkDelivery = CozyDeliveries.getAPI().orElseThrow()
+                .sendBulkDelivery(playerUuidList, optionalContent.get())
+                .addProgressListener((sent, total) -> Bukkit.getScheduler().runTask(
+                        CozyDeliveries.getPlugin(),
+                        () -> user.sendMessage(progressMessage
+                                .replace("{sent}", Integer.toString(sent))
+                                .replace("{total}", Integer.toString(total))
+                        )
+                ));
+
+        bulkDelivery.getFuture().whenComplete((sent, throwable) -> Bukkit.getScheduler().runTask(
+                CozyDeliveries.getPlugin(),
+                () -> user.sendMessage(throwable == null
+                        ? section.getString("sent", "&7Sent &f{sent} &7deliveries, &f{failed} &7failed.")
+                        .replace("{sent}", Integer.toString(sent))
+                        .replace("{failed}", Integer.toString(bulkDelivery.getFailed()))
+                        : section.getString("failed", "&7Failed to send the deliveries. Check the console for errors.")
+                )
+        ));
+
+        return new CommandStatus();
+    }
+}
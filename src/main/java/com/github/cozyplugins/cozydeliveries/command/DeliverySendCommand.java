@@ -19,6 +19,7 @@
 package com.github.cozyplugins.cozydeliveries.command;
 
 import com.github.cozyplugins.cozydeliveries.CozyDeliveries;
+import com.github.cozyplugins.cozydeliveries.cache.PlayerDirectory;
 import com.github.cozyplugins.cozylibrary.command.command.CommandType;
 import com.github.cozyplugins.cozylibrary.command.datatype.CommandArguments;
 import com.github.cozyplugins.cozylibrary.command.datatype.CommandStatus;
@@ -29,13 +30,10 @@ import com.github.cozyplugins.cozylibrary.user.FakeUser;
 import com.github.cozyplugins.cozylibrary.user.PlayerUser;
 import com.github.cozyplugins.cozylibrary.user.User;
 import com.github.smuddgge.squishyconfiguration.interfaces.ConfigurationSection;
-import org.bukkit.Bukkit;
-import org.bukkit.OfflinePlayer;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.Arrays;
-import java.util.stream.Stream;
+import java.util.UUID;
 
 /**
  * Represents the delivery send command.
@@ -65,7 +63,17 @@ public class DeliverySendCommand implements CommandType {
 
     @Override
     public @Nullable CommandSuggestions getSuggestions(@NotNull User user, @NotNull ConfigurationSection section, @NotNull CommandArguments arguments) {
-        return new CommandSuggestions().append(Stream.of(Bukkit.getOfflinePlayers()).map(OfflinePlayer::getName).toList());
+        final String prefix = arguments.getArguments().isEmpty()
+                ? ""
+                : arguments.getArguments().get(arguments.getArguments().size() - 1);
+
+        // Only suggest the first players that match.
+        return new CommandSuggestions().append(CozyDeliveries.getAPI().orElseThrow()
+                .getPlayerDirectory()
+                .getPrefix(prefix, section.getInteger("suggestion_limit", 20))
+                .stream().map(PlayerDirectory.Entry::getName)
+                .toList()
+        );
     }
 
     @Override
@@ -90,27 +98,26 @@ public class DeliverySendCommand implements CommandType {
             return new CommandStatus();
         }
 
-        // Check if they have specified an offline player.
-        if (!Arrays.stream(Bukkit.getOfflinePlayers())
-                .map(OfflinePlayer::getName)
-                .toList()
-                .contains(arguments.getArguments().get(0))) {
+        // Get the player to send the delivery to.
+        final UUID playerUuid = CozyDeliveries.getAPI().orElseThrow()
+                .getPlayerDirectory()
+                .getUuid(arguments.getArguments().get(0))
+                .orElse(null);
 
+        // Check if they have specified a player that has joined.
+        if (playerUuid == null) {
             user.sendMessage(section.getString("incorrect_arguments_player", "&7Incorrect arguments. &e" + this.getSyntax()));
             return new CommandStatus();
         }
 
-        // Get the player to send the delivery to.
-        final OfflinePlayer player = Bukkit.getOfflinePlayer(arguments.getArguments().get(0));
-
         // Check if they have selected them self.
-        if (player.getUniqueId().equals(user.getUuid())) {
+        if (playerUuid.equals(user.getUuid())) {
             user.sendMessage(section.getString("chose_self", "&7You cannot choose your self."));
             return new CommandStatus();
         }
 
         // Create the delivery.
-        CozyDeliveries.getAPI().orElseThrow().createDelivery(user.getPlayer(), player.getUniqueId());
+        CozyDeliveries.getAPI().orElseThrow().createDelivery(user.getPlayer(), playerUuid);
         return new CommandStatus();
     }
 
@@ -0,0 +1,202 @@
+/*
+ * CozyDeliveries - An item and money delivery service for a minecraft server.
+ * Copyright (C) 2024  Smuddgge
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.github.cozyplugins.cozydeliveries.configuration;
+
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Represents the configuration directory watcher.
+ * Watches the folders of configuration directories and
+ * reloads the changed files in the background.
+ * <p>
+ * Writes are debounced, so a directory is only reloaded
+ * once no file in it has changed for the debounce time.
+ * Files that fail to load keep their last loaded version.
+ */
+public class ConfigurationDirectoryWatcher {
+
+    private final @NotNull Plugin plugin;
+    private final long debounceMillis;
+    private final @NotNull Map<WatchKey, CozyDeliveriesConfigurationDirectory<?>> keyMap;
+    private final @NotNull Map<CozyDeliveriesConfigurationDirectory<?>, Long> dueMap;
+    private @Nullable WatchService watchService;
+    private @Nullable Thread thread;
+
+    /**
+     * Used to create a new configuration directory watcher.
+     *
+     * @param plugin         The instance of the plugin used for logging.
+     * @param debounceMillis The time to wait after the last change before reloading.
+     */
+    public ConfigurationDirectoryWatcher(@NotNull Plugin plugin, long debounceMillis) {
+        this.plugin = plugin;
+        this.debounceMillis = Math.max(0, debounceMillis);
+        this.keyMap = new HashMap<>();
+        this.dueMap = new HashMap<>();
+    }
+
+    /**
+     * Used to start watching configuration directories.
+     *
+     * @param directories The directories to watch.
+     * @throws IOException If the folders cannot be watched.
+     */
+    public void start(@NotNull CozyDeliveriesConfigurationDirectory<?>... directories) throws IOException {
+        if (this.thread != null) return;
+
+        this.watchService = FileSystems.getDefault().newWatchService();
+        for (CozyDeliveriesConfigurationDirectory<?> directory : directories) {
+            this.register(directory.getFolder().toPath(), directory);
+        }
+
+        this.thread = new Thread(this::run, "CozyDeliveries Configuration Watcher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Used to stop watching the directories.
+     */
+    public void stop() {
+        if (this.thread != null) this.thread.interrupt();
+        this.thread = null;
+
+        try {
+            if (this.watchService != null) this.watchService.close();
+        } catch (IOException exception) {
+            this.plugin.getLogger().log(Level.WARNING, "Failed to stop the configuration watcher.", exception);
+        }
+        this.watchService = null;
+    }
+
+    /**
+     * Used to check if the watcher is running.
+     *
+     * @return True if it is running.
+     */
+    public boolean isRunning() {
+        return this.thread != null;
+    }
+
+    private void register(@NotNull Path folder, @NotNull CozyDeliveriesConfigurationDirectory<?> directory) throws IOException {
+        if (!Files.isDirectory(folder) || this.watchService == null) return;
+
+        // Watch the folder and every folder inside it.
+        Files.walkFileTree(folder, new SimpleFileVisitor<>() {
+            @Override
+            public @NotNull FileVisitResult preVisitDirectory(@NotNull Path path, @NotNull BasicFileAttributes attributes) throws IOException {
+                WatchKey key = path.register(ConfigurationDirectoryWatcher.this.watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY,
+                        StandardWatchEventKinds.ENTRY_DELETE
+                );
+                ConfigurationDirectoryWatcher.this.keyMap.put(key, directory);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void run() {
+        WatchService service = this.watchService;
+        if (service == null) return;
+
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+
+                // Wait for a change, or until the next
+                // directory is due to be reloaded.
+                WatchKey key = this.dueMap.isEmpty()
+                        ? service.take()
+                        : service.poll(this.getWaitMillis(), TimeUnit.MILLISECONDS);
+
+                if (key != null) this.handle(key);
+                this.reloadDue();
+
+            } catch (InterruptedException | ClosedWatchServiceException exception) {
+                return;
+            } catch (Exception exception) {
+                this.plugin.getLogger().log(Level.WARNING, "Failed to watch the configuration directories.", exception);
+            }
+        }
+    }
+
+    private void handle(@NotNull WatchKey key) throws IOException {
+        CozyDeliveriesConfigurationDirectory<?> directory = this.keyMap.get(key);
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (directory == null) continue;
+
+            // Watch folders that were created.
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE
+                    && key.watchable() instanceof Path parent
+                    && event.context() instanceof Path child) {
+                this.register(parent.resolve(child), directory);
+            }
+
+            // Push the reload back until the writes stop.
+            this.dueMap.put(directory, System.currentTimeMillis() + this.debounceMillis);
+        }
+
+        if (!key.reset()) this.keyMap.remove(key);
+    }
+
+    private long getWaitMillis() {
+        final long now = System.currentTimeMillis();
+        long wait = Long.MAX_VALUE;
+        for (long due : this.dueMap.values()) {
+            wait = Math.min(wait, due - now);
+        }
+        return Math.max(1, wait);
+    }
+
+    private void reloadDue() {
+        final long now = System.currentTimeMillis();
+        Iterator<Map.Entry<CozyDeliveriesConfigurationDirectory<?>, Long>> iterator = this.dueMap.entrySet().iterator();
+
+        while (iterator.hasNext()) {
+            Map.Entry<CozyDeliveriesConfigurationDirectory<?>, Long> entry = iterator.next();
+            if (entry.getValue() > now) continue;
+            iterator.remove();
+
+            try {
+                final int parsed = entry.getKey().reloadChanged();
+                if (parsed > 0) this.plugin.getLogger().log(Level.INFO,
+                        "Reloaded " + parsed + " changed file(s) in " + entry.getKey().getFolder().getName()
+                );
+
+            } catch (Exception exception) {
+                this.plugin.getLogger().log(Level.WARNING,
+                        "Failed to reload " + entry.getKey().getFolder().getName(), exception
+                );
+            }
+        }
+    }
+}
@@ -15,14 +15,17 @@
  * You should have received a copy of the GNU General Public License
  * along with this program.  If not, see <https://www.gnu.org/licenses/>.
  */
-
 package com.github.cozyplugins.cozydeliveries.configuration;
 
 import com.github.cozyplugins.cozydeliveries.delivery.DeliveryContent;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Optional;
+
 /**
  * Represents the content configuration directory.
+ * The contents are converted once when their file
+ * is loaded and copies are handed out on request.
  */
 public class ContentConfigurationDirectory extends CozyDeliveriesConfigurationDirectory<DeliveryContent> {
 
@@ -41,5 +44,21 @@ public class ContentConfigurationDirectory extends CozyDeliveriesConfigurationDi
     @Override
     public void onReload() {
 
+        // The contents are converted when their
+        // file is loaded, so there is nothing to do.
+    }
+
+    /**
+     * Used to get a copy of a content.
+     * The configuration is not read, as the contents
+     * are converted when their file is loaded.
+     *
+     * @param identifier The content's identifier.
+     * @return A copy of the content.
+     * Empty if it isn't in the configuration directory.
+     */
+    @Override
+    public @NotNull Optional<DeliveryContent> getType(@NotNull String identifier) {
+        return this.getLoadedType(identifier).map(DeliveryContent::new);
     }
 }
@@ -19,27 +19,128 @@
 package com.github.cozyplugins.cozydeliveries.configuration;
 
 import com.github.cozyplugins.cozydeliveries.CozyDeliveries;
+import com.github.cozyplugins.cozydeliveries.metric.LatencyRecorder;
 import com.github.cozyplugins.cozylibrary.configuration.ConfigurationDirectory;
 import com.github.smuddgge.squishyconfiguration.implementation.YamlConfiguration;
 import com.github.smuddgge.squishyconfiguration.indicator.ConfigurationConvertable;
 import com.github.smuddgge.squishyconfiguration.interfaces.Configuration;
+import com.github.smuddgge.squishyconfiguration.interfaces.ConfigurationSection;
+import org.bukkit.Bukkit;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
 
 /**
  * Represents a configuration directory in this plugin.
+ * <p>
+ * Each file is tracked with its last modified time stamp,
+ * size and hash, so a reload only parses the files that
+ * have changed. The loaded types are kept in an immutable
+ * snapshot that is replaced in one step, so the types can
+ * be read from any thread while a reload is running.
  *
  * @param <T> The type of object the directory contains.
  *            Each configuration key is a one of these objects.
  */
 public abstract class CozyDeliveriesConfigurationDirectory<T extends ConfigurationConvertable<T>> {
 
+    private final @NotNull String directoryName;
+    private final @NotNull String defaultFileName;
     private final @NotNull ConfigurationDirectory directory;
+    private final @NotNull Object reloadLock;
+    private final @NotNull LatencyRecorder parseTime;
+    private volatile @NotNull Snapshot<T> snapshot;
+
+    /**
+     * Represents a loaded configuration file.
+     *
+     * @param <T> The type of object the file contains.
+     */
+    private static class FileEntry<T> {
+
+        private final @NotNull File file;
+        private final long lastModified;
+        private final long length;
+        private final long hash;
+        private final long parseNanos;
+        private final @NotNull Map<String, ConfigurationSection> sectionMap;
+        private final @NotNull Map<String, T> typeMap;
+
+        private FileEntry(@NotNull File file,
+                          long lastModified,
+                          long length,
+                          long hash,
+                          long parseNanos,
+                          @NotNull Map<String, ConfigurationSection> sectionMap,
+                          @NotNull Map<String, T> typeMap) {
+
+            this.file = file;
+            this.lastModified = lastModified;
+            this.length = length;
+            this.hash = hash;
+            this.parseNanos = parseNanos;
+            this.sectionMap = sectionMap;
+            this.typeMap = typeMap;
+        }
+
+        private boolean isUnchanged(@NotNull File file) {
+            return this.lastModified == file.lastModified() && this.length == file.length();
+        }
+
+        private @NotNull FileEntry<T> touch(@NotNull File file) {
+            return new FileEntry<>(file, file.lastModified(), file.length(), this.hash, this.parseNanos, this.sectionMap, this.typeMap);
+        }
+    }
+
+    /**
+     * Represents the loaded files and the
+     * index of identifiers to the file they are in.
+     *
+     * @param <T> The type of object the directory contains.
+     */
+    private static class Snapshot<T> {
+
+        private final @NotNull Map<File, FileEntry<T>> fileMap;
+        private final @NotNull Map<String, FileEntry<T>> identifierMap;
+        private final @NotNull List<String> identifierList;
+
+        private Snapshot(@NotNull Map<File, FileEntry<T>> fileMap) {
+            this.fileMap = Map.copyOf(fileMap);
+
+            // Index the identifiers in file order, the
+            // first file that contains an identifier wins.
+            List<File> fileList = new ArrayList<>(fileMap.keySet());
+            fileList.sort(Comparator.comparing(File::getPath));
+
+            Map<String, FileEntry<T>> map = new LinkedHashMap<>();
+            for (File file : fileList) {
+                FileEntry<T> entry = fileMap.get(file);
+                for (String identifier : entry.sectionMap.keySet()) {
+                    FileEntry<T> existing = map.putIfAbsent(identifier, entry);
+                    if (existing == null) continue;
+
+                    CozyDeliveries.getPlugin().getLogger().log(Level.WARNING,
+                            "The identifier " + identifier + " is in both " + existing.file.getName()
+                                    + " and " + file.getName() + ". Only the first will be used."
+                    );
+                }
+            }
+
+            this.identifierMap = Collections.unmodifiableMap(map);
+            this.identifierList = List.copyOf(map.keySet());
+        }
+    }
 
     /**
      * Used to create a new configuration directory instance.
@@ -48,17 +149,18 @@ public abstract class CozyDeliveriesConfigurationDirectory<T extends Configurati
      * @param defaultFileName The default file name and extension.
      */
     public CozyDeliveriesConfigurationDirectory(@NotNull String directoryName, @NotNull String defaultFileName) {
+        this.directoryName = directoryName;
+        this.defaultFileName = defaultFileName;
         this.directory = new ConfigurationDirectory(directoryName, CozyDeliveries.class) {
             @Override
             public @Nullable String getDefaultFileName() {
                 return defaultFileName;
             }
-
-            @Override
-            protected void onReload() {
-                CozyDeliveriesConfigurationDirectory.this.onReload();
-            }
         };
+
+        this.reloadLock = new Object();
+        this.parseTime = new LatencyRecorder(256);
+        this.snapshot = new Snapshot<>(Map.of());
     }
 
     /**
@@ -69,13 +171,17 @@ public abstract class CozyDeliveriesConfigurationDirectory<T extends Configurati
     public abstract @NotNull T createEmpty(@NotNull String identifier);
 
     /**
-     * Called when the configuration directory is being reloaded.
+     * Called when the configuration directory has been reloaded
+     * and the new types can be read.
+     * This can be called off the main thread.
      */
     public abstract void onReload();
 
     /**
      * Used to get the instance of the configuration
      * directory.
+     * The files are listed and parsed by this class,
+     * so the types should be read from this class.
      *
      * @return The instance of the directory.
      */
@@ -83,42 +189,130 @@ public abstract class CozyDeliveriesConfigurationDirectory<T extends Configurati
         return this.directory;
     }
 
+    /**
+     * Used to get the folder the configuration
+     * files are stored in.
+     *
+     * @return The folder.
+     */
+    public @NotNull File getFolder() {
+        return new File(CozyDeliveries.getPlugin().getDataFolder(), this.directoryName);
+    }
+
+    /**
+     * Used to get the time taken to parse
+     * and convert each file that was loaded.
+     *
+     * @return The latency recorder.
+     */
+    public @NotNull LatencyRecorder getParseTime() {
+        return this.parseTime;
+    }
+
+    /**
+     * Used to get the time taken to parse and
+     * convert each loaded file when it was last parsed.
+     *
+     * @return The map of file names to milliseconds.
+     */
+    public @NotNull Map<String, Double> getFileParseMillis() {
+        Map<String, Double> map = new TreeMap<>();
+        for (FileEntry<T> entry : this.snapshot.fileMap.values()) {
+            map.put(entry.file.getName(), entry.parseNanos / 1_000_000D);
+        }
+        return map;
+    }
+
+    /**
+     * Used to load every file in the directory.
+     * The default file is created if there are no files.
+     */
+    public void reload() {
+        synchronized (this.reloadLock) {
+            this.publish(this.loadFiles(Map.of()), true);
+        }
+    }
+
+    /**
+     * Used to reload the files that have been
+     * changed, added or removed since they were last loaded.
+     * Be careful as this reads the files.
+     *
+     * @return The number of files that were parsed.
+     */
+    public int reloadChanged() {
+        synchronized (this.reloadLock) {
+            Map<File, FileEntry<T>> previousMap = this.snapshot.fileMap;
+            Map<File, FileEntry<T>> fileMap = this.loadFiles(previousMap);
+
+            int parsed = 0;
+            for (Map.Entry<File, FileEntry<T>> entry : fileMap.entrySet()) {
+                FileEntry<T> previous = previousMap.get(entry.getKey());
+                if (previous == null || previous.typeMap != entry.getValue().typeMap) parsed++;
+            }
+
+            // Only call the reload event if the types have changed.
+            // Files that were only touched still need their
+            // new time stamps storing.
+            this.publish(fileMap, parsed > 0 || !fileMap.keySet().equals(previousMap.keySet()));
+            return parsed;
+        }
+    }
+
+    /**
+     * Used to reload the files that have changed
+     * in the background.
+     *
+     * @return The future that completes with the
+     * number of files that were parsed.
+     */
+    public @NotNull CompletableFuture<Integer> reloadChangedAsync() {
+        CompletableFuture<Integer> future = new CompletableFuture<>();
+
+        Bukkit.getScheduler().runTaskAsynchronously(CozyDeliveries.getPlugin(), () -> {
+            try {
+                future.complete(this.reloadChanged());
+            } catch (Exception exception) {
+                future.completeExceptionally(exception);
+            }
+        });
+
+        return future;
+    }
+
     /**
      * Used to get the configuration file that contains
      * a certain identifier.
      * This is used to save data as you cannot save data
      * in a configuration directory.
+     * The file is found using the loaded index.
      *
      * @param identifier The identifier to look for.
      * @return The configuration file instance.
      * Empty if the identifier doesn't exist.
      */
     public @NotNull Optional<Configuration> getConfigurationThatContains(@NotNull String identifier) {
-        for (File file : this.getDirectory().getFiles()) {
-            YamlConfiguration configuration = new YamlConfiguration(file);
-            configuration.load();
-            if (configuration.getKeys().contains(identifier)) return Optional.of(configuration);
-        }
+        FileEntry<T> entry = this.snapshot.identifierMap.get(identifier);
+        if (entry == null) return Optional.empty();
 
-        return Optional.empty();
+        YamlConfiguration configuration = new YamlConfiguration(entry.file);
+        configuration.load();
+        return Optional.of(configuration);
     }
 
     /**
      * Used to get a type object from the configuration.
+     * A new instance is converted from the loaded section.
      *
      * @param identifier The object's identifier.
      * @return The instance of the object.
      * Empty if it isn't in the configuration directory.
      */
     public @NotNull Optional<T> getType(@NotNull String identifier) {
+        FileEntry<T> entry = this.snapshot.identifierMap.get(identifier);
+        if (entry == null) return Optional.empty();
 
-        // Check if the type exists.
-        if (this.getDirectory().getKeys().contains(identifier)) {
-            return Optional.of(this.createEmpty(identifier).convert(this.getDirectory().getSection(identifier)));
-        }
-
-        // Otherwise the object does not exist.
-        return Optional.empty();
+        return Optional.of(this.createEmpty(identifier).convert(entry.sectionMap.get(identifier)));
     }
 
     /**
@@ -130,7 +324,7 @@ public abstract class CozyDeliveriesConfigurationDirectory<T extends Configurati
     public @NotNull List<T> getAllTypes() {
         List<T> typeList = new ArrayList<>();
 
-        for (String identifier : this.getDirectory().getKeys()) {
+        for (String identifier : this.getIdentifiers()) {
             typeList.add(this.getType(identifier)
                     .orElseThrow(() -> new RuntimeException("Directory exists in directory list but not in directory?"))
             );
@@ -139,53 +333,103 @@ public abstract class CozyDeliveriesConfigurationDirectory<T extends Configurati
         return typeList;
     }
 
+    /**
+     * Used to get the instance of a type that was
+     * converted when its file was loaded.
+     * The same instance is shared until the file
+     * changes, so it should not be modified.
+     *
+     * @param identifier The object's identifier.
+     * @return The loaded instance of the object.
+     * Empty if it isn't in the configuration directory.
+     */
+    public @NotNull Optional<T> getLoadedType(@NotNull String identifier) {
+        FileEntry<T> entry = this.snapshot.identifierMap.get(identifier);
+        if (entry == null) return Optional.empty();
+        return Optional.ofNullable(entry.typeMap.get(identifier));
+    }
+
+    /**
+     * Used to get every type that was converted
+     * when its file was loaded.
+     * The instances should not be modified.
+     *
+     * @return The list of loaded types.
+     */
+    public @NotNull List<T> getLoadedTypes() {
+        Snapshot<T> current = this.snapshot;
+        List<T> typeList = new ArrayList<>(current.identifierList.size());
+
+        for (String identifier : current.identifierList) {
+            typeList.add(current.identifierMap.get(identifier).typeMap.get(identifier));
+        }
+
+        return typeList;
+    }
+
+    /**
+     * Used to get the identifiers in the
+     * configuration directory.
+     *
+     * @return The list of identifiers.
+     */
+    public @NotNull List<String> getIdentifiers() {
+        return this.snapshot.identifierList;
+    }
+
     /**
      * Used to insert a type into the directory.
+     * Only the file that contains the type is
+     * saved and loaded again.
      *
      * @param identifier The instance of the identifier.
      * @param type       The type to insert.
      * @return This instance.
      */
     public @NotNull CozyDeliveriesConfigurationDirectory<T> insertType(@NotNull String identifier, @NotNull T type) {
+        synchronized (this.reloadLock) {
 
-        // Get the local configuration file.
-        Optional<Configuration> optionalConfiguration = this.getConfigurationThatContains(identifier);
+            // Get the local configuration file.
+            Optional<Configuration> optionalConfiguration = this.getConfigurationThatContains(identifier);
 
-        // Check if the configuration exists.
-        if (optionalConfiguration.isEmpty()) return this;
-        Configuration configuration = optionalConfiguration.get();
+            // Check if the configuration exists.
+            if (optionalConfiguration.isEmpty()) return this;
+            Configuration configuration = optionalConfiguration.get();
 
-        configuration.set(identifier, type.convert().getMap());
-        configuration.save();
+            configuration.set(identifier, type.convert().getMap());
+            configuration.save();
 
-        // Reload the directory.
-        this.getDirectory().reload();
+            // Reload the file.
+            this.reloadFile(this.snapshot.identifierMap.get(identifier).file);
+        }
         return this;
     }
 
     /**
      * Used to remove a type from the configuration directory.
      * This will also save it to the local configuration
-     * and reload the directory.
+     * and load the file again.
      *
      * @param identifier The instance of the identifier.
      * @return This instance.
      */
     public @NotNull CozyDeliveriesConfigurationDirectory<T> removeType(@NotNull String identifier) {
+        synchronized (this.reloadLock) {
 
-        // Get the local configuration file.
-        Optional<Configuration> optionalConfiguration = this.getConfigurationThatContains(identifier);
+            // Get the local configuration file.
+            Optional<Configuration> optionalConfiguration = this.getConfigurationThatContains(identifier);
 
-        // Check if the configuration exists.
-        if (optionalConfiguration.isEmpty()) return this;
-        Configuration configuration = optionalConfiguration.get();
+            // Check if the configuration exists.
+            if (optionalConfiguration.isEmpty()) return this;
+            Configuration configuration = optionalConfiguration.get();
 
-        // Remove the identifier and data.
-        configuration.set(identifier, null);
-        configuration.save();
+            // Remove the identifier and data.
+            configuration.set(identifier, null);
+            configuration.save();
 
-        // Reload the directory.
-        this.getDirectory().reload();
+            // Reload the file.
+            this.reloadFile(this.snapshot.identifierMap.get(identifier).file);
+        }
         return this;
     }
 
@@ -197,6 +441,125 @@ public abstract class CozyDeliveriesConfigurationDirectory<T extends Configurati
      * @return True if it exists in the configuration directory.
      */
     public boolean contains(@NotNull String identifier) {
-        return this.getDirectory().getKeys().contains(identifier);
+        return this.snapshot.identifierMap.containsKey(identifier);
+    }
+
+    private void reloadFile(@NotNull File file) {
+        Map<File, FileEntry<T>> fileMap = new HashMap<>(this.snapshot.fileMap);
+        FileEntry<T> entry = this.loadFile(file, null);
+
+        if (entry == null) fileMap.remove(file);
+        else fileMap.put(file, entry);
+
+        this.publish(fileMap, true);
+    }
+
+    private @NotNull Map<File, FileEntry<T>> loadFiles(@NotNull Map<File, FileEntry<T>> previousMap) {
+        Map<File, FileEntry<T>> fileMap = new HashMap<>();
+
+        for (File file : this.listFiles()) {
+            FileEntry<T> previous = previousMap.get(file);
+
+            // Check if the file has not been modified.
+            if (previous != null && previous.isUnchanged(file)) {
+                fileMap.put(file, previous);
+                continue;
+            }
+
+            FileEntry<T> entry = this.loadFile(file, previous);
+            if (entry != null) fileMap.put(file, entry);
+        }
+
+        return fileMap;
+    }
+
+    /**
+     * Used to list the configuration files in the folder
+     * without parsing them.
+     * If there are no files the default file is created.
+     * Must be called while holding the reload lock.
+     *
+     * @return The list of files.
+     */
+    private @NotNull List<File> listFiles() {
+        final File folder = this.getFolder();
+
+        try {
+            List<File> fileList = this.findFiles(folder);
+            if (!fileList.isEmpty()) return fileList;
+
+            // Create the default file.
+            try (InputStream input = CozyDeliveries.class.getResourceAsStream("/" + this.defaultFileName)) {
+                if (input == null) return fileList;
+
+                File file = new File(folder, this.defaultFileName);
+                Files.createDirectories(folder.toPath());
+                Files.copy(input, file.toPath());
+                return List.of(file);
+            }
+
+        } catch (IOException exception) {
+            CozyDeliveries.getPlugin().getLogger().log(Level.WARNING,
+                    "Failed to list the configuration files in " + folder.getName(), exception
+            );
+            return new ArrayList<>(this.snapshot.fileMap.keySet());
+        }
+    }
+
+    private @NotNull List<File> findFiles(@NotNull File folder) throws IOException {
+        if (!folder.isDirectory()) return new ArrayList<>();
+
+        try (Stream<Path> stream = Files.walk(folder.toPath())) {
+            return stream.filter(Files::isRegularFile)
+                    .filter(path -> path.toString().endsWith(".yml") || path.toString().endsWith(".yaml"))
+                    .map(Path::toFile)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private @Nullable FileEntry<T> loadFile(@NotNull File file, @Nullable FileEntry<T> previous) {
+        try {
+
+            // Check if the contents are the same,
+            // for example when the file was only touched.
+            final long lastModified = file.lastModified();
+            final long length = file.length();
+            final long hash = this.hash(file);
+            if (previous != null && previous.hash == hash) return previous.touch(file);
+
+            final long start = System.nanoTime();
+            YamlConfiguration configuration = new YamlConfiguration(file);
+            configuration.load();
+
+            Map<String, ConfigurationSection> sectionMap = new LinkedHashMap<>();
+            Map<String, T> typeMap = new HashMap<>();
+            for (String identifier : configuration.getKeys()) {
+                ConfigurationSection section = configuration.getSection(identifier);
+                sectionMap.put(identifier, section);
+                typeMap.put(identifier, this.createEmpty(identifier).convert(section));
+            }
+
+            final long parseNanos = System.nanoTime() - start;
+            this.parseTime.record(parseNanos);
+            return new FileEntry<>(file, lastModified, length, hash, parseNanos, sectionMap, typeMap);
+
+        } catch (Exception exception) {
+            CozyDeliveries.getPlugin().getLogger().log(Level.WARNING,
+                    "Failed to load the configuration file " + file.getName() + ". The last loaded version will be used.",
+                    exception
+            );
+            return previous;
+        }
+    }
+
+    private long hash(@NotNull File file) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(Files.readAllBytes(file.toPath()));
+        return crc.getValue();
+    }
+
+    private void publish(@NotNull Map<File, FileEntry<T>> fileMap, boolean changed) {
+        this.snapshot = new Snapshot<>(fileMap);
+        if (changed) this.onReload();
     }
 }
@@ -19,12 +19,20 @@
 package com.github.cozyplugins.cozydeliveries.configuration;
 
 import com.github.cozyplugins.cozydeliveries.delivery.event.DeliveryEvent;
-import org.bukkit.event.player.PlayerJoinEvent;
+import com.github.cozyplugins.cozydeliveries.delivery.event.DeliveryEventType;
+import com.github.cozyplugins.cozydeliveries.delivery.event.PlayerJoinContext;
 import org.bukkit.event.player.PlayerKickEvent;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * Represents the event configuration directory.
@@ -32,7 +40,63 @@ import java.util.List;
  */
 public class EventConfigurationDirectory extends CozyDeliveriesConfigurationDirectory<DeliveryEvent> {
 
-    private @NotNull List<DeliveryEvent> eventList;
+    private volatile @NotNull Snapshot snapshot;
+    private final @NotNull List<Consumer<List<DeliveryEvent>>> reloadListenerList;
+
+    /**
+     * Represents the loaded events.
+     * Built once when the directory is reloaded and
+     * never changed, so it can be read from any thread.
+     */
+    private static class Snapshot {
+
+        private final @NotNull Map<String, DeliveryEvent> eventMap;
+        private final @NotNull Group[] joinGroups;
+        private final @NotNull Group[] leaveGroups;
+
+        private Snapshot(@NotNull List<DeliveryEvent> eventList) {
+            this.eventMap = new HashMap<>();
+            for (DeliveryEvent deliveryEvent : eventList) {
+                this.eventMap.put(deliveryEvent.getIdentifier(), deliveryEvent);
+            }
+
+            this.joinGroups = Snapshot.group(eventList, DeliveryEventType::isJoinListener);
+            this.leaveGroups = Snapshot.group(eventList, DeliveryEventType::isLeaveListener);
+        }
+
+        private static @NotNull Group[] group(@NotNull List<DeliveryEvent> eventList,
+                                              @NotNull Predicate<DeliveryEventType> listener) {
+
+            // Group the events by their type, keeping
+            // the order they were loaded in.
+            Map<DeliveryEventType, List<DeliveryEvent>> groupMap = new LinkedHashMap<>();
+            for (DeliveryEvent deliveryEvent : eventList) {
+                if (!listener.test(deliveryEvent.getType())) continue;
+                groupMap.computeIfAbsent(deliveryEvent.getType(), type -> new ArrayList<>()).add(deliveryEvent);
+            }
+
+            Group[] groups = new Group[groupMap.size()];
+            int index = 0;
+            for (Map.Entry<DeliveryEventType, List<DeliveryEvent>> entry : groupMap.entrySet()) {
+                groups[index++] = new Group(entry.getKey(), entry.getValue().toArray(new DeliveryEvent[0]));
+            }
+            return groups;
+        }
+    }
+
+    /**
+     * Represents the events that use the same type.
+     */
+    private static class Group {
+
+        private final @NotNull DeliveryEventType type;
+        private final @NotNull DeliveryEvent[] events;
+
+        private Group(@NotNull DeliveryEventType type, @NotNull DeliveryEvent[] events) {
+            this.type = type;
+            this.events = events;
+        }
+    }
 
     /**
      * Used to create a new event configuration directory instance.
@@ -40,7 +104,8 @@ public class EventConfigurationDirectory extends CozyDeliveriesConfigurationDire
     public EventConfigurationDirectory() {
         super("events", "events.yml");
 
-        this.eventList = new ArrayList<>();
+        this.snapshot = new Snapshot(new ArrayList<>());
+        this.reloadListenerList = new CopyOnWriteArrayList<>();
     }
 
     @Override
@@ -51,32 +116,69 @@ public class EventConfigurationDirectory extends CozyDeliveriesConfigurationDire
     @Override
     public void onReload() {
 
-        // Reset the list.
-        this.eventList = new ArrayList<>();
+        // Replace the snapshot once it is populated,
+        // as it can be read by the cooldown scheduler.
+        // The event types are bound when the events are converted.
+        List<DeliveryEvent> eventList = this.getLoadedTypes();
+        this.snapshot = new Snapshot(eventList);
 
-        // Populate the list.
-        this.eventList.addAll(this.getAllTypes());
+        for (Consumer<List<DeliveryEvent>> listener : this.reloadListenerList) {
+            listener.accept(eventList);
+        }
     }
 
     /**
-     * Used to call the player join event for all delivery events.
+     * Used to add a listener that is called
+     * after the events are reloaded.
+     * The listener can be called off the main thread.
      *
-     * @param event The instance of the event.
+     * @param listener The listener given the reloaded events.
+     * @return This instance.
+     */
+    public @NotNull EventConfigurationDirectory addReloadListener(@NotNull Consumer<List<DeliveryEvent>> listener) {
+        this.reloadListenerList.add(listener);
+        return this;
+    }
+
+    /**
+     * Used to get a loaded delivery event.
+     * The configuration is not read, as the events
+     * are converted when the directory is reloaded.
+     *
+     * @param identifier The event's identifier.
+     * @return The delivery event.
+     * Empty if it isn't in the configuration directory.
+     */
+    public @NotNull Optional<DeliveryEvent> getEvent(@NotNull String identifier) {
+        return Optional.ofNullable(this.snapshot.eventMap.get(identifier));
+    }
+
+    /**
+     * Used to call the player join event for the
+     * delivery events with types that listen to joins.
+     * This can be called off the main thread.
+     *
+     * @param context The player's join context.
      */
-    public void onPlayerJoinEvent(@NotNull PlayerJoinEvent event) {
-        for (DeliveryEvent deliveryEvent : this.eventList) {
-            deliveryEvent.getType().onPlayerJoin(event, deliveryEvent);
+    public void onPlayerJoinEvent(@NotNull PlayerJoinContext context) {
+        for (Group group : this.snapshot.joinGroups) {
+            for (DeliveryEvent deliveryEvent : group.events) {
+                group.type.onPlayerJoin(context, deliveryEvent);
+            }
         }
     }
 
     /**
-     * Used to call the player leave event for all the delivery events.
+     * Used to call the player leave event for the
+     * delivery events with types that listen to leaves.
      *
-     * @param event The isntance of the event.
+     * @param event The instance of the event.
      */
     public void onPlayerLeaveEvent(@NotNull PlayerKickEvent event) {
-        for (DeliveryEvent deliveryEvent : this.eventList) {
-            deliveryEvent.getType().onPlayerLeave(event, deliveryEvent);
+        for (Group group : this.snapshot.leaveGroups) {
+            for (DeliveryEvent deliveryEvent : group.events) {
+                group.type.onPlayerLeave(event, deliveryEvent);
+            }
         }
     }
 }
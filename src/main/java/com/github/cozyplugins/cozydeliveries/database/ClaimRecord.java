@@ -0,0 +1,116 @@
+/*
+ * CozyDeliveries - An item and money delivery service for a minecraft server.
+ * Copyright (C) 2024  Smuddgge
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.cozyplugins.cozydeliveries.database;
+
+import com.github.smuddgge.squishydatabase.record.Field;
+import com.github.smuddgge.squishydatabase.record.Record;
+import com.github.smuddgge.squishydatabase.record.RecordFieldType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.UUID;
+
+/**
+ * Represents the claim record.
+ * Contains the deliveries that are being claimed.
+ * The token is unique to each claim, so a server can check
+ * it is the one that reserved the delivery before removing it.
+ * <p>
+ * A copy of the delivery is kept with the claim, so it can be
+ * put back if the server stopped after removing the delivery
+ * but before giving it to the player.
+ */
+public class ClaimRecord extends Record {
+
+    @Field(type = RecordFieldType.PRIMARY)
+    public @NotNull String deliveryUuid;
+
+    public @NotNull String token;
+    public @NotNull String timeStampMillis;
+    public @Nullable String toPlayerUuid;
+    public @Nullable String deliveryTimeStampMillis;
+    public @Nullable String expireAt;
+    public @Nullable String delivery;
+
+    public ClaimRecord() {
+    }
+
+    /**
+     * Used to create a new claim record.
+     *
+     * @param deliveryUuid    The delivery's uuid.
+     * @param token           The claim's unique token.
+     * @param timeStampMillis The time stamp the claim was made.
+     * @param record          The delivery being claimed.
+     */
+    public ClaimRecord(@NotNull UUID deliveryUuid, @NotNull UUID token, long timeStampMillis, @NotNull DeliveryRecord record) {
+        this.deliveryUuid = deliveryUuid.toString();
+        this.token = token.toString();
+        this.timeStampMillis = Long.toString(timeStampMillis);
+        this.toPlayerUuid = record.toPlayerUuid;
+        this.deliveryTimeStampMillis = record.timeStampMillis;
+        this.expireAt = record.expireAt;
+        this.delivery = record.delivery;
+    }
+
+    /**
+     * Used to get the delivery's uuid.
+     *
+     * @return The delivery's uuid.
+     */
+    public @NotNull UUID getDeliveryUuid() {
+        return UUID.fromString(this.deliveryUuid);
+    }
+
+    /**
+     * Used to get the claim's unique token.
+     *
+     * @return The token.
+     */
+    public @NotNull UUID getToken() {
+        return UUID.fromString(this.token);
+    }
+
+    /**
+     * Used to get the time stamp the claim was made.
+     *
+     * @return The time stamp in milliseconds.
+     */
+    public long getTimeStampMillis() {
+        return Long.parseLong(this.timeStampMillis);
+    }
+
+    /**
+     * Used to get the copy of the delivery being claimed.
+     *
+     * @return The delivery record.
+     * Null if the claim does not contain the delivery.
+     */
+    public @Nullable DeliveryRecord getDeliveryRecord() {
+        if (this.toPlayerUuid == null || this.deliveryTimeStampMillis == null
+                || this.expireAt == null || this.delivery == null) return null;
+
+        return new DeliveryRecord(
+                this.getDeliveryUuid(),
+                UUID.fromString(this.toPlayerUuid),
+                Long.parseLong(this.deliveryTimeStampMillis),
+                Long.parseLong(this.expireAt),
+                this.delivery
+        );
+    }
+}
@@ -27,6 +27,10 @@ import java.util.UUID;
 
 /**
  * Represents the cooldown record.
+ * <p>
+ * Schema version 2 uses the player's uuid and event
+ * identifier as the primary key so a player's cooldown
+ * can be found with a primary key lookup.
  */
 public class CooldownRecord extends Record {
 
@@ -51,7 +55,7 @@ public class CooldownRecord extends Record {
      *                                    event as a time stamp.
      */
     public CooldownRecord(@NotNull UUID playerUuid, @NotNull String eventIdentifier, long lastDeliveryTimeStampMillis) {
-        this.identifier = UUID.randomUUID().toString();
+        this.identifier = CooldownRecord.createIdentifier(playerUuid, eventIdentifier);
         this.playerUuid = playerUuid.toString();
         this.eventIdentifier = eventIdentifier;
         this.lastDeliveryTimeStampMillis = Long.toString(lastDeliveryTimeStampMillis);
@@ -97,6 +101,18 @@ public class CooldownRecord extends Record {
         return Long.parseLong(this.lastDeliveryTimeStampMillis);
     }
 
+    /**
+     * Used to create the unique identifier for a
+     * player's cooldown for a specific event.
+     *
+     * @param playerUuid      The player's uuid.
+     * @param eventIdentifier The event identifier.
+     * @return The cooldown identifier.
+     */
+    public static @NotNull String createIdentifier(@NotNull UUID playerUuid, @NotNull String eventIdentifier) {
+        return playerUuid + ":" + eventIdentifier;
+    }
+
     /**
      * Used to set the last delivery time
      * stamp to now.
@@ -18,9 +18,13 @@
 
 package com.github.cozyplugins.cozydeliveries.database;
 
+import com.github.smuddgge.squishydatabase.Query;
 import com.github.smuddgge.squishydatabase.interfaces.TableAdapter;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Optional;
+import java.util.UUID;
+
 /**
  * Represents the cooldown table.
  * Contains records for events with the cooldown type.
@@ -29,6 +33,21 @@ public class CooldownTable extends TableAdapter<CooldownRecord> {
 
     @Override
     public @NotNull String getName() {
-        return "cooldown";
+        return "cooldown_v2";
+    }
+
+    /**
+     * Used to attempt to get a player's cooldown
+     * record for a specific event.
+     * This uses the primary key of the table.
+     *
+     * @param playerUuid      The player's uuid.
+     * @param eventIdentifier The event identifier.
+     * @return The optional cooldown record.
+     */
+    public @NotNull Optional<CooldownRecord> getCooldownRecord(@NotNull UUID playerUuid, @NotNull String eventIdentifier) {
+        return Optional.ofNullable(this.getFirstRecord(
+                new Query().match("identifier", CooldownRecord.createIdentifier(playerUuid, eventIdentifier))
+        ));
     }
 }
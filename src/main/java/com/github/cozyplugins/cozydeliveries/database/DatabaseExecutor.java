@@ -0,0 +1,299 @@
+/*
+ * CozyDeliveries - An item and money delivery service for a minecraft server.
+ * Copyright (C) 2024  Smuddgge
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.cozyplugins.cozydeliveries.database;
+
+import com.github.cozyplugins.cozydeliveries.metric.LatencyRecorder;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+/**
+ * Represents the database executor.
+ * Runs database operations on a dedicated pool of threads
+ * instead of the main thread or the shared scheduler.
+ * <p>
+ * The number of operations waiting to run is limited, and an
+ * operation submitted when the limit is reached fails straight
+ * away with a {@link RejectedExecutionException}. Each operation
+ * has a timeout, after which its future fails with a
+ * {@link TimeoutException} and the thread running it is interrupted.
+ * Interrupting does not undo a write the database has already
+ * accepted, so a timed out write may still have been applied.
+ * An operation counts towards the limit until its thread has
+ * actually stopped, not just until its future has failed.
+ * Operations that must not be dropped can use
+ * {@link #submitRequired(Callable)} instead, which is not limited.
+ * <p>
+ * On Java 21 or later virtual threads can be used instead of
+ * the pool. The same limit on waiting operations still applies.
+ */
+public class DatabaseExecutor {
+
+    private static final int WAITING = 0;
+    private static final int RUNNING = 1;
+    private static final int STOPPED = 2;
+
+    private final @NotNull Plugin plugin;
+    private final @NotNull ExecutorService executor;
+    private final @NotNull Semaphore permits;
+    private final int maxPending;
+    private final long timeoutMillis;
+    private final boolean virtualThreads;
+    private final @NotNull LatencyRecorder operationLatency;
+    private final @NotNull AtomicInteger timeouts;
+    private final @NotNull AtomicInteger rejections;
+
+    /**
+     * Used to create a new database executor.
+     *
+     * @param plugin         The instance of the plugin used for logging.
+     * @param threads        The number of threads in the pool.
+     * @param maxPending     The maximum number of operations waiting or running.
+     * @param timeoutMillis  The default time an operation can take.
+     * @param virtualThreads True if virtual threads should be used when available.
+     */
+    public DatabaseExecutor(@NotNull Plugin plugin, int threads, int maxPending, long timeoutMillis, boolean virtualThreads) {
+        this.plugin = plugin;
+        this.maxPending = Math.max(1, maxPending);
+        this.permits = new Semaphore(this.maxPending);
+        this.timeoutMillis = Math.max(1L, timeoutMillis);
+        this.operationLatency = new LatencyRecorder(256);
+        this.timeouts = new AtomicInteger();
+        this.rejections = new AtomicInteger();
+
+        ExecutorService virtualExecutor = virtualThreads ? DatabaseExecutor.createVirtualExecutor() : null;
+        if (virtualThreads && virtualExecutor == null) {
+            plugin.getLogger().log(Level.INFO, "Virtual threads are not available, using a pool of " + threads + " database threads.");
+        }
+
+        this.virtualThreads = virtualExecutor != null;
+        this.executor = virtualExecutor != null ? virtualExecutor : DatabaseExecutor.createPool(Math.max(1, threads));
+    }
+
+    /**
+     * Used to run a database operation with the default timeout.
+     *
+     * @param operation The operation to run.
+     * @param <T>       The type of result.
+     * @return The future that completes with the result.
+     */
+    public <T> @NotNull CompletableFuture<T> submit(@NotNull Callable<T> operation) {
+        return this.submit(operation, this.timeoutMillis);
+    }
+
+    /**
+     * Used to run a database operation.
+     * The future fails with a {@link RejectedExecutionException}
+     * if too many operations are waiting, and with a
+     * {@link TimeoutException} if it takes too long.
+     * Cancelling the future interrupts the operation.
+     * A timed out or cancelled write may still have been
+     * applied, so callers should not assume it was not.
+     *
+     * @param operation     The operation to run.
+     * @param timeoutMillis The time the operation can take.
+     *                      0 or less if it should not time out, for operations
+     *                      that must not be interrupted part way through.
+     * @param <T>           The type of result.
+     * @return The future that completes with the result.
+     */
+    public <T> @NotNull CompletableFuture<T> submit(@NotNull Callable<T> operation, long timeoutMillis) {
+        return this.submit(operation, timeoutMillis, true);
+    }
+
+    /**
+     * Used to run a database operation that must not be dropped.
+     * This is not limited by the number of operations waiting
+     * and does not time out, so it should only be used for work
+     * that is already limited elsewhere, for example by the
+     * number of players joining.
+     * The future only fails if the executor has been stopped.
+     *
+     * @param operation The operation to run.
+     * @param <T>       The type of result.
+     * @return The future that completes with the result.
+     */
+    public <T> @NotNull CompletableFuture<T> submitRequired(@NotNull Callable<T> operation) {
+        return this.submit(operation, 0L, false);
+    }
+
+    private <T> @NotNull CompletableFuture<T> submit(@NotNull Callable<T> operation, long timeoutMillis, boolean limited) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+
+        // Check if too many operations are waiting.
+        if (limited && !this.permits.tryAcquire()) {
+            this.rejections.incrementAndGet();
+            future.completeExceptionally(new RejectedExecutionException(
+                    "There are already " + this.maxPending + " database operations waiting."
+            ));
+            return future;
+        }
+
+        // Used to release the permit exactly once, either when the
+        // operation stops running or when it is stopped before it starts.
+        final AtomicInteger state = new AtomicInteger(WAITING);
+
+        final Future<?> task;
+        try {
+            task = this.executor.submit(() -> {
+
+                // Check if the operation was stopped before it started.
+                if (!state.compareAndSet(WAITING, RUNNING)) return;
+
+                final long start = System.nanoTime();
+                try {
+                    if (!future.isDone()) future.complete(operation.call());
+                } catch (Throwable throwable) {
+                    future.completeExceptionally(throwable);
+                } finally {
+                    this.operationLatency.record(System.nanoTime() - start);
+                    if (limited) this.permits.release();
+                }
+            });
+
+        } catch (RejectedExecutionException exception) {
+            if (limited) this.permits.release();
+            this.rejections.incrementAndGet();
+            future.completeExceptionally(exception);
+            return future;
+        }
+
+        // Stop the operation when it times out or is cancelled.
+        if (timeoutMillis > 0) future.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+        future.whenComplete((result, throwable) -> {
+            if (throwable == null) return;
+            if (throwable instanceof TimeoutException) this.timeouts.incrementAndGet();
+
+            // If it has not started it will never run, otherwise
+            // the running operation releases the permit when it stops.
+            if (state.compareAndSet(WAITING, STOPPED) && limited) this.permits.release();
+            task.cancel(true);
+        });
+
+        return future;
+    }
+
+    /**
+     * Used to run a database operation that
+     * does not return a result.
+     *
+     * @param operation The operation to run.
+     * @return The future that completes when it has run.
+     */
+    public @NotNull CompletableFuture<Void> execute(@NotNull Runnable operation) {
+        return this.submit(() -> {
+            operation.run();
+            return null;
+        });
+    }
+
+    /**
+     * Used to get the number of operations
+     * waiting or running.
+     *
+     * @return The number of operations.
+     */
+    public int getPendingSize() {
+        return this.maxPending - this.permits.availablePermits();
+    }
+
+    /**
+     * Used to check if virtual threads are being used.
+     *
+     * @return True if virtual threads are used.
+     */
+    public boolean isVirtualThreads() {
+        return this.virtualThreads;
+    }
+
+    /**
+     * Used to get the number of operations
+     * that have timed out.
+     *
+     * @return The number of timeouts.
+     */
+    public int getTimeouts() {
+        return this.timeouts.get();
+    }
+
+    /**
+     * Used to get the number of operations that were
+     * rejected because too many were waiting.
+     *
+     * @return The number of rejections.
+     */
+    public int getRejections() {
+        return this.rejections.get();
+    }
+
+    /**
+     * Used to get the operation latency recorder.
+     * Each sample is the time taken to run one operation.
+     *
+     * @return The operation latency recorder.
+     */
+    public @NotNull LatencyRecorder getOperationLatency() {
+        return this.operationLatency;
+    }
+
+    /**
+     * Used to stop the executor.
+     * This will wait for the running operations to finish.
+     */
+    public void shutdown() {
+        this.executor.shutdown();
+
+        try {
+            if (!this.executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                this.plugin.getLogger().log(Level.WARNING,
+                        "Timed out waiting for " + this.getPendingSize() + " database operations to finish."
+                );
+                this.executor.shutdownNow();
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static @NotNull ExecutorService createPool(int threads) {
+        AtomicInteger count = new AtomicInteger();
+
+        // The permits limit the queue, so it does not need a capacity.
+        return new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "CozyDeliveries-Database-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static @Nullable ExecutorService createVirtualExecutor() {
+        try {
+            // Found with reflection as the plugin is compiled for Java 17.
+            return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+
+        } catch (ReflectiveOperationException exception) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,645 @@
+/*
+ * CozyDeliveries - An item and money delivery service for a minecraft server.
+ * Copyright (C) 2024  Smuddgge
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.cozyplugins.cozydeliveries.database;
+
+import com.github.cozyplugins.cozydeliveries.bus.DeliveryBus;
+import com.github.cozyplugins.cozydeliveries.bus.DeliveryBusMessage;
+import com.github.cozyplugins.cozydeliveries.cache.DeliveryCache;
+import com.github.cozyplugins.cozydeliveries.database.migration.SchemaMigration;
+import com.github.cozyplugins.cozydeliveries.delivery.Delivery;
+import com.github.cozyplugins.cozydeliveries.delivery.DeliveryContent;
+import com.github.cozyplugins.cozydeliveries.metric.LatencyRecorder;
+import com.github.cozyplugins.cozylibrary.user.PlayerUser;
+import com.github.smuddgge.squishydatabase.Query;
+import com.github.smuddgge.squishydatabase.interfaces.Database;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.IllegalPluginAccessException;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.stream.Collectors;
+
+/**
+ * Represents the delivery claim service.
+ * Used to give deliveries to players without
+ * blocking the main thread on the database.
+ * <p>
+ * A claim is reserved in memory first, so clicking a delivery
+ * twice only claims it once. The delivery is then reserved in
+ * the claim table with a unique token and removed from the
+ * database in the background. The content is only given on the
+ * main thread once the delivery has been removed, so it cannot
+ * be given twice on the same server.
+ * <p>
+ * The database library only has upserts and does not report
+ * how many rows a delete removed, so the claim table can not be
+ * used as an atomic lock. The token is read back to stop most claims
+ * from two servers using the same database, but two servers that
+ * reserve the same delivery at the same moment can both give it.
+ * <p>
+ * The claim keeps a copy of the delivery. If the server stops after
+ * the delivery is removed but before it is given, the claim is left
+ * behind and {@link #recoverStaleClaims()} puts the delivery back.
+ */
+public class DeliveryClaimService {
+
+    private final @NotNull Plugin plugin;
+    private final @NotNull Database database;
+    private final @NotNull DatabaseExecutor executor;
+    private final @NotNull SchemaMigration schemaMigration;
+    private final @NotNull DeliveryCache deliveryCache;
+    private final @NotNull DeliveryBus deliveryBus;
+    private final long claimTimeoutMillis;
+    private final @NotNull Set<UUID> claimSet;
+    private final @NotNull Map<UUID, Delivery> reservedDeliveryMap;
+    private final @NotNull LatencyRecorder claimLatency;
+
+    /**
+     * Represents the result of a claim.
+     */
+    public enum Result {
+
+        /**
+         * The delivery was given to the player.
+         */
+        SUCCESS,
+
+        /**
+         * The delivery is already being claimed
+         * on this server.
+         */
+        ALREADY_CLAIMING,
+
+        /**
+         * The delivery has already been claimed,
+         * possibly by another server.
+         */
+        ALREADY_CLAIMED,
+
+        /**
+         * The player did not have enough inventory space.
+         * The delivery was not removed.
+         */
+        INVENTORY_SPACE,
+
+        /**
+         * The database could not be reached or the player left.
+         * The delivery was not removed.
+         */
+        FAILED
+    }
+
+    /**
+     * Used to create a new delivery claim service.
+     *
+     * @param plugin             The instance of the plugin used to schedule tasks.
+     * @param database           The database the deliveries are stored in.
+     * @param executor           The executor used to remove the deliveries.
+     * @param schemaMigration    The migration used to move the delivery
+     *                           into the version 2 table first.
+     * @param deliveryCache      The cache to remove claimed deliveries from.
+     * @param deliveryBus        The bus used to tell other servers a delivery was claimed.
+     * @param claimTimeoutMillis The time after which an unfinished claim
+     *                           from a server that stopped can be replaced.
+     */
+    public DeliveryClaimService(@NotNull Plugin plugin,
+                                @NotNull Database database,
+                                @NotNull DatabaseExecutor executor,
+                                @NotNull SchemaMigration schemaMigration,
+                                @NotNull DeliveryCache deliveryCache,
+                                @NotNull DeliveryBus deliveryBus,
+                                long claimTimeoutMillis) {
+
+        this.plugin = plugin;
+        this.database = database;
+        this.executor = executor;
+        this.schemaMigration = schemaMigration;
+        this.deliveryCache = deliveryCache;
+        this.deliveryBus = deliveryBus;
+        this.claimTimeoutMillis = claimTimeoutMillis;
+        this.claimSet = ConcurrentHashMap.newKeySet();
+        this.reservedDeliveryMap = new ConcurrentHashMap<>();
+        this.claimLatency = new LatencyRecorder(256);
+    }
+
+    /**
+     * Used to claim a delivery for a player.
+     * This should be called on the main thread.
+     * The future is completed on the main thread
+     * after the content has been given.
+     *
+     * @param user     The user claiming the delivery.
+     * @param delivery The instance of the delivery.
+     * @return The result of the claim.
+     */
+    public @NotNull CompletableFuture<Result> claim(@NotNull PlayerUser user, @NotNull Delivery delivery) {
+        final UUID deliveryUuid = delivery.getUuid();
+
+        // Check if the delivery is already being claimed.
+        if (!this.claimSet.add(deliveryUuid)) return CompletableFuture.completedFuture(Result.ALREADY_CLAIMING);
+
+        // Check if they have inventory space before reserving it.
+        if (!delivery.hasInventorySpace(user)) {
+            this.claimSet.remove(deliveryUuid);
+            return CompletableFuture.completedFuture(Result.INVENTORY_SPACE);
+        }
+
+        final long start = System.nanoTime();
+        final UUID token = UUID.randomUUID();
+        final UUID playerUuid = user.getPlayer().getUniqueId();
+        CompletableFuture<Result> future = new CompletableFuture<>();
+
+        // Claims are not timed out, as removing the delivery
+        // must not be interrupted part way through.
+        this.executor.submit(() -> this.reserveAndTrack(delivery, token), 0L).whenComplete((reserved, throwable) -> {
+            final boolean scheduled = this.runTask(() -> {
+                final Result result = this.complete(playerUuid, delivery, throwable == null ? reserved : Result.FAILED);
+
+                this.claimSet.remove(deliveryUuid);
+                this.claimLatency.record(System.nanoTime() - start);
+                future.complete(result);
+            });
+
+            // Check if the plugin is disabling and the
+            // content can no longer be given.
+            if (scheduled) return;
+            this.restoreReserved(List.of(delivery));
+            this.claimSet.remove(deliveryUuid);
+            future.complete(Result.FAILED);
+        });
+
+        return future;
+    }
+
+    /**
+     * Used to claim as many deliveries as fit
+     * in a player's inventory at once.
+     * The inventory space is counted once and the deliveries are
+     * removed from the database in a single background task.
+     * This should be called on the main thread.
+     * The future is completed on the main thread
+     * after the content has been given.
+     *
+     * @param user         The user claiming the deliveries.
+     * @param deliveryList The deliveries to claim, in the order they should be claimed.
+     * @return The result of each delivery that was attempted, keyed by the delivery's uuid.
+     * Deliveries that did not fit are not included.
+     */
+    public @NotNull CompletableFuture<Map<UUID, Result>> claimAll(@NotNull PlayerUser user, @NotNull List<Delivery> deliveryList) {
+        int emptySlots = DeliveryContent.getEmptySlots(user);
+        List<Delivery> selectedList = new ArrayList<>();
+
+        // Pick the deliveries that fit in the inventory.
+        for (Delivery delivery : deliveryList) {
+            final int required = delivery.getDeliveryContent().getItemList().size();
+            if (required > emptySlots) continue;
+            if (!this.claimSet.add(delivery.getUuid())) continue;
+
+            emptySlots -= required;
+            selectedList.add(delivery);
+        }
+
+        if (selectedList.isEmpty()) return CompletableFuture.completedFuture(new LinkedHashMap<>());
+
+        final long start = System.nanoTime();
+        final UUID playerUuid = user.getPlayer().getUniqueId();
+        CompletableFuture<Map<UUID, Result>> future = new CompletableFuture<>();
+
+        this.executor.submit(() -> this.reserveAllAndTrack(playerUuid, selectedList), 0L).whenComplete((reserved, throwable) -> {
+            final boolean scheduled = this.runTask(() -> {
+                final Map<UUID, Result> resultMap = this.completeAll(
+                        playerUuid, selectedList, throwable == null ? reserved : new LinkedHashMap<>()
+                );
+
+                selectedList.forEach(delivery -> this.claimSet.remove(delivery.getUuid()));
+                this.claimLatency.record(System.nanoTime() - start);
+                future.complete(resultMap);
+            });
+
+            // Check if the plugin is disabling and the
+            // content can no longer be given.
+            if (scheduled) return;
+            this.restoreReserved(selectedList);
+
+            Map<UUID, Result> resultMap = new LinkedHashMap<>();
+            selectedList.forEach(delivery -> {
+                this.claimSet.remove(delivery.getUuid());
+                resultMap.put(delivery.getUuid(), Result.FAILED);
+            });
+            future.complete(resultMap);
+        });
+
+        return future;
+    }
+
+    /**
+     * Used to check if a delivery is being
+     * claimed on this server.
+     *
+     * @param deliveryUuid The delivery's uuid.
+     * @return True if it is being claimed.
+     */
+    public boolean isClaiming(@NotNull UUID deliveryUuid) {
+        return this.claimSet.contains(deliveryUuid);
+    }
+
+    /**
+     * Used to get the number of claims
+     * that have not completed yet.
+     *
+     * @return The number of claims.
+     */
+    public int getPendingSize() {
+        return this.claimSet.size();
+    }
+
+    /**
+     * Used to get the claim latency recorder.
+     * Each sample is the time from the player clicking
+     * the delivery to the content being given.
+     *
+     * @return The claim latency recorder.
+     */
+    public @NotNull LatencyRecorder getClaimLatency() {
+        return this.claimLatency;
+    }
+
+    /**
+     * Used to put back the deliveries that were removed
+     * from the database but have not been given yet.
+     * This should be called when the plugin is disabled,
+     * after the database executor has stopped, as the
+     * content can no longer be given on the main thread.
+     * Be careful as this contains database methods.
+     */
+    public void shutdown() {
+        this.restoreReserved(new ArrayList<>(this.reservedDeliveryMap.values()));
+    }
+
+    /**
+     * Used to clean up the claims that were never finished,
+     * for example because the server stopped part way through.
+     * Claims younger than the claim timeout are left alone,
+     * as another server could still be finishing them.
+     * If the delivery is still in the database the claim is removed,
+     * otherwise the copy kept with the claim is put back.
+     * Putting it back is chosen over removing it, so a delivery is
+     * never lost, although one that was given just before the server
+     * stopped may be given again.
+     * Be careful as this contains database methods.
+     */
+    public void recoverStaleClaims() {
+        final long now = System.currentTimeMillis();
+        int restored = 0;
+
+        try {
+            ClaimTable claimTable = this.database.getTable(ClaimTable.class);
+            DeliveryTable deliveryTable = this.database.getTable(DeliveryTable.class);
+
+            for (ClaimRecord claim : claimTable.getRecordList()) {
+                final UUID deliveryUuid = claim.getDeliveryUuid();
+
+                // Check if the claim could still be in progress.
+                if (now - claim.getTimeStampMillis() < this.claimTimeoutMillis) continue;
+                if (this.claimSet.contains(deliveryUuid)) continue;
+
+                // Check if the delivery was removed and not given.
+                DeliveryRecord record = claim.getDeliveryRecord();
+                if (record != null && deliveryTable.getFirstRecord(new Query().match("uuid", deliveryUuid.toString())) == null) {
+                    deliveryTable.insertRecord(record);
+                    this.deliveryCache.addRecord(record);
+                    restored++;
+                }
+
+                claimTable.removeClaimRecord(deliveryUuid);
+            }
+
+        } catch (Exception exception) {
+            this.plugin.getLogger().log(Level.WARNING, "Failed to recover the unfinished claims.", exception);
+        }
+
+        if (restored > 0) {
+            this.plugin.getLogger().log(Level.INFO, "Restored " + restored + " deliveries from unfinished claims.");
+        }
+    }
+
+    private boolean runTask(@NotNull Runnable task) {
+
+        // Tasks can not be scheduled while the plugin is disabling.
+        if (!this.plugin.isEnabled()) return false;
+
+        try {
+            Bukkit.getScheduler().runTask(this.plugin, task);
+            return true;
+        } catch (IllegalPluginAccessException exception) {
+            return false;
+        }
+    }
+
+    private @NotNull Result reserveAndTrack(@NotNull Delivery delivery, @NotNull UUID token) {
+        final Result result = this.reserve(delivery, token);
+        if (result == Result.SUCCESS) this.reservedDeliveryMap.put(delivery.getUuid(), delivery);
+        return result;
+    }
+
+    private @NotNull Map<UUID, Result> reserveAllAndTrack(@NotNull UUID playerUuid, @NotNull List<Delivery> deliveryList) {
+        final Map<UUID, Result> resultMap = this.reserveAll(playerUuid, deliveryList);
+        for (Delivery delivery : deliveryList) {
+            if (resultMap.get(delivery.getUuid()) == Result.SUCCESS) this.reservedDeliveryMap.put(delivery.getUuid(), delivery);
+        }
+        return resultMap;
+    }
+
+    /**
+     * Used to take a reserved delivery so it can be given.
+     * Only one caller can take it, so a delivery that was
+     * put back while disabling is not also given.
+     *
+     * @param delivery The instance of the delivery.
+     * @return True if the delivery was taken.
+     */
+    private boolean takeReserved(@NotNull Delivery delivery) {
+        return this.reservedDeliveryMap.remove(delivery.getUuid()) != null;
+    }
+
+    private void restoreReserved(@NotNull List<Delivery> deliveryList) {
+        for (Delivery delivery : deliveryList) {
+            if (this.takeReserved(delivery)) this.restore(delivery);
+        }
+    }
+
+    /**
+     * Used to reserve and remove a delivery from the database.
+     * Be careful as this contains database methods.
+     *
+     * @param delivery The instance of the delivery.
+     * @param token    The claim's unique token.
+     * @return {@link Result#SUCCESS} if the delivery was removed
+     * and can be given to the player.
+     */
+    private @NotNull Result reserve(@NotNull Delivery delivery, @NotNull UUID token) {
+        return this.reserve(delivery, token, null);
+    }
+
+    /**
+     * Used to reserve and remove a delivery from the database.
+     * Be careful as this contains database methods.
+     *
+     * @param delivery  The instance of the delivery.
+     * @param token     The claim's unique token.
+     * @param storedSet The uuids of the player's deliveries in the database,
+     *                  or null to check this delivery on its own.
+     * @return {@link Result#SUCCESS} if the delivery was removed
+     * and can be given to the player.
+     */
+    private @NotNull Result reserve(@NotNull Delivery delivery, @NotNull UUID token, @Nullable Set<String> storedSet) {
+        final UUID deliveryUuid = delivery.getUuid();
+
+        try {
+            ClaimTable claimTable = this.database.getTable(ClaimTable.class);
+            final long now = System.currentTimeMillis();
+
+            // Check if another claim is still in progress.
+            Optional<ClaimRecord> existing = claimTable.getClaimRecord(deliveryUuid);
+            if (existing.isPresent() && now - existing.get().getTimeStampMillis() < this.claimTimeoutMillis) {
+                return Result.ALREADY_CLAIMED;
+            }
+
+            // Reserve the delivery and check this claim
+            // was not replaced by another server.
+            // This is not atomic, as the library only has upserts.
+            claimTable.insertRecord(new ClaimRecord(deliveryUuid, token, now, new DeliveryRecord(delivery)));
+            Optional<ClaimRecord> reserved = claimTable.getClaimRecord(deliveryUuid);
+            if (reserved.isEmpty() || !reserved.get().getToken().equals(token)) return Result.ALREADY_CLAIMED;
+
+            // Check the delivery has not already been removed.
+            DeliveryTable deliveryTable = this.database.getTable(DeliveryTable.class);
+            Query query = new Query().match("uuid", deliveryUuid.toString());
+
+            final boolean stored;
+            if (storedSet != null) {
+                stored = storedSet.contains(deliveryUuid.toString());
+            } else {
+                this.schemaMigration.migrateDelivery(deliveryUuid);
+                stored = deliveryTable.getFirstRecord(query) != null;
+            }
+
+            // If it replaced an unfinished claim, the delivery may have been
+            // removed and never given, so the claim is left to be recovered.
+            if (!stored) {
+                if (existing.isEmpty()) claimTable.removeClaimRecord(deliveryUuid);
+                return Result.ALREADY_CLAIMED;
+            }
+
+            if (!deliveryTable.removeAllRecords(query)) {
+                claimTable.removeClaimRecord(deliveryUuid);
+                return Result.FAILED;
+            }
+
+            return Result.SUCCESS;
+
+        } catch (Exception exception) {
+            this.plugin.getLogger().log(Level.WARNING, "Failed to claim delivery " + deliveryUuid, exception);
+            return Result.FAILED;
+        }
+    }
+
+    /**
+     * Used to give the delivery once it has been reserved.
+     * If it can no longer be given it is put back
+     * into the database.
+     *
+     * @param playerUuid The uuid of the player claiming the delivery.
+     * @param delivery   The instance of the delivery.
+     * @param reserved   The result of reserving the delivery.
+     * @return The result of the claim.
+     */
+    private @NotNull Result complete(@NotNull UUID playerUuid, @NotNull Delivery delivery, @NotNull Result reserved) {
+
+        // Check if the delivery was claimed somewhere else.
+        if (reserved == Result.ALREADY_CLAIMED) {
+            this.deliveryCache.removeDelivery(delivery);
+            return reserved;
+        }
+
+        if (reserved != Result.SUCCESS) return reserved;
+
+        // Check if the delivery was put back while disabling.
+        if (!this.takeReserved(delivery)) return Result.FAILED;
+
+        // Check if the player is still online.
+        Player player = Bukkit.getPlayer(playerUuid);
+        if (player == null) {
+            this.restoreAsync(delivery);
+            return Result.FAILED;
+        }
+
+        // Give the content to the player.
+        if (!delivery.getDeliveryContent().give(new PlayerUser(player))) {
+            this.restoreAsync(delivery);
+            return Result.INVENTORY_SPACE;
+        }
+
+        this.deliveryCache.removeDelivery(delivery);
+        this.publishClaim(delivery);
+        Bukkit.getScheduler().runTaskAsynchronously(this.plugin, () -> this.release(delivery.getUuid()));
+        return Result.SUCCESS;
+    }
+
+    /**
+     * Used to reserve and remove many deliveries
+     * sent to the same player.
+     * The player's deliveries are read once instead
+     * of checking each delivery on its own.
+     * Be careful as this contains database methods.
+     *
+     * @param playerUuid   The player the deliveries were sent to.
+     * @param deliveryList The deliveries to reserve.
+     * @return The result of reserving each delivery.
+     */
+    private @NotNull Map<UUID, Result> reserveAll(@NotNull UUID playerUuid, @NotNull List<Delivery> deliveryList) {
+        Map<UUID, Result> resultMap = new LinkedHashMap<>();
+        final UUID token = UUID.randomUUID();
+
+        Set<String> storedSet;
+        try {
+            this.schemaMigration.migratePlayer(playerUuid);
+            storedSet = this.database.getTable(DeliveryTable.class)
+                    .getRecordList(new Query().match("toPlayerUuid", playerUuid.toString()))
+                    .stream().map(record -> record.uuid)
+                    .collect(Collectors.toSet());
+
+        } catch (Exception exception) {
+            this.plugin.getLogger().log(Level.WARNING, "Failed to claim the deliveries for " + playerUuid, exception);
+            deliveryList.forEach(delivery -> resultMap.put(delivery.getUuid(), Result.FAILED));
+            return resultMap;
+        }
+
+        for (Delivery delivery : deliveryList) {
+            resultMap.put(delivery.getUuid(), this.reserve(delivery, token, storedSet));
+        }
+
+        return resultMap;
+    }
+
+    /**
+     * Used to give the deliveries once they have been reserved.
+     * The content is given in one pass.
+     * If the player has left, or the inventory changed and
+     * a delivery no longer fits, it is put back into the database.
+     *
+     * @param playerUuid   The uuid of the player claiming the deliveries.
+     * @param deliveryList The deliveries that were reserved.
+     * @param reservedMap  The result of reserving each delivery.
+     * @return The result of each claim.
+     */
+    private @NotNull Map<UUID, Result> completeAll(@NotNull UUID playerUuid,
+                                                   @NotNull List<Delivery> deliveryList,
+                                                   @NotNull Map<UUID, Result> reservedMap) {
+
+        Map<UUID, Result> resultMap = new LinkedHashMap<>();
+        List<Delivery> reservedList = new ArrayList<>();
+
+        for (Delivery delivery : deliveryList) {
+            final Result reserved = reservedMap.getOrDefault(delivery.getUuid(), Result.FAILED);
+            resultMap.put(delivery.getUuid(), reserved);
+            if (reserved == Result.ALREADY_CLAIMED) this.deliveryCache.removeDelivery(delivery);
+            if (reserved != Result.SUCCESS) continue;
+
+            // Check if the delivery was put back while disabling.
+            if (this.takeReserved(delivery)) reservedList.add(delivery);
+            else resultMap.put(delivery.getUuid(), Result.FAILED);
+        }
+
+        if (reservedList.isEmpty()) return resultMap;
+
+        // Check if the player is still online.
+        Player player = Bukkit.getPlayer(playerUuid);
+        if (player == null) {
+            reservedList.forEach(delivery -> {
+                this.restoreAsync(delivery);
+                resultMap.put(delivery.getUuid(), Result.FAILED);
+            });
+            return resultMap;
+        }
+
+        // Count the space again, as the inventory
+        // could have changed while reserving.
+        final PlayerUser user = new PlayerUser(player);
+        int emptySlots = DeliveryContent.getEmptySlots(user);
+        List<Delivery> giveList = new ArrayList<>();
+
+        for (Delivery delivery : reservedList) {
+            final int required = delivery.getDeliveryContent().getItemList().size();
+            if (required > emptySlots) {
+                this.restoreAsync(delivery);
+                resultMap.put(delivery.getUuid(), Result.INVENTORY_SPACE);
+                continue;
+            }
+
+            emptySlots -= required;
+            giveList.add(delivery);
+        }
+
+        if (giveList.isEmpty()) return resultMap;
+
+        // Give the content to the player in one pass.
+        DeliveryContent.giveAll(user, giveList.stream().map(Delivery::getDeliveryContent).toList());
+        giveList.forEach(this.deliveryCache::removeDelivery);
+        giveList.forEach(this::publishClaim);
+
+        Bukkit.getScheduler().runTaskAsynchronously(this.plugin, () -> giveList.forEach(
+                delivery -> this.release(delivery.getUuid())
+        ));
+
+        return resultMap;
+    }
+
+    private void publishClaim(@NotNull Delivery delivery) {
+        this.deliveryBus.publish(
+                DeliveryBusMessage.Type.CLAIM, delivery.getToPlayerUuid(), delivery.getUuid(), delivery.getFromName()
+        );
+    }
+
+    private void restoreAsync(@NotNull Delivery delivery) {
+        Bukkit.getScheduler().runTaskAsynchronously(this.plugin, () -> this.restore(delivery));
+    }
+
+    private void restore(@NotNull Delivery delivery) {
+        try {
+            this.database.getTable(DeliveryTable.class).insertRecord(new DeliveryRecord(delivery));
+        } catch (Exception exception) {
+            this.plugin.getLogger().log(Level.WARNING, "Failed to restore delivery " + delivery.getUuid(), exception);
+        }
+        this.release(delivery.getUuid());
+    }
+
+    private void release(@NotNull UUID deliveryUuid) {
+        try {
+            this.database.getTable(ClaimTable.class).removeClaimRecord(deliveryUuid);
+        } catch (Exception exception) {
+            this.plugin.getLogger().log(Level.WARNING, "Failed to release the claim for delivery " + deliveryUuid, exception);
+        }
+    }
+}
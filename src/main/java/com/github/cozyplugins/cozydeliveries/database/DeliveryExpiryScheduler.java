@@ -0,0 +1,241 @@
+/*
+ * CozyDeliveries - An item and money delivery service for a minecraft server.
+ * Copyright (C) 2024  Smuddgge
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.github.cozyplugins.cozydeliveries.database;
+
+import com.github.cozyplugins.cozydeliveries.bus.DeliveryBus;
+import com.github.cozyplugins.cozydeliveries.bus.DeliveryBusMessage;
+import com.github.cozyplugins.cozydeliveries.cache.DeliveryCache;
+import com.github.cozyplugins.cozydeliveries.delivery.Delivery;
+import com.github.smuddgge.squishydatabase.Query;
+import com.github.smuddgge.squishydatabase.interfaces.Database;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.logging.Level;
+
+/**
+ * Represents the delivery expiry scheduler.
+ * Keeps the deliveries that will expire ordered by
+ * their expire time stamp and removes them from the
+ * database in the background when they are due.
+ * Each delivery is only scheduled once, so loading
+ * the deliveries again does not queue duplicates.
+ * If a delivery fails to be removed it is tried again
+ * later, waiting twice as long after each failure.
+ */
+public class DeliveryExpiryScheduler {
+
+    private static final long RETRY_DELAY_MILLIS = 5000L;
+    private static final long MAX_RETRY_DELAY_MILLIS = 600000L;
+
+    private final @NotNull Plugin plugin;
+    private final @NotNull Database database;
+    private final @NotNull DeliveryCache deliveryCache;
+    private final @NotNull DeliveryBus deliveryBus;
+    private final @NotNull PriorityQueue<Entry> queue;
+    private final @NotNull Set<UUID> scheduledSet;
+    private @Nullable BukkitTask task;
+
+    /**
+     * Represents a delivery that will expire.
+     * The due time stamp is the expire time stamp,
+     * or the time of the next attempt after a failure.
+     */
+    private static class Entry {
+
+        private final long timeStampDue;
+        private final @NotNull UUID deliveryUuid;
+        private final @NotNull UUID toPlayerUuid;
+        private final int failures;
+
+        private Entry(long timeStampDue, @NotNull UUID deliveryUuid, @NotNull UUID toPlayerUuid, int failures) {
+            this.timeStampDue = timeStampDue;
+            this.deliveryUuid = deliveryUuid;
+            this.toPlayerUuid = toPlayerUuid;
+            this.failures = failures;
+        }
+
+        private @NotNull Entry retry(long now) {
+            final long delay = Math.min(MAX_RETRY_DELAY_MILLIS, RETRY_DELAY_MILLIS << Math.min(this.failures, 16));
+            return new Entry(now + delay, this.deliveryUuid, this.toPlayerUuid, this.failures + 1);
+        }
+    }
+
+    /**
+     * Used to create a new delivery expiry scheduler.
+     *
+     * @param plugin        The instance of the plugin used to schedule tasks.
+     * @param database      The database to remove the deliveries from.
+     * @param deliveryCache The cache to remove the deliveries from.
+     * @param deliveryBus   The bus used to tell other servers a delivery expired.
+     */
+    public DeliveryExpiryScheduler(@NotNull Plugin plugin,
+                                   @NotNull Database database,
+                                   @NotNull DeliveryCache deliveryCache,
+                                   @NotNull DeliveryBus deliveryBus) {
+
+        this.plugin = plugin;
+        this.database = database;
+        this.deliveryCache = deliveryCache;
+        this.deliveryBus = deliveryBus;
+        this.queue = new PriorityQueue<>(Comparator.comparingLong(entry -> entry.timeStampDue));
+        this.scheduledSet = new HashSet<>();
+    }
+
+    /**
+     * Used to start the scheduler.
+     * The due deliveries are removed every interval.
+     *
+     * @param intervalSeconds The number of seconds between checks.
+     */
+    public void start(int intervalSeconds) {
+        final long intervalTicks = Math.max(1, intervalSeconds) * 20L;
+
+        this.task = Bukkit.getScheduler().runTaskTimerAsynchronously(
+                this.plugin, this::purgeExpired, intervalTicks, intervalTicks
+        );
+    }
+
+    /**
+     * Used to stop the scheduler.
+     */
+    public void stop() {
+        if (this.task != null) this.task.cancel();
+        this.task = null;
+    }
+
+    /**
+     * Used to add a delivery to the scheduler.
+     * If the delivery does not expire it is ignored.
+     *
+     * @param delivery The instance of the delivery.
+     */
+    public void schedule(@NotNull Delivery delivery) {
+        this.schedule(delivery.getTimeStampExpire(), delivery.getUuid(), delivery.getToPlayerUuid());
+    }
+
+    /**
+     * Used to add a delivery to the scheduler.
+     * If the delivery does not expire or is
+     * already scheduled it is ignored.
+     *
+     * @param timeStampExpire The time stamp the delivery expires, or -1.
+     * @param deliveryUuid    The delivery's uuid.
+     * @param toPlayerUuid    The player the delivery was sent to.
+     */
+    public void schedule(long timeStampExpire, @NotNull UUID deliveryUuid, @NotNull UUID toPlayerUuid) {
+        if (timeStampExpire <= -1L) return;
+
+        synchronized (this.queue) {
+            if (!this.scheduledSet.add(deliveryUuid)) return;
+            this.queue.add(new Entry(timeStampExpire, deliveryUuid, toPlayerUuid, 0));
+        }
+    }
+
+    /**
+     * Used to get the number of deliveries
+     * waiting to expire.
+     *
+     * @return The number of deliveries.
+     */
+    public int getSize() {
+        synchronized (this.queue) {
+            return this.queue.size();
+        }
+    }
+
+    /**
+     * Used to load the deliveries that will
+     * expire from the database.
+     * The expire column is used so the deliveries
+     * do not need to be converted.
+     * Be careful as this contains database methods.
+     */
+    public void loadAll() {
+        try {
+            for (DeliveryRecord record : this.database.getTable(DeliveryTable.class).getRecordList()) {
+                this.schedule(record.getExpireAt(), record.getUuid(), record.getToPlayerUuid());
+            }
+        } catch (Exception exception) {
+            this.plugin.getLogger().log(Level.WARNING, "Failed to load the deliveries that will expire.", exception);
+        }
+    }
+
+    /**
+     * Used to remove the deliveries that are due
+     * from the database and cache.
+     * The deliveries that fail to be removed are
+     * scheduled again with a growing delay.
+     * Be careful as this contains database methods.
+     */
+    public void purgeExpired() {
+        final long now = System.currentTimeMillis();
+        List<Entry> dueList = new ArrayList<>();
+
+        // Take every delivery that is due.
+        synchronized (this.queue) {
+            while (!this.queue.isEmpty() && this.queue.peek().timeStampDue < now) {
+                Entry entry = this.queue.poll();
+                this.scheduledSet.remove(entry.deliveryUuid);
+                dueList.add(entry);
+            }
+        }
+
+        if (dueList.isEmpty()) return;
+
+        // The database library has no range delete, so the
+        // due deliveries are removed one by one by their uuid.
+        DeliveryTable table = this.database.getTable(DeliveryTable.class);
+        for (Entry entry : dueList) {
+            try {
+                table.removeAllRecords(new Query().match("uuid", entry.deliveryUuid.toString()));
+
+            } catch (Exception exception) {
+                final long failedAt = System.currentTimeMillis();
+                Entry retry = entry.retry(failedAt);
+                this.plugin.getLogger().log(Level.WARNING, "Failed to remove expired delivery " + entry.deliveryUuid
+                        + ", trying again in " + (retry.timeStampDue - failedAt) / 1000L + " seconds.", exception);
+                this.reschedule(retry);
+                continue;
+            }
+
+            this.deliveryCache.removeDelivery(entry.toPlayerUuid, entry.deliveryUuid);
+            this.deliveryBus.publish(DeliveryBusMessage.Type.EXPIRE, entry.toPlayerUuid, entry.deliveryUuid, null);
+        }
+    }
+
+    private void reschedule(@NotNull Entry entry) {
+        synchronized (this.queue) {
+
+            // Check if it was scheduled again while removing.
+            if (!this.scheduledSet.add(entry.deliveryUuid)) return;
+            this.queue.add(entry);
+        }
+    }
+}
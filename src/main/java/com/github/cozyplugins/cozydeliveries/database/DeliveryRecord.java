@@ -19,6 +19,7 @@
 package com.github.cozyplugins.cozydeliveries.database;
 
 import com.github.cozyplugins.cozydeliveries.delivery.Delivery;
+import com.github.cozyplugins.cozydeliveries.delivery.DeliveryCodec;
 import com.github.smuddgge.squishyconfiguration.memory.MemoryConfigurationSection;
 import com.github.smuddgge.squishydatabase.record.Field;
 import com.github.smuddgge.squishydatabase.record.Record;
@@ -33,6 +34,12 @@ import java.util.UUID;
  * Represents the delivery record.
  * Contains records of deliveries that have
  * not been opened.
+ * <p>
+ * Schema version 2 adds the {@link #expireAt} column
+ * so the expiry time can be read without converting
+ * the delivery.
+ * Numbers are stored as decimal strings as the
+ * database library only maps string fields.
  */
 public class DeliveryRecord extends Record {
 
@@ -41,6 +48,7 @@ public class DeliveryRecord extends Record {
 
     public @NotNull String toPlayerUuid;
     public @NotNull String timeStampMillis;
+    public @NotNull String expireAt;
     public @NotNull String delivery;
 
     public DeliveryRecord() {
@@ -52,20 +60,87 @@ public class DeliveryRecord extends Record {
      * @param delivery The instance of the delivery.
      */
     public DeliveryRecord(@NotNull Delivery delivery) {
-        this.uuid = UUID.randomUUID().toString();
-        this.toPlayerUuid = delivery.getToPlayerUuid().toString();
-        this.timeStampMillis = Long.toString(delivery.getTimeStampMillis());
-        this.delivery = new Gson().toJson(delivery.convert().getMap());
+        this.setDelivery(delivery);
+    }
+
+    /**
+     * Used to create a new delivery record from
+     * an already serialized delivery.
+     *
+     * @param uuid            The delivery's uuid.
+     * @param toPlayerUuid    The player the delivery was sent to.
+     * @param timeStampMillis The time stamp it was sent.
+     * @param expireAt        The time stamp it will expire, or -1.
+     * @param delivery        The serialized delivery.
+     */
+    public DeliveryRecord(@NotNull UUID uuid, @NotNull UUID toPlayerUuid, long timeStampMillis, long expireAt, @NotNull String delivery) {
+        this.uuid = uuid.toString();
+        this.toPlayerUuid = toPlayerUuid.toString();
+        this.timeStampMillis = Long.toString(timeStampMillis);
+        this.expireAt = Long.toString(expireAt);
+        this.delivery = delivery;
+    }
+
+    /**
+     * Used to get the delivery's uuid.
+     *
+     * @return The delivery's uuid.
+     */
+    public @NotNull UUID getUuid() {
+        return UUID.fromString(this.uuid);
+    }
+
+    /**
+     * Used to get the player's uuid the
+     * delivery was sent to.
+     *
+     * @return The player's uuid.
+     */
+    public @NotNull UUID getToPlayerUuid() {
+        return UUID.fromString(this.toPlayerUuid);
+    }
+
+    /**
+     * Used to get the time stamp the
+     * delivery will expire.
+     *
+     * @return The expire time stamp.
+     * -1 if the delivery does not expire.
+     */
+    public long getExpireAt() {
+        return Long.parseLong(this.expireAt);
+    }
+
+    /**
+     * Used to read the header of the delivery
+     * without converting the content and items.
+     * This works for deliveries stored as json too.
+     *
+     * @return The delivery's header.
+     */
+    public @NotNull DeliveryCodec.Header getHeader() {
+        if (DeliveryCodec.isEncoded(this.delivery)) return DeliveryCodec.decodeHeader(this.delivery);
+
+        // Otherwise it is a json delivery.
+        return DeliveryCodec.decodeJsonHeader(this.delivery);
     }
 
     /**
      * Used to convert and get the instance of the delivery.
      * Try not to call this method too many times as it
-     * uses gson to convert the json string into the class instance.
+     * converts every item in the delivery.
+     * Deliveries written before the binary codec
+     * are converted from json.
      *
      * @return The instance.
      */
     public @NotNull Delivery getDelivery() {
+
+        // Check if the delivery was encoded with the binary codec.
+        if (DeliveryCodec.isEncoded(this.delivery)) {
+            return DeliveryCodec.decode(this.delivery, UUID.fromString(this.uuid), Long.parseLong(this.timeStampMillis));
+        }
+
         return new Delivery(UUID.fromString(this.toPlayerUuid), Long.parseLong(this.timeStampMillis)).convert(
                 new MemoryConfigurationSection(
                         new Gson().fromJson(this.delivery, LinkedHashMap.class)
@@ -86,7 +161,8 @@ public class DeliveryRecord extends Record {
         this.uuid = delivery.getUuid().toString();
         this.toPlayerUuid = delivery.getToPlayerUuid().toString();
         this.timeStampMillis = Long.toString(delivery.getTimeStampMillis());
-        this.delivery = new Gson().toJson(delivery.convert().getMap());
+        this.expireAt = Long.toString(delivery.getTimeStampExpire());
+        this.delivery = DeliveryCodec.encode(delivery);
         return this;
     }
 }
@@ -0,0 +1,75 @@
+/*
+ * CozyDeliveries - An item and money delivery service for a minecraft server.
+ * Copyright (C) 2024  Smuddgge
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.github.cozyplugins.cozydeliveries.database;
+
+import com.github.cozyplugins.cozydeliveries.delivery.DeliveryCodec;
+import com.github.cozyplugins.cozydeliveries.delivery.DeliveryContent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.UUID;
+
+/**
+ * Represents a delivery record template.
+ * Used to create the same delivery for many players.
+ * The content is encoded once and only the
+ * header is encoded for each record.
+ */
+public class DeliveryRecordTemplate {
+
+    private final @Nullable String fromName;
+    private final long timeStampMillis;
+    private final long timeStampExpire;
+    private final @NotNull byte[] content;
+
+    /**
+     * Used to create a new delivery record template.
+     *
+     * @param fromName        The name of the sender.
+     * @param content         The content to send.
+     * @param timeStampMillis The time stamp the deliveries are sent.
+     * @param timeStampExpire The time stamp the deliveries expire, or -1.
+     */
+    public DeliveryRecordTemplate(@Nullable String fromName,
+                                  @NotNull DeliveryContent content,
+                                  long timeStampMillis,
+                                  long timeStampExpire) {
+
+        this.fromName = fromName;
+        this.timeStampMillis = timeStampMillis;
+        this.timeStampExpire = timeStampExpire;
+        this.content = DeliveryCodec.encodeContent(content);
+    }
+
+    /**
+     * Used to create a delivery record for a player.
+     *
+     * @param toPlayerUuid The player the delivery is sent to.
+     * @return A new delivery record.
+     */
+    public @NotNull DeliveryRecord create(@NotNull UUID toPlayerUuid) {
+        return new DeliveryRecord(
+                UUID.randomUUID(),
+                toPlayerUuid,
+                this.timeStampMillis,
+                this.timeStampExpire,
+                DeliveryCodec.encode(toPlayerUuid, this.fromName, this.timeStampExpire, this.content)
+        );
+    }
+}
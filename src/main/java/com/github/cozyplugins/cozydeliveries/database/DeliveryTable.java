@@ -24,11 +24,13 @@ import org.jetbrains.annotations.NotNull;
 /**
  * Represents the delivery table in the database.
  * Contains records of deliveries that have not been opened.
+ * Version 1 rows are moved into this table by the
+ * {@link com.github.cozyplugins.cozydeliveries.database.migration.SchemaMigration}.
  */
 public class DeliveryTable extends TableAdapter<DeliveryRecord> {
 
     @Override
     public @NotNull String getName() {
-        return "delivery";
+        return "delivery_v2";
     }
 }
@@ -0,0 +1,240 @@
+/*
+ * CozyDeliveries - An item and money delivery service for a minecraft server.
+ * Copyright (C) 2024  Smuddgge
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.github.cozyplugins.cozydeliveries.database;
+
+import com.github.cozyplugins.cozydeliveries.CozyDeliveries;
+import com.github.cozyplugins.cozydeliveries.metric.LatencyRecorder;
+import com.github.smuddgge.squishydatabase.interfaces.Database;
+import org.bukkit.Bukkit;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.logging.Level;
+
+/**
+ * Represents the write behind queue for deliveries.
+ * Delivery records are queued and written to the database
+ * on a dedicated writer thread in batches.
+ * The deliveries each player receives are counted
+ * with the player statistics accumulator.
+ */
+public class DeliveryWriteQueue {
+
+    /**
+     * The time a thread other than the main thread
+     * waits for space when the queue is full.
+     */
+    private static final long FULL_TIMEOUT_MILLIS = 5000L;
+
+    /**
+     * The time waited for space each time the lock is held,
+     * so shutting down is not held up for long.
+     */
+    private static final long OFFER_STEP_MILLIS = 50L;
+
+    private final @NotNull Database database;
+    private final @NotNull PlayerStatistics playerStatistics;
+    private final @NotNull BlockingQueue<Entry> queue;
+    private final @NotNull ExecutorService executor;
+    private final @NotNull LatencyRecorder flushLatency;
+    private final int batchSize;
+    private volatile boolean running;
+
+    /**
+     * Represents a delivery record waiting
+     * to be written to the database.
+     */
+    private static class Entry {
+
+        private final @NotNull DeliveryRecord record;
+        private final @NotNull CompletableFuture<Boolean> future;
+
+        private Entry(@NotNull DeliveryRecord record) {
+            this.record = record;
+            this.future = new CompletableFuture<>();
+        }
+    }
+
+    /**
+     * Used to create a new delivery write queue.
+     * The writer thread is started straight away.
+     *
+     * @param database         The instance of the database to write to.
+     * @param playerStatistics The accumulator used to count received deliveries.
+     * @param capacity         The maximum number of records that can be queued.
+     * @param batchSize        The maximum number of records written in one batch.
+     */
+    public DeliveryWriteQueue(@NotNull Database database, @NotNull PlayerStatistics playerStatistics, int capacity, int batchSize) {
+        this.database = database;
+        this.playerStatistics = playerStatistics;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "CozyDeliveries-Writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.flushLatency = new LatencyRecorder(256);
+        this.batchSize = Math.max(1, batchSize);
+        this.running = true;
+
+        this.executor.execute(this::run);
+    }
+
+    /**
+     * Used to queue a delivery record to be written
+     * to the database.
+     * If the queue is full the calling thread waits for space,
+     * unless it is the main thread. On the main thread, or if
+     * there is still no space after a few seconds, the record
+     * is not written so the server is not held up.
+     * Records submitted after the queue has started
+     * shutting down are not written.
+     *
+     * @param record The instance of the record.
+     * @return The future that completes with true
+     * when the record has been written, or false
+     * if it could not be written.
+     */
+    public @NotNull CompletableFuture<Boolean> submit(@NotNull DeliveryRecord record) {
+        Entry entry = new Entry(record);
+
+        final boolean primaryThread = Bukkit.isPrimaryThread();
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(FULL_TIMEOUT_MILLIS);
+
+        try {
+            while (true) {
+
+                // Checking and queuing is locked with shutting down,
+                // so an entry can not be queued after the last drain.
+                synchronized (this) {
+                    if (!this.running) return CompletableFuture.completedFuture(false);
+                    if (this.queue.offer(entry, primaryThread ? 0L : OFFER_STEP_MILLIS, TimeUnit.MILLISECONDS)) {
+                        return entry.future;
+                    }
+                }
+
+                // Check if the caller can not wait any longer.
+                if (primaryThread || System.nanoTime() >= deadline) break;
+            }
+
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+
+        CozyDeliveries.getPlugin().getLogger().log(Level.WARNING,
+                "The delivery write queue is full, delivery " + record.uuid + " was not written."
+        );
+        return CompletableFuture.completedFuture(false);
+    }
+
+    /**
+     * Used to get the number of records
+     * waiting to be written.
+     *
+     * @return The queue depth.
+     */
+    public int getQueueSize() {
+        return this.queue.size();
+    }
+
+    /**
+     * Used to get the flush latency recorder.
+     * Each sample is the time taken to write one batch.
+     *
+     * @return The flush latency recorder.
+     */
+    public @NotNull LatencyRecorder getFlushLatency() {
+        return this.flushLatency;
+    }
+
+    /**
+     * Used to stop the writer thread.
+     * This will wait for the remaining records
+     * in the queue to be written. The records still
+     * waiting after the timeout complete with false.
+     */
+    public void shutdown() {
+        synchronized (this) {
+            this.running = false;
+        }
+        this.executor.shutdown();
+
+        try {
+            if (!this.executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                CozyDeliveries.getPlugin().getLogger().log(Level.WARNING,
+                        "Timed out waiting for the delivery write queue to drain. "
+                                + this.queue.size() + " deliveries were not written."
+                );
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Let the callers know the remaining records were not written.
+        List<Entry> remaining = new ArrayList<>();
+        this.queue.drainTo(remaining);
+        remaining.forEach(entry -> entry.future.complete(false));
+    }
+
+    private void run() {
+        List<Entry> batch = new ArrayList<>(this.batchSize);
+
+        while (this.running || !this.queue.isEmpty()) {
+            try {
+                Entry first = this.queue.poll(250, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+
+                batch.add(first);
+                this.queue.drainTo(batch, this.batchSize - 1);
+                this.flush(batch);
+
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                return;
+
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(@NotNull List<Entry> batch) {
+        final long start = System.nanoTime();
+
+        // Write the delivery records.
+        DeliveryTable deliveryTable = this.database.getTable(DeliveryTable.class);
+        for (Entry entry : batch) {
+            try {
+                deliveryTable.insertRecord(entry.record);
+                this.playerStatistics.incrementReceived(entry.record.getToPlayerUuid(), 1);
+                entry.future.complete(true);
+
+            } catch (Exception exception) {
+                CozyDeliveries.getPlugin().getLogger().log(Level.WARNING,
+                        "Failed to write delivery " + entry.record.uuid, exception
+                );
+                entry.future.complete(false);
+            }
+        }
+
+        this.flushLatency.record(System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * CozyDeliveries - An item and money delivery service for a minecraft server.
+ * Copyright (C) 2024  Smuddgge
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.cozyplugins.cozydeliveries.database;
+
+import com.github.smuddgge.squishydatabase.interfaces.Database;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+/**
+ * Represents the player statistics accumulator.
+ * Used to count the deliveries sent and received
+ * in memory and write them to the player table
+ * in the background every interval.
+ * <p>
+ * Counting does not read the database, and each
+ * player's record is only updated once per flush.
+ */
+public class PlayerStatistics {
+
+    private final @NotNull Plugin plugin;
+    private final @NotNull Database database;
+    private final @NotNull ConcurrentHashMap<UUID, Counts> pendingMap;
+    private @Nullable BukkitTask task;
+
+    /**
+     * Represents the counts waiting to be written.
+     * The instances are immutable, so they can be
+     * merged atomically in the pending map.
+     */
+    private static class Counts {
+
+        private final int sent;
+        private final int received;
+
+        private Counts(int sent, int received) {
+            this.sent = sent;
+            this.received = received;
+        }
+
+        private @NotNull Counts add(@NotNull Counts counts) {
+            return new Counts(this.sent + counts.sent, this.received + counts.received);
+        }
+    }
+
+    /**
+     * Used to create a new player statistics accumulator.
+     *
+     * @param plugin   The instance of the plugin used to schedule tasks.
+     * @param database The database containing the player table.
+     */
+    public PlayerStatistics(@NotNull Plugin plugin, @NotNull Database database) {
+        this.plugin = plugin;
+        this.database = database;
+        this.pendingMap = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Used to start writing the counts
+     * to the database every interval.
+     *
+     * @param intervalSeconds The number of seconds between writes.
+     */
+    public void start(int intervalSeconds) {
+        final long intervalTicks = Math.max(1, intervalSeconds) * 20L;
+
+        this.task = Bukkit.getScheduler().runTaskTimerAsynchronously(
+                this.plugin, this::flush, intervalTicks, intervalTicks
+        );
+    }
+
+    /**
+     * Used to stop the background writes and
+     * write the remaining counts.
+     * Be careful as this contains database methods.
+     */
+    public void stop() {
+        if (this.task != null) this.task.cancel();
+        this.task = null;
+        this.flush();
+    }
+
+    /**
+     * Used to count deliveries sent by a player.
+     *
+     * @param playerUuid The player's uuid.
+     * @param amount     The number of deliveries.
+     */
+    public void incrementSent(@NotNull UUID playerUuid, int amount) {
+        this.pendingMap.merge(playerUuid, new Counts(amount, 0), Counts::add);
+    }
+
+    /**
+     * Used to count deliveries received by a player.
+     *
+     * @param playerUuid The player's uuid.
+     * @param amount     The number of deliveries.
+     */
+    public void incrementReceived(@NotNull UUID playerUuid, int amount) {
+        this.pendingMap.merge(playerUuid, new Counts(0, amount), Counts::add);
+    }
+
+    /**
+     * Used to get the number of deliveries sent by
+     * a player that have not been written yet.
+     *
+     * @param playerUuid The player's uuid.
+     * @return The number of deliveries.
+     */
+    public int getPendingSent(@NotNull UUID playerUuid) {
+        Counts counts = this.pendingMap.get(playerUuid);
+        return counts == null ? 0 : counts.sent;
+    }
+
+    /**
+     * Used to get the number of deliveries received by
+     * a player that have not been written yet.
+     *
+     * @param playerUuid The player's uuid.
+     * @return The number of deliveries.
+     */
+    public int getPendingReceived(@NotNull UUID playerUuid) {
+        Counts counts = this.pendingMap.get(playerUuid);
+        return counts == null ? 0 : counts.received;
+    }
+
+    /**
+     * Used to get the number of players with
+     * counts waiting to be written.
+     *
+     * @return The number of players.
+     */
+    public int getPendingSize() {
+        return this.pendingMap.size();
+    }
+
+    /**
+     * Used to write the counts to the database.
+     * Be careful as this contains database methods.
+     */
+    public synchronized void flush() {
+        if (this.pendingMap.isEmpty()) return;
+
+        // Take the counts. Counts added after a player
+        // is taken are kept for the next flush.
+        Map<UUID, Integer> sentMap = new HashMap<>();
+        Map<UUID, Integer> receivedMap = new HashMap<>();
+        for (UUID playerUuid : new ArrayList<>(this.pendingMap.keySet())) {
+            Counts counts = this.pendingMap.remove(playerUuid);
+            if (counts == null) continue;
+            if (counts.sent != 0) sentMap.put(playerUuid, counts.sent);
+            if (counts.received != 0) receivedMap.put(playerUuid, counts.received);
+        }
+
+        Set<UUID> writtenSet = new HashSet<>();
+        try {
+            this.database.getTable(PlayerTable.class).increment(sentMap, receivedMap, writtenSet);
+
+        } catch (Exception exception) {
+            this.plugin.getLogger().log(Level.WARNING, "Failed to write the player statistics.", exception);
+
+            // Keep the counts that were not written so they are
+            // written next time, without counting the others twice.
+            sentMap.forEach((playerUuid, amount) -> {
+                if (!writtenSet.contains(playerUuid)) this.incrementSent(playerUuid, amount);
+            });
+            receivedMap.forEach((playerUuid, amount) -> {
+                if (!writtenSet.contains(playerUuid)) this.incrementReceived(playerUuid, amount);
+            });
+        }
+    }
+}
@@ -22,8 +22,7 @@ import com.github.smuddgge.squishydatabase.Query;
 import com.github.smuddgge.squishydatabase.interfaces.TableAdapter;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.Optional;
-import java.util.UUID;
+import java.util.*;
 
 /**
  * Represents the player table.
@@ -48,4 +47,53 @@ public class PlayerTable extends TableAdapter<PlayerRecord> {
                 new Query().match("playerUuid", playerUuid.toString())
         ));
     }
+
+    /**
+     * Used to add to the statistics of many players at once.
+     * When many players are updated the records are read in
+     * one query instead of one query per player.
+     * <p>
+     * The database library has no atomic increment, so each
+     * record is read, added to and written back. The players
+     * are added to the written set as each record is written,
+     * so if this fails part way through the caller knows
+     * which counts have already been saved.
+     * Be careful as this contains database methods.
+     *
+     * @param sentMap     The number of deliveries each player sent.
+     * @param receivedMap The number of deliveries each player received.
+     * @param writtenSet  The set the written players are added to.
+     * @return This instance.
+     */
+    public @NotNull PlayerTable increment(@NotNull Map<UUID, Integer> sentMap,
+                                          @NotNull Map<UUID, Integer> receivedMap,
+                                          @NotNull Set<UUID> writtenSet) {
+        Set<UUID> playerUuidSet = new HashSet<>(sentMap.keySet());
+        playerUuidSet.addAll(receivedMap.keySet());
+        if (playerUuidSet.isEmpty()) return this;
+
+        // Get all the player records if there are many players.
+        final boolean readAll = playerUuidSet.size() > 64;
+        Map<String, PlayerRecord> recordMap = new HashMap<>();
+        if (readAll) {
+            for (PlayerRecord record : this.getRecordList()) {
+                recordMap.put(record.playerUuid, record);
+            }
+        }
+
+        // Update each player's record.
+        for (UUID playerUuid : playerUuidSet) {
+            PlayerRecord record = !readAll
+                    ? this.getPlayerRecord(playerUuid).orElse(new PlayerRecord(playerUuid))
+                    : recordMap.getOrDefault(playerUuid.toString(), new PlayerRecord(playerUuid));
+
+            this.insertRecord(record
+                    .incrementSent(sentMap.getOrDefault(playerUuid, 0))
+                    .incrementReceived(receivedMap.getOrDefault(playerUuid, 0))
+            );
+            writtenSet.add(playerUuid);
+        }
+
+        return this;
+    }
 }
@@ -0,0 +1,59 @@
+/*
+ * CozyDeliveries - An item and money delivery service for a minecraft server.
+ * Copyright (C) 2024  Smuddgge
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.github.cozyplugins.cozydeliveries.database.migration;
+
+import com.github.cozyplugins.cozydeliveries.database.CooldownRecord;
+import com.github.smuddgge.squishydatabase.record.Field;
+import com.github.smuddgge.squishydatabase.record.Record;
+import com.github.smuddgge.squishydatabase.record.RecordFieldType;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+
+/**
+ * Represents the version 1 cooldown record.
+ * Only used to move cooldowns into the
+ * version 2 cooldown table.
+ */
+public class CooldownRecordV1 extends Record {
+
+    @Field(type = RecordFieldType.PRIMARY)
+    public @NotNull String identifier;
+
+    public @NotNull String playerUuid;
+    public @NotNull String eventIdentifier;
+    public @NotNull String lastDeliveryTimeStampMillis;
+
+    public CooldownRecordV1() {
+    }
+
+    /**
+     * Used to convert this record into
+     * a version 2 cooldown record.
+     *
+     * @return The version 2 cooldown record.
+     */
+    public @NotNull CooldownRecord toRecord() {
+        return new CooldownRecord(
+                UUID.fromString(this.playerUuid),
+                this.eventIdentifier,
+                Long.parseLong(this.lastDeliveryTimeStampMillis)
+        );
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * CozyDeliveries - An item and money delivery service for a minecraft server.
+ * Copyright (C) 2024  Smuddgge
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.github.cozyplugins.cozydeliveries.database.migration;
+
+import com.github.cozyplugins.cozydeliveries.database.DeliveryRecord;
+import com.github.cozyplugins.cozydeliveries.delivery.Delivery;
+import com.github.smuddgge.squishyconfiguration.memory.MemoryConfigurationSection;
+import com.github.smuddgge.squishydatabase.record.Field;
+import com.github.smuddgge.squishydatabase.record.Record;
+import com.github.smuddgge.squishydatabase.record.RecordFieldType;
+import com.google.gson.Gson;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.LinkedHashMap;
+import java.util.UUID;
+
+/**
+ * Represents the version 1 delivery record.
+ * Only used to move deliveries into the
+ * version 2 delivery table.
+ */
+public class DeliveryRecordV1 extends Record {
+
+    @Field(type = RecordFieldType.PRIMARY)
+    public @NotNull String uuid;
+
+    public @NotNull String toPlayerUuid;
+    public @NotNull String timeStampMillis;
+    public @NotNull String delivery;
+
+    public DeliveryRecordV1() {
+    }
+
+    /**
+     * Used to convert this record into
+     * a version 2 delivery record.
+     * The delivery is converted once to
+     * find when it expires.
+     *
+     * @return The version 2 delivery record.
+     */
+    public @NotNull DeliveryRecord toRecord() {
+        Delivery delivery = new Delivery(UUID.fromString(this.toPlayerUuid), Long.parseLong(this.timeStampMillis)).convert(
+                new MemoryConfigurationSection(
+                        new Gson().fromJson(this.delivery, LinkedHashMap.class)
+                )
+        );
+
+        return new DeliveryRecord(
+                UUID.fromString(this.uuid),
+                UUID.fromString(this.toPlayerUuid),
+                Long.parseLong(this.timeStampMillis),
+                delivery.getTimeStampExpire(),
+                this.delivery
+        );
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * CozyDeliveries - An item and money delivery service for a minecraft server.
+ * Copyright (C) 2024  Smuddgge
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.github.cozyplugins.cozydeliveries.database.migration;
+
+import com.github.cozyplugins.cozydeliveries.database.CooldownRecord;
+import com.github.cozyplugins.cozydeliveries.database.CooldownTable;
+import com.github.cozyplugins.cozydeliveries.database.DeliveryRecord;
+import com.github.cozyplugins.cozydeliveries.database.DeliveryTable;
+import com.github.smuddgge.squishydatabase.Query;
+import com.github.smuddgge.squishydatabase.interfaces.Database;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.logging.Level;
+
+/**
+ * Represents the schema migration.
+ * Moves the rows in the version 1 tables into the
+ * version 2 tables while the plugin is running.
+ * <p>
+ * {@link #migrateAll()} moves every row in the background.
+ * Until it has finished, the other methods are used to
+ * move the rows that are needed straight away.
+ * <p>
+ * Each row is moved while holding a shared lock and is read
+ * again before it is copied, so a row that was already moved,
+ * and then claimed or replaced, is never copied twice.
+ * A row that already exists in a version 2 table is kept,
+ * as it was written after the migration started.
+ */
+public class SchemaMigration {
+
+    private final @NotNull Plugin plugin;
+    private final @NotNull Database database;
+    private final @NotNull Object lock;
+    private volatile boolean complete;
+
+    /**
+     * Used to create a new schema migration.
+     *
+     * @param plugin   The instance of the plugin used for logging.
+     * @param database The database to migrate.
+     */
+    public SchemaMigration(@NotNull Plugin plugin, @NotNull Database database) {
+        this.plugin = plugin;
+        this.database = database;
+        this.lock = new Object();
+        this.complete = false;
+    }
+
+    /**
+     * Used to check if every row has been moved
+     * into the version 2 tables.
+     *
+     * @return True if the migration is complete.
+     */
+    public boolean isComplete() {
+        return this.complete;
+    }
+
+    /**
+     * Used to move every row into the version 2 tables.
+     * Be careful as this contains database methods.
+     */
+    public synchronized void migrateAll() {
+        if (this.complete) return;
+
+        int deliveries = 0;
+        int cooldowns = 0;
+
+        try {
+            for (DeliveryRecordV1 record : this.database.getTable(DeliveryTableV1.class).getRecordList()) {
+                if (this.migrateDeliveryRecord(record.uuid)) deliveries++;
+            }
+
+            for (CooldownRecordV1 record : this.database.getTable(CooldownTableV1.class).getRecordList()) {
+                if (this.migrateCooldownRecord(record.identifier).isPresent()) cooldowns++;
+            }
+
+        } catch (Exception exception) {
+            this.plugin.getLogger().log(Level.WARNING, "Failed to migrate the database to version 2.", exception);
+            return;
+        }
+
+        this.complete = true;
+
+        if (deliveries > 0 || cooldowns > 0) {
+            this.plugin.getLogger().log(Level.INFO,
+                    "Migrated " + deliveries + " deliveries and " + cooldowns + " cooldowns to version 2 of the database."
+            );
+        }
+    }
+
+    /**
+     * Used to read the deliveries that are still in
+     * the version 1 table, without moving them.
+     * This does not wait for {@link #migrateAll()},
+     * so it can be used while the migration is running.
+     * Be careful as this contains database methods.
+     *
+     * @return The deliveries as version 2 records.
+     * Empty if the migration is complete.
+     */
+    public @NotNull List<DeliveryRecord> readUnmigratedDeliveries() {
+        List<DeliveryRecord> recordList = new ArrayList<>();
+        if (this.complete) return recordList;
+
+        for (DeliveryRecordV1 record : this.database.getTable(DeliveryTableV1.class).getRecordList()) {
+            recordList.add(record.toRecord());
+        }
+
+        return recordList;
+    }
+
+    /**
+     * Used to move a player's deliveries
+     * into the version 2 table.
+     * Be careful as this contains database methods.
+     *
+     * @param playerUuid The player's uuid.
+     */
+    public void migratePlayer(@NotNull UUID playerUuid) {
+        if (this.complete) return;
+
+        for (DeliveryRecordV1 record : this.database.getTable(DeliveryTableV1.class)
+                .getRecordList(new Query().match("toPlayerUuid", playerUuid.toString()))) {
+
+            this.migrateDeliveryRecord(record.uuid);
+        }
+    }
+
+    /**
+     * Used to move a delivery into
+     * the version 2 table.
+     * Be careful as this contains database methods.
+     *
+     * @param deliveryUuid The delivery's uuid.
+     */
+    public void migrateDelivery(@NotNull UUID deliveryUuid) {
+        if (this.complete) return;
+        this.migrateDeliveryRecord(deliveryUuid.toString());
+    }
+
+    /**
+     * Used to move a player's cooldown for an
+     * event into the version 2 table.
+     * Be careful as this contains database methods.
+     *
+     * @param playerUuid      The player's uuid.
+     * @param eventIdentifier The event identifier.
+     * @return The migrated cooldown record.
+     * Empty if there was no version 1 record.
+     */
+    public @NotNull Optional<CooldownRecord> migrateCooldown(@NotNull UUID playerUuid, @NotNull String eventIdentifier) {
+        if (this.complete) return Optional.empty();
+
+        CooldownRecordV1 record = this.database.getTable(CooldownTableV1.class)
+                .getFirstRecord(new Query()
+                        .match("playerUuid", playerUuid.toString())
+                        .match("eventIdentifier", eventIdentifier)
+                );
+
+        if (record == null) return Optional.empty();
+        return this.migrateCooldownRecord(record.identifier);
+    }
+
+    /**
+     * Used to move a delivery into the version 2 table,
+     * reading it again while holding the lock.
+     *
+     * @param uuid The delivery's uuid.
+     * @return True if the delivery was still in
+     * the version 1 table.
+     */
+    private boolean migrateDeliveryRecord(@NotNull String uuid) {
+        synchronized (this.lock) {
+            DeliveryRecordV1 record = this.database.getTable(DeliveryTableV1.class)
+                    .getFirstRecord(new Query().match("uuid", uuid));
+
+            // Check if the delivery was already moved.
+            if (record == null) return false;
+
+            // Check if the delivery is already in the version 2 table.
+            DeliveryTable table = this.database.getTable(DeliveryTable.class);
+            if (table.getFirstRecord(new Query().match("uuid", uuid)) == null) {
+                table.insertRecord(record.toRecord());
+            }
+
+            this.database.getTable(DeliveryTableV1.class).removeAllRecords(new Query().match("uuid", uuid));
+            return true;
+        }
+    }
+
+    /**
+     * Used to move a cooldown into the version 2 table,
+     * reading it again while holding the lock.
+     *
+     * @param identifier The version 1 cooldown identifier.
+     * @return The version 2 cooldown record.
+     * Empty if the cooldown was already moved.
+     */
+    private @NotNull Optional<CooldownRecord> migrateCooldownRecord(@NotNull String identifier) {
+        synchronized (this.lock) {
+            CooldownRecordV1 record = this.database.getTable(CooldownTableV1.class)
+                    .getFirstRecord(new Query().match("identifier", identifier));
+
+            // Check if the cooldown was already moved.
+            if (record == null) return Optional.empty();
+
+            // Keep the version 2 cooldown if it was
+            // written after the migration started.
+            CooldownRecord cooldownRecord = record.toRecord();
+            CooldownTable table = this.database.getTable(CooldownTable.class);
+            Optional<CooldownRecord> existing = table.getCooldownRecord(
+                    cooldownRecord.getPlayerUuid(), cooldownRecord.getEventIdentifier()
+            );
+
+            if (existing.isPresent()) {
+                cooldownRecord = existing.get();
+            } else {
+                table.insertRecord(cooldownRecord);
+            }
+
+            this.database.getTable(CooldownTableV1.class).removeAllRecords(new Query().match("identifier", identifier));
+            return Optional.of(cooldownRecord);
+        }
+    }
+}
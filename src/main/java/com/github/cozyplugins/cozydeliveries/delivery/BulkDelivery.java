@@ -0,0 +1,171 @@
+/*
+ * CozyDeliveries - An item and money delivery service for a minecraft server.
+ * Copyright (C) 2024  Smuddgge
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.github.cozyplugins.cozydeliveries.delivery;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Represents a delivery being sent to many players.
+ * The deliveries are written to the database in the
+ * background and this can be used to track the progress.
+ * A delivery that fails to be written is counted as failed
+ * and the other deliveries are still sent.
+ */
+public class BulkDelivery {
+
+    private final @NotNull List<UUID> playerUuidList;
+    private final @NotNull DeliveryContent content;
+    private final @NotNull AtomicInteger sent;
+    private final @NotNull AtomicInteger failed;
+    private final @NotNull List<ProgressListener> listenerList;
+    private final @NotNull CompletableFuture<Integer> future;
+
+    /**
+     * Used to create a new bulk delivery.
+     *
+     * @param playerUuidList The players to send the delivery to.
+     * @param content        The content to send.
+     */
+    public BulkDelivery(@NotNull List<UUID> playerUuidList, @NotNull DeliveryContent content) {
+        this.playerUuidList = playerUuidList;
+        this.content = content;
+        this.sent = new AtomicInteger();
+        this.failed = new AtomicInteger();
+        this.listenerList = new CopyOnWriteArrayList<>();
+        this.future = new CompletableFuture<>();
+    }
+
+    /**
+     * Represents a progress listener.
+     * Called each time a chunk of deliveries
+     * has been written to the database.
+     */
+    public interface ProgressListener {
+
+        /**
+         * Called when a chunk of deliveries has been sent.
+         * This may be called on a different thread.
+         *
+         * @param sent  The number of deliveries sent so far.
+         * @param total The total number of deliveries.
+         */
+        void onProgress(int sent, int total);
+    }
+
+    /**
+     * Used to get the list of players the
+     * delivery is being sent to.
+     *
+     * @return The list of player uuids.
+     */
+    public @NotNull List<UUID> getPlayerUuidList() {
+        return this.playerUuidList;
+    }
+
+    /**
+     * Used to get the content being sent.
+     *
+     * @return The delivery content.
+     */
+    public @NotNull DeliveryContent getContent() {
+        return this.content;
+    }
+
+    /**
+     * Used to get the number of deliveries
+     * that have been sent so far.
+     *
+     * @return The number of deliveries sent.
+     */
+    public int getSent() {
+        return this.sent.get();
+    }
+
+    /**
+     * Used to get the number of deliveries
+     * that failed to be written so far.
+     *
+     * @return The number of deliveries that failed.
+     */
+    public int getFailed() {
+        return this.failed.get();
+    }
+
+    /**
+     * Used to get the total number of
+     * deliveries to send.
+     *
+     * @return The total number of deliveries.
+     */
+    public int getTotal() {
+        return this.playerUuidList.size();
+    }
+
+    /**
+     * Used to get the future that completes with the
+     * number of deliveries sent when finished.
+     *
+     * @return The future.
+     */
+    public @NotNull CompletableFuture<Integer> getFuture() {
+        return this.future;
+    }
+
+    /**
+     * Used to add a progress listener.
+     *
+     * @param listener The instance of the listener.
+     * @return This instance.
+     */
+    public @NotNull BulkDelivery addProgressListener(@NotNull ProgressListener listener) {
+        this.listenerList.add(listener);
+        return this;
+    }
+
+    /**
+     * Used to increase the number of deliveries
+     * sent and notify the progress listeners.
+     *
+     * @param amount The number of deliveries sent.
+     * @return This instance.
+     */
+    public @NotNull BulkDelivery incrementSent(int amount) {
+        final int sent = this.sent.addAndGet(amount);
+        this.listenerList.forEach(listener -> listener.onProgress(sent, this.getTotal()));
+        return this;
+    }
+
+    /**
+     * Used to increase the number of deliveries
+     * that failed to be written.
+     *
+     * @param amount The number of deliveries that failed.
+     * @return This instance.
+     */
+    public @NotNull BulkDelivery incrementFailed(int amount) {
+        this.failed.addAndGet(amount);
+        return this;
+    }
+}
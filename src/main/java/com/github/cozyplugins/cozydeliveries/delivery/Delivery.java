@@ -19,8 +19,11 @@
 package com.github.cozyplugins.cozydeliveries.delivery;
 
 import com.github.cozyplugins.cozydeliveries.CozyDeliveries;
+import com.github.cozyplugins.cozydeliveries.database.DeliveryClaimService;
 import com.github.cozyplugins.cozydeliveries.database.DeliveryRecord;
 import com.github.cozyplugins.cozydeliveries.database.DeliveryTable;
+import com.github.cozyplugins.cozydeliveries.placeholder.PlaceholderContext;
+import com.github.cozyplugins.cozydeliveries.placeholder.PlaceholderTemplate;
 import com.github.cozyplugins.cozylibrary.indicator.Replicable;
 import com.github.cozyplugins.cozylibrary.indicator.Savable;
 import com.github.cozyplugins.cozylibrary.inventory.InventoryItem;
@@ -32,15 +35,12 @@ import com.github.smuddgge.squishyconfiguration.interfaces.ConfigurationSection;
 import com.github.smuddgge.squishyconfiguration.memory.MemoryConfigurationSection;
 import com.github.smuddgge.squishydatabase.Query;
 import org.bukkit.Bukkit;
-import org.bukkit.Material;
-import org.bukkit.OfflinePlayer;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.time.Duration;
 import java.util.LinkedHashMap;
 import java.util.UUID;
-import java.util.logging.Level;
 
 /**
  * Represents a delivery to be given to a player.
@@ -53,6 +53,7 @@ public class Delivery implements ConfigurationConvertable<Delivery>, Replicable<
     private @NotNull Long timeStampMillis;
     private @NotNull Long timeStampExpire;
     private @NotNull DeliveryContent deliveryContent;
+    private volatile @Nullable DeliveryItemRenderer.Rendered rendered;
 
     /**
      * Used to create a new instance of a delivery.
@@ -111,8 +112,10 @@ public class Delivery implements ConfigurationConvertable<Delivery>, Replicable<
      * @return The player's name.
      */
     public @Nullable String getToPlayerName() {
-        OfflinePlayer player = Bukkit.getOfflinePlayer(this.toPlayerUuid);
-        return player.getName();
+        return CozyDeliveries.getAPI().orElseThrow()
+                .getPlayerDirectory()
+                .getName(this.toPlayerUuid)
+                .orElseGet(() -> Bukkit.getOfflinePlayer(this.toPlayerUuid).getName());
     }
 
     /**
@@ -189,32 +192,38 @@ public class Delivery implements ConfigurationConvertable<Delivery>, Replicable<
      * @return The instance of the inventory item.
      */
     public @NotNull InventoryItem getInventoryItem(@NotNull RegenerateInventory regenerateInventory) {
-        return new InventoryItem(this.getInterfaceItem().create())
+        // The rendered item is cached and shared, so a copy is used.
+        return new InventoryItem(CozyDeliveries.getAPI().orElseThrow().getItemRenderer().render(this).clone())
                 .addAction((ClickAction) (user, type, inventory) -> {
 
                     // Get the configuration section in the config.yml
                     ConfigurationSection section = CozyDeliveries.getAPI().orElseThrow()
                             .getConfiguration().getSection("delivery");
 
-                    // Check if they have inventory space.
-                    if (!this.hasInventorySpace(user)) {
-                        user.sendMessage(section.getAdaptedString(
-                                "inventory_space", "\n", "&7You dont have enough inventory space to collect this delivery."
-                        ));
-                        return;
-                    }
-
-                    // Give the delivery to the player.
-                    boolean success = this.giveAndDelete(user);
-                    if (success) {
-                        user.sendMessage(section.getAdaptedString(
-                                "success", "\n", "&7You have received a delivery."
-                        ));
-                        regenerateInventory.onRegenerate(user);
-                        return;
-                    }
-
-                    user.sendMessage(section.getAdaptedString("failed", "\n", "&7Failed to receive a delivery."));
+                    // Claim the delivery without blocking the click.
+                    CozyDeliveries.getAPI().orElseThrow().getClaimService().claim(user, this).thenAccept(result -> {
+                        switch (result) {
+                            case SUCCESS -> {
+                                user.sendMessage(section.getAdaptedString(
+                                        "success", "\n", "&7You have received a delivery."
+                                ));
+                                regenerateInventory.onRegenerate(user);
+                            }
+                            case INVENTORY_SPACE -> user.sendMessage(section.getAdaptedString(
+                                    "inventory_space", "\n", "&7You dont have enough inventory space to collect this delivery."
+                            ));
+                            case ALREADY_CLAIMED -> {
+                                user.sendMessage(section.getAdaptedString("failed", "\n", "&7Failed to receive a delivery."));
+                                regenerateInventory.onRegenerate(user);
+                            }
+                            case FAILED -> user.sendMessage(section.getAdaptedString(
+                                    "failed", "\n", "&7Failed to receive a delivery."
+                            ));
+                            case ALREADY_CLAIMING -> {
+                                // The first click is still being claimed.
+                            }
+                        }
+                    });
                 });
     }
 
@@ -225,40 +234,7 @@ public class Delivery implements ConfigurationConvertable<Delivery>, Replicable<
      * @return The instance of the item.
      */
     public @NotNull CozyItem getInterfaceItem() {
-
-        // Check if the item is null.
-        // If so return the default item.
-        if (this.getDeliveryContent().getItem() == null) {
-            CozyItem defaultItem = new CozyItem().convert(
-                    CozyDeliveries.getAPI().orElseThrow()
-                            .getConfiguration().getSection("delivery.default_item")
-            );
-
-            // Check if the default item is air.
-            if (defaultItem.getMaterial().equals(Material.AIR)) {
-                CozyDeliveries.getPlugin().getLogger().log(
-                        Level.WARNING,
-                        "Attempted to get the default item, but it returned as material AIR."
-                );
-                return new CozyItem(Material.BARREL);
-            }
-
-            return this.parsePlaceholders(defaultItem);
-        }
-
-        // Check if the item is air.
-        if (this.getDeliveryContent().getItem().getMaterial().equals(Material.AIR)) {
-            CozyDeliveries.getPlugin().getLogger().log(
-                    Level.WARNING,
-                    "Attempted to get the item assosicated to {delivery}, but it returned as material AIR."
-                            .replace("{delivery}", this.getDeliveryContent().toString())
-            );
-            this.getDeliveryContent().setCustomItem(null);
-            return this.getInterfaceItem();
-        }
-
-        // Otherwise use the custom item.
-        return this.parsePlaceholders(this.getDeliveryContent().getItem());
+        return new CozyItem(CozyDeliveries.getAPI().orElseThrow().getItemRenderer().render(this).clone());
     }
 
     /**
@@ -283,6 +259,7 @@ public class Delivery implements ConfigurationConvertable<Delivery>, Replicable<
      */
     public @NotNull Delivery setFromName(@Nullable String fromName) {
         this.fromName = fromName;
+        this.rendered = null;
         return this;
     }
 
@@ -305,6 +282,7 @@ public class Delivery implements ConfigurationConvertable<Delivery>, Replicable<
      */
     public @NotNull Delivery setTimeStampExpire(@NotNull Long timeStampExpire) {
         this.timeStampExpire = timeStampExpire;
+        this.rendered = null;
         return this;
     }
 
@@ -317,6 +295,7 @@ public class Delivery implements ConfigurationConvertable<Delivery>, Replicable<
      */
     public @NotNull Delivery setDeliveryContent(@NotNull DeliveryContent deliveryContent) {
         this.deliveryContent = deliveryContent;
+        this.rendered = null;
         return this;
     }
 
@@ -356,10 +335,15 @@ public class Delivery implements ConfigurationConvertable<Delivery>, Replicable<
     /**
      * Used to delete the delivery from the
      * database and then give it to a user.
+     * This blocks on the database, so
+     * {@link DeliveryClaimService#claim(PlayerUser, Delivery)}
+     * should be used on the main thread instead.
      *
      * @param user The instance of the user.
      * @return True if successful.
+     * @deprecated Use {@link DeliveryClaimService#claim(PlayerUser, Delivery)}.
      */
+    @Deprecated
     public boolean giveAndDelete(@NotNull PlayerUser user) {
 
         // Remove the record from the database.
@@ -368,6 +352,9 @@ public class Delivery implements ConfigurationConvertable<Delivery>, Replicable<
                 .removeAllRecords(new Query().match("uuid", this.uuid.toString()));
 
         if (!success) return false;
+
+        // Remove the delivery from the cache.
+        CozyDeliveries.getAPI().orElseThrow().getDeliveryCache().removeDelivery(this);
         return this.deliveryContent.give(user);
     }
 
@@ -404,13 +391,48 @@ public class Delivery implements ConfigurationConvertable<Delivery>, Replicable<
      * @return The parsed string.
      */
     public @NotNull String parsePlaceholders(@NotNull String string) {
-        final String playerName = this.getToPlayerName();
+        return this.parsePlaceholders(string, true);
+    }
+
+    /**
+     * Used to parse the placeholders of a string.
+     *
+     * @param string The instance of the string.
+     * @param expire If the expire placeholder should be parsed.
+     * @return The parsed string.
+     */
+    @NotNull String parsePlaceholders(@NotNull String string, boolean expire) {
+        PlaceholderTemplate template = CozyDeliveries.getAPI().orElseThrow().getPlaceholderRegistry().compile(string);
+
+        return template.render(PlaceholderContext.of(this), (placeholder, context) -> switch (placeholder) {
+            case "lore" -> String.join("\n&f", this.getDeliveryContent().getLoreNotEmpty());
+            case "from" -> this.getFromName("None");
+            case "player_name" -> {
+                final String playerName = this.getToPlayerName();
+                yield playerName == null ? "null" : playerName;
+            }
+            case "expire" -> expire ? this.getExpireTimeFormatted() : null;
+            default -> null;
+        });
+    }
+
+    /**
+     * Used to get the rendered interface item.
+     *
+     * @return The rendered item.
+     * Null if it has not been rendered.
+     */
+    @Nullable DeliveryItemRenderer.Rendered getRendered() {
+        return this.rendered;
+    }
 
-        return string
-                .replace("{lore}", String.join("\n&f", this.getDeliveryContent().getLoreNotEmpty()))
-                .replace("{from}", this.getFromName("None"))
-                .replace("{expire}", this.getExpireTimeFormatted())
-                .replace("{player_name}", playerName == null ? "null" : playerName);
+    /**
+     * Used to set the rendered interface item.
+     *
+     * @param rendered The rendered item.
+     */
+    void setRendered(@Nullable DeliveryItemRenderer.Rendered rendered) {
+        this.rendered = rendered;
     }
 
     @Override
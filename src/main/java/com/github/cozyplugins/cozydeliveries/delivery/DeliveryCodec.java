@@ -0,0 +1,401 @@
+/*
+ * CozyDeliveries - An item and money delivery service for a minecraft server.
+ * Copyright (C) 2024  Smuddgge
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.github.cozyplugins.cozydeliveries.delivery;
+
+import com.github.cozyplugins.cozylibrary.item.CozyItem;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.util.io.BukkitObjectInputStream;
+import org.bukkit.util.io.BukkitObjectOutputStream;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Represents the binary codec for deliveries.
+ * Used to store deliveries in the database in a binary form.
+ * <p>
+ * The encoded string starts with {@link #PREFIX} followed by base64.
+ * The header contains the version, player uuid, sender and
+ * expire time stamp, so it can be read with {@link #decodeHeader(String)}
+ * without converting the items.
+ * Strings that do not start with the prefix are json
+ * deliveries written before this codec existed.
+ * <p>
+ * Items are written with Bukkit's object stream, as Spigot
+ * has no other stable binary item format. Version 2 writes every
+ * item of a delivery into one object stream, so the stream header
+ * and class descriptors are only written once, and writes strings
+ * as a length followed by UTF-8 bytes, so they are not limited to
+ * 64 KB. Version 1 deliveries can still be decoded.
+ * The whole delivery is stored as base64, as the database
+ * library only has string columns.
+ */
+public final class DeliveryCodec {
+
+    /**
+     * The prefix used to identify encoded deliveries.
+     */
+    public static final @NotNull String PREFIX = "b1:";
+
+    private static final byte VERSION = 2;
+    private static final byte VERSION_1 = 1;
+
+    private static final @NotNull ThreadLocal<ByteArrayOutputStream> BUFFER =
+            ThreadLocal.withInitial(() -> new ByteArrayOutputStream(512));
+
+    private DeliveryCodec() {
+    }
+
+    /**
+     * Represents the header of an encoded delivery.
+     */
+    public static class Header {
+
+        private final @NotNull UUID toPlayerUuid;
+        private final @Nullable String fromName;
+        private final long timeStampExpire;
+
+        private Header(@NotNull UUID toPlayerUuid, @Nullable String fromName, long timeStampExpire) {
+            this.toPlayerUuid = toPlayerUuid;
+            this.fromName = fromName;
+            this.timeStampExpire = timeStampExpire;
+        }
+
+        /**
+         * Used to get the player's uuid the
+         * delivery was sent to.
+         *
+         * @return The player's uuid.
+         */
+        public @NotNull UUID getToPlayerUuid() {
+            return this.toPlayerUuid;
+        }
+
+        /**
+         * Used to get the name of the sender.
+         *
+         * @return The name of the sender.
+         */
+        public @Nullable String getFromName() {
+            return this.fromName;
+        }
+
+        /**
+         * Used to get the time stamp the delivery will expire.
+         *
+         * @return The expire time stamp, or -1.
+         */
+        public long getTimeStampExpire() {
+            return this.timeStampExpire;
+        }
+    }
+
+    /**
+     * Used to check if a string was encoded by this codec.
+     *
+     * @param encoded The encoded string.
+     * @return True if it was encoded by this codec.
+     */
+    public static boolean isEncoded(@NotNull String encoded) {
+        return encoded.startsWith(PREFIX);
+    }
+
+    /**
+     * Used to encode a delivery.
+     *
+     * @param delivery The instance of the delivery.
+     * @return The encoded string.
+     */
+    public static @NotNull String encode(@NotNull Delivery delivery) {
+        return DeliveryCodec.encode(
+                delivery.getToPlayerUuid(),
+                delivery.getFromName(),
+                delivery.getTimeStampExpire(),
+                DeliveryCodec.encodeContent(delivery.getDeliveryContent())
+        );
+    }
+
+    /**
+     * Used to encode a delivery with content
+     * that has already been encoded.
+     * This lets the same content be sent to
+     * many players while only encoding it once.
+     *
+     * @param toPlayerUuid    The player the delivery is sent to.
+     * @param fromName        The name of the sender.
+     * @param timeStampExpire The time stamp the delivery expires, or -1.
+     * @param content         The content encoded with {@link #encodeContent(DeliveryContent)}.
+     * @return The encoded string.
+     */
+    public static @NotNull String encode(@NotNull UUID toPlayerUuid,
+                                         @Nullable String fromName,
+                                         long timeStampExpire,
+                                         @NotNull byte[] content) {
+
+        ByteArrayOutputStream buffer = BUFFER.get();
+        buffer.reset();
+
+        try (DataOutputStream output = new DataOutputStream(buffer)) {
+            output.writeByte(VERSION);
+            output.writeLong(toPlayerUuid.getMostSignificantBits());
+            output.writeLong(toPlayerUuid.getLeastSignificantBits());
+            output.writeBoolean(fromName != null);
+            if (fromName != null) DeliveryCodec.writeString(output, fromName);
+            output.writeLong(timeStampExpire);
+            output.write(content);
+
+        } catch (IOException exception) {
+            throw new RuntimeException(exception);
+        }
+
+        return PREFIX + Base64.getEncoder().encodeToString(buffer.toByteArray());
+    }
+
+    /**
+     * Used to encode the content of a delivery.
+     *
+     * @param content The instance of the content.
+     * @return The encoded content.
+     */
+    public static @NotNull byte[] encodeContent(@NotNull DeliveryContent content) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+
+        try (DataOutputStream output = new DataOutputStream(buffer)) {
+            output.writeInt(content.getMoney());
+            DeliveryCodec.writeStringList(output, content.getCommandList());
+            DeliveryCodec.writeStringList(output, content.getLore());
+
+            output.writeInt(content.getItemList().size());
+            output.writeBoolean(content.getItem() != null);
+
+            // Write every item into one object stream.
+            List<CozyItem> itemList = new ArrayList<>(content.getItemList());
+            if (content.getItem() != null) itemList.add(content.getItem());
+            if (!itemList.isEmpty()) DeliveryCodec.writeItems(output, itemList);
+
+        } catch (IOException exception) {
+            throw new RuntimeException(exception);
+        }
+
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Used to read the header of an encoded delivery.
+     * The content and items are not converted.
+     *
+     * @param encoded The encoded string.
+     * @return The header.
+     */
+    public static @NotNull Header decodeHeader(@NotNull String encoded) {
+        try (DataInputStream input = DeliveryCodec.open(encoded)) {
+            return DeliveryCodec.readHeader(input, DeliveryCodec.readVersion(input));
+
+        } catch (IOException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
+    /**
+     * Used to read the header of a json delivery
+     * written before this codec existed.
+     * Only the header fields are read, the
+     * content is skipped without being parsed.
+     *
+     * @param json The json delivery.
+     * @return The header.
+     */
+    public static @NotNull Header decodeJsonHeader(@NotNull String json) {
+        UUID toPlayerUuid = null;
+        String fromName = null;
+        long timeStampExpire = -1L;
+
+        try (JsonReader reader = new JsonReader(new StringReader(json))) {
+            reader.beginObject();
+
+            while (reader.hasNext()) {
+                final String name = reader.nextName();
+
+                // Skip the content and null values.
+                if (reader.peek() == JsonToken.NULL || name.equals("content")) {
+                    reader.skipValue();
+                    continue;
+                }
+
+                switch (name) {
+                    case "to_player_uuid" -> toPlayerUuid = UUID.fromString(reader.nextString());
+                    case "from_name" -> fromName = reader.nextString();
+                    case "time_stamp_expire_millis" -> timeStampExpire = (long) reader.nextDouble();
+                    default -> reader.skipValue();
+                }
+            }
+
+        } catch (IOException | IllegalStateException | IllegalArgumentException exception) {
+            throw new RuntimeException("Failed to read the header of a json delivery.", exception);
+        }
+
+        if (toPlayerUuid == null) throw new RuntimeException("The json delivery does not contain to_player_uuid.");
+        return new Header(toPlayerUuid, fromName, timeStampExpire);
+    }
+
+    /**
+     * Used to decode a delivery.
+     *
+     * @param encoded         The encoded string.
+     * @param uuid            The delivery's uuid.
+     * @param timeStampMillis The time stamp the delivery was sent.
+     * @return The instance of the delivery.
+     */
+    public static @NotNull Delivery decode(@NotNull String encoded, @NotNull UUID uuid, long timeStampMillis) {
+        try (DataInputStream input = DeliveryCodec.open(encoded)) {
+            final byte version = DeliveryCodec.readVersion(input);
+            Header header = DeliveryCodec.readHeader(input, version);
+
+            DeliveryContent content = new DeliveryContent();
+            content.setMoney(input.readInt());
+            content.getCommandList().addAll(DeliveryCodec.readStringList(input, version));
+            content.setLore(DeliveryCodec.readStringList(input, version));
+
+            if (version == VERSION_1) {
+                DeliveryCodec.readItemsVersion1(input, content);
+            } else {
+                DeliveryCodec.readItems(input, content);
+            }
+
+            return new Delivery(header.getToPlayerUuid(), timeStampMillis)
+                    .setUuid(uuid)
+                    .setFromName(header.getFromName())
+                    .setTimeStampExpire(header.getTimeStampExpire())
+                    .setDeliveryContent(content);
+
+        } catch (IOException | ClassNotFoundException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
+    private static @NotNull DataInputStream open(@NotNull String encoded) throws IOException {
+        if (!DeliveryCodec.isEncoded(encoded)) throw new IOException("The delivery was not encoded with this codec.");
+
+        byte[] bytes = Base64.getDecoder().decode(encoded.substring(PREFIX.length()));
+        return new DataInputStream(new ByteArrayInputStream(bytes));
+    }
+
+    private static byte readVersion(@NotNull DataInputStream input) throws IOException {
+        final byte version = input.readByte();
+        if (version != VERSION && version != VERSION_1) throw new IOException("Unsupported delivery codec version " + version);
+        return version;
+    }
+
+    private static @NotNull Header readHeader(@NotNull DataInputStream input, byte version) throws IOException {
+        final UUID toPlayerUuid = new UUID(input.readLong(), input.readLong());
+        final String fromName = input.readBoolean() ? DeliveryCodec.readString(input, version) : null;
+        final long timeStampExpire = input.readLong();
+        return new Header(toPlayerUuid, fromName, timeStampExpire);
+    }
+
+    private static void writeString(@NotNull DataOutputStream output, @NotNull String string) throws IOException {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static @NotNull String readString(@NotNull DataInputStream input, byte version) throws IOException {
+        if (version == VERSION_1) return input.readUTF();
+
+        byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeStringList(@NotNull DataOutputStream output, @NotNull List<String> list) throws IOException {
+        output.writeInt(list.size());
+        for (String string : list) {
+            DeliveryCodec.writeString(output, string);
+        }
+    }
+
+    private static @NotNull List<String> readStringList(@NotNull DataInputStream input, byte version) throws IOException {
+        final int size = input.readInt();
+        List<String> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(DeliveryCodec.readString(input, version));
+        }
+        return list;
+    }
+
+    private static void writeItems(@NotNull DataOutputStream output, @NotNull List<CozyItem> itemList) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(256 * itemList.size());
+
+        try (BukkitObjectOutputStream itemOutput = new BukkitObjectOutputStream(buffer)) {
+            for (CozyItem item : itemList) {
+                itemOutput.writeObject(item.create());
+            }
+        }
+
+        output.writeInt(buffer.size());
+        buffer.writeTo(output);
+    }
+
+    private static void readItems(@NotNull DataInputStream input, @NotNull DeliveryContent content) throws IOException, ClassNotFoundException {
+        final int itemCount = input.readInt();
+        final boolean hasCustomItem = input.readBoolean();
+        if (itemCount == 0 && !hasCustomItem) return;
+
+        byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+
+        try (BukkitObjectInputStream itemInput = new BukkitObjectInputStream(new ByteArrayInputStream(bytes))) {
+            for (int i = 0; i < itemCount; i++) {
+                content.addItems(new CozyItem((ItemStack) itemInput.readObject()));
+            }
+
+            if (hasCustomItem) content.setCustomItem(new CozyItem((ItemStack) itemInput.readObject()));
+        }
+    }
+
+    /**
+     * Used to read the items of a version 1 delivery,
+     * where each item has its own object stream.
+     */
+    private static void readItemsVersion1(@NotNull DataInputStream input, @NotNull DeliveryContent content) throws IOException, ClassNotFoundException {
+        final int itemCount = input.readInt();
+        for (int i = 0; i < itemCount; i++) {
+            content.addItems(DeliveryCodec.readItemVersion1(input));
+        }
+
+        if (input.readBoolean()) content.setCustomItem(DeliveryCodec.readItemVersion1(input));
+    }
+
+    private static @NotNull CozyItem readItemVersion1(@NotNull DataInputStream input) throws IOException, ClassNotFoundException {
+        byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+
+        try (BukkitObjectInputStream itemInput = new BukkitObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return new CozyItem((ItemStack) itemInput.readObject());
+        }
+    }
+}
@@ -19,6 +19,9 @@
 package com.github.cozyplugins.cozydeliveries.delivery;
 
 import com.github.cozyplugins.cozydeliveries.CozyDeliveries;
+import com.github.cozyplugins.cozydeliveries.placeholder.PlaceholderContext;
+import com.github.cozyplugins.cozydeliveries.placeholder.PlaceholderRegistry;
+import com.github.cozyplugins.cozydeliveries.placeholder.PlaceholderTemplate;
 import com.github.cozyplugins.cozylibrary.indicator.Replicable;
 import com.github.cozyplugins.cozylibrary.item.CozyItem;
 import com.github.cozyplugins.cozylibrary.user.PlayerUser;
@@ -26,6 +29,7 @@ import com.github.smuddgge.squishyconfiguration.indicator.ConfigurationConvertab
 import com.github.smuddgge.squishyconfiguration.interfaces.ConfigurationSection;
 import com.github.smuddgge.squishyconfiguration.memory.MemoryConfigurationSection;
 import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -37,6 +41,8 @@ import java.util.logging.Level;
  */
 public class DeliveryContent implements ConfigurationConvertable<DeliveryContent>, Replicable<DeliveryContent> {
 
+    private static final @NotNull String DEFAULT_LORE_PATH = "delivery.default_lore.";
+
     private final @NotNull List<CozyItem> itemList;
     private @NotNull List<String> commandList;
     private int money;
@@ -56,6 +62,24 @@ public class DeliveryContent implements ConfigurationConvertable<DeliveryContent
         this.item = null;
     }
 
+    /**
+     * Used to create a copy of a delivery content.
+     * The lists are copied, so they can be changed
+     * without changing the original content.
+     * The items to give are shared as they are only read,
+     * but the custom item is copied as it is changed
+     * when placeholders are parsed.
+     *
+     * @param content The content to copy.
+     */
+    public DeliveryContent(@NotNull DeliveryContent content) {
+        this.itemList = new ArrayList<>(content.itemList);
+        this.commandList = new ArrayList<>(content.commandList);
+        this.money = content.money;
+        this.lore = new ArrayList<>(content.lore);
+        this.item = content.item == null ? null : new CozyItem(content.item.create().clone());
+    }
+
     /**
      * Used to get the instance of
      * the item list.
@@ -128,57 +152,52 @@ public class DeliveryContent implements ConfigurationConvertable<DeliveryContent
      * @return The default lore.
      */
     public @NotNull List<String> getDefaultLore() {
-
-        // Get the default lore section.
-        ConfigurationSection section = CozyDeliveries.getAPI().orElseThrow()
-                .getConfiguration().getSection("delivery").getSection("default_lore");
-
-        // Get the base lore string formatting.
-        String loreString = section.getAdaptedString("format", "\n", "{money}\n{items}\n{commands}")
-                .replace("{money}",
-                        this.money > 0
-                                ? section.getAdaptedString("money", "\n", "&7Money &a{money}")
-                                .replace("{money}", Integer.toString(this.money))
-                                : ""
-                )
-                .replace("{items}",
-                        !this.itemList.isEmpty()
-                                ? section.getAdaptedString("items.format", "\n", "&7Items\n{items}")
-                                .replace("{items}", this.getItemLore(section))
-                                : ""
-                )
-                .replace("{commands}",
-                        !this.commandList.isEmpty()
-                                ? section.getAdaptedString("commands.format", "\n", "&7Commands\n{commands}")
-                                .replace("{commands}", this.getCommandLore(section))
-                                : ""
-                );
+        PlaceholderRegistry registry = CozyDeliveries.getAPI().orElseThrow().getPlaceholderRegistry();
+        PlaceholderContext context = PlaceholderContext.of(this);
+
+        // Render the base lore in a single pass.
+        String loreString = registry.getTemplate(DEFAULT_LORE_PATH + "format", "{money}\n{items}\n{commands}")
+                .render(context, (placeholder, ignored) -> switch (placeholder) {
+                    case "money" -> this.money > 0
+                            ? registry.getTemplate(DEFAULT_LORE_PATH + "money", "&7Money &a{money}")
+                            .render(context, (name, unused) -> name.equals("money") ? Integer.toString(this.money) : null)
+                            : "";
+                    case "items" -> !this.itemList.isEmpty()
+                            ? registry.getTemplate(DEFAULT_LORE_PATH + "items.format", "&7Items\n{items}")
+                            .render(context, (name, unused) -> name.equals("items") ? this.getItemLore(registry, context) : null)
+                            : "";
+                    case "commands" -> !this.commandList.isEmpty()
+                            ? registry.getTemplate(DEFAULT_LORE_PATH + "commands.format", "&7Commands\n{commands}")
+                            .render(context, (name, unused) -> name.equals("commands") ? this.getCommandLore(registry, context) : null)
+                            : "";
+                    default -> null;
+                });
 
         return List.of(loreString.split("\n"));
     }
 
-    private @NotNull String getItemLore(@NotNull ConfigurationSection section) {
-        List<String> lore = new ArrayList<>();
+    private @NotNull String getItemLore(@NotNull PlaceholderRegistry registry, @NotNull PlaceholderContext context) {
+        PlaceholderTemplate template = registry.getTemplate(DEFAULT_LORE_PATH + "items.items", "&7- &f{item}");
+        StringBuilder builder = new StringBuilder();
 
         for (CozyItem item : this.itemList) {
-            lore.add(section.getAdaptedString("items.items", "\n", "&7- &f{item}")
-                    .replace("{item}", item.getMaterial().name())
-            );
+            if (!builder.isEmpty()) builder.append("\n");
+            template.render(builder, context, (name, unused) -> name.equals("item") ? item.getMaterial().name() : null);
         }
 
-        return String.join("\n", lore);
+        return builder.toString();
     }
 
-    private @NotNull String getCommandLore(@NotNull ConfigurationSection section) {
-        List<String> lore = new ArrayList<>();
+    private @NotNull String getCommandLore(@NotNull PlaceholderRegistry registry, @NotNull PlaceholderContext context) {
+        PlaceholderTemplate template = registry.getTemplate(DEFAULT_LORE_PATH + "commands.commands", "&7- &f{command}");
+        StringBuilder builder = new StringBuilder();
 
         for (String command : this.commandList) {
-            lore.add(section.getAdaptedString("commands.commands", "\n", "&7- &f{command}")
-                    .replace("{command}", command)
-            );
+            if (!builder.isEmpty()) builder.append("\n");
+            template.render(builder, context, (name, unused) -> name.equals("command") ? command : null);
         }
 
-        return String.join("\n", lore);
+        return builder.toString();
     }
 
     /**
@@ -246,6 +265,18 @@ public class DeliveryContent implements ConfigurationConvertable<DeliveryContent
         return this;
     }
 
+    /**
+     * Used to set the specific lore for this delivery.
+     * If the lore is empty the default lore is used.
+     *
+     * @param lore The list of lore.
+     * @return This instance.
+     */
+    public @NotNull DeliveryContent setLore(@NotNull List<String> lore) {
+        this.lore = lore;
+        return this;
+    }
+
     /**
      * Used to set the custom item that should
      * be used as the item interface for this
@@ -267,8 +298,7 @@ public class DeliveryContent implements ConfigurationConvertable<DeliveryContent
      * @return True if they have enough inventory space.
      */
     public boolean hasInventorySpace(@NotNull PlayerUser user) {
-        return this.itemList.size() <= Arrays.stream(user.getPlayer().getInventory().getContents())
-                .filter(Objects::isNull).toList().size();
+        return this.itemList.size() <= DeliveryContent.getEmptySlots(user);
     }
 
     /**
@@ -297,6 +327,53 @@ public class DeliveryContent implements ConfigurationConvertable<DeliveryContent
         return true;
     }
 
+    /**
+     * Used to get the number of empty slots
+     * in a player's inventory.
+     * Armor and off-hand slots are not counted.
+     *
+     * @param user The instance of the user.
+     * @return The number of empty slots.
+     */
+    public static int getEmptySlots(@NotNull PlayerUser user) {
+        int empty = 0;
+        for (ItemStack item : user.getPlayer().getInventory().getStorageContents()) {
+            if (item == null || item.getType().equals(Material.AIR)) empty++;
+        }
+        return empty;
+    }
+
+    /**
+     * Used to give many contents to a player at once.
+     * The items are added to the inventory in a single pass
+     * and the money is given in one payment.
+     * Items that do not fit are dropped at the player.
+     *
+     * @param user        The instance of the user.
+     * @param contentList The contents to give.
+     */
+    public static void giveAll(@NotNull PlayerUser user, @NotNull List<DeliveryContent> contentList) {
+        List<ItemStack> itemList = new ArrayList<>();
+        List<String> commandList = new ArrayList<>();
+        int money = 0;
+
+        for (DeliveryContent content : contentList) {
+            content.itemList.forEach(item -> itemList.add(item.duplicate()));
+            commandList.addAll(content.commandList);
+            money += content.money;
+        }
+
+        // Give the player the items.
+        Map<Integer, ItemStack> leftOver = user.getPlayer().getInventory().addItem(itemList.toArray(new ItemStack[0]));
+        leftOver.values().forEach(item -> user.getPlayer().getWorld().dropItem(user.getPlayer().getLocation(), item));
+
+        // Execute the commands in terms of the player.
+        if (!commandList.isEmpty()) user.runCommandsAsOp(commandList);
+
+        // Give the player the money.
+        if (money > 0) user.giveMoney(money);
+    }
+
     @Override
     public DeliveryContent duplicate() {
         return new DeliveryContent().convert(this.convert());
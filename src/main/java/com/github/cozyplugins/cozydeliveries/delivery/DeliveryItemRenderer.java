@@ -0,0 +1,213 @@
+/*
+ * CozyDeliveries - An item and money delivery service for a minecraft server.
+ * Copyright (C) 2024  Smuddgge
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.cozyplugins.cozydeliveries.delivery;
+
+import com.github.cozyplugins.cozydeliveries.CozyDeliveries;
+import com.github.cozyplugins.cozylibrary.item.CozyItem;
+import com.github.smuddgge.squishyconfiguration.interfaces.ConfigurationSection;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+
+/**
+ * Represents the delivery item renderer.
+ * Used to create the items shown for deliveries in menus.
+ * <p>
+ * The default item is converted once when the configuration
+ * is reloaded. Each delivery keeps its rendered item, with
+ * every placeholder apart from {expire} already replaced,
+ * so only the expire time is rendered again.
+ */
+public class DeliveryItemRenderer {
+
+    private static final @NotNull String EXPIRE = "{expire}";
+
+    private volatile @NotNull CozyItem defaultItem;
+    private volatile int generation;
+
+    /**
+     * Represents a rendered delivery item.
+     * If the item contains the expire placeholder the
+     * last rendered item is kept with the expire time
+     * it was rendered for.
+     */
+    static class Rendered {
+
+        private final int generation;
+        private final @NotNull ItemStack base;
+        private final @Nullable String[] nameParts;
+        private final @Nullable List<String[]> loreParts;
+
+        private @Nullable String lastExpire;
+        private @Nullable ItemStack last;
+
+        private Rendered(int generation, @NotNull ItemStack base, @Nullable String[] nameParts, @Nullable List<String[]> loreParts) {
+            this.generation = generation;
+            this.base = base;
+            this.nameParts = nameParts;
+            this.loreParts = loreParts;
+        }
+
+        private boolean hasExpire() {
+            return this.nameParts != null || this.loreParts != null;
+        }
+    }
+
+    /**
+     * Used to create a new delivery item renderer.
+     * {@link #reload(ConfigurationSection)} should be called
+     * before rendering, otherwise a barrel is used.
+     */
+    public DeliveryItemRenderer() {
+        this.defaultItem = new CozyItem(Material.BARREL);
+        this.generation = 0;
+    }
+
+    /**
+     * Used to reload the default item.
+     * Deliveries that have already been rendered
+     * are rendered again the next time they are shown.
+     *
+     * @param section The default item's configuration section.
+     */
+    public void reload(@NotNull ConfigurationSection section) {
+        CozyItem item = new CozyItem().convert(section);
+
+        // Check if the default item is air.
+        if (item.getMaterial().equals(Material.AIR)) {
+            CozyDeliveries.getPlugin().getLogger().log(
+                    Level.WARNING,
+                    "The default delivery item is material AIR, a barrel will be used instead."
+            );
+            item = new CozyItem(Material.BARREL);
+        }
+
+        this.defaultItem = item;
+        this.generation++;
+    }
+
+    /**
+     * Used to get a copy of the default item.
+     *
+     * @return The default item.
+     */
+    public @NotNull CozyItem getDefaultItem() {
+        return new CozyItem(this.defaultItem.create().clone());
+    }
+
+    /**
+     * Used to render the item shown for a delivery.
+     * The returned item may be shared between renders
+     * and should not be changed.
+     *
+     * @param delivery The instance of the delivery.
+     * @return The rendered item.
+     */
+    public @NotNull ItemStack render(@NotNull Delivery delivery) {
+        Rendered rendered = delivery.getRendered();
+
+        // Check if the delivery needs rendering.
+        if (rendered == null || rendered.generation != this.generation) {
+            rendered = this.compile(delivery);
+            delivery.setRendered(rendered);
+        }
+
+        if (!rendered.hasExpire()) return rendered.base;
+
+        // Only render the item again when the expire time has changed.
+        final String expire = delivery.getExpireTimeFormatted();
+        synchronized (rendered) {
+            if (expire.equals(rendered.lastExpire) && rendered.last != null) return rendered.last;
+
+            CozyItem item = new CozyItem(rendered.base.clone());
+            if (rendered.nameParts != null) item.setName(DeliveryItemRenderer.join(rendered.nameParts, expire));
+            if (rendered.loreParts != null) {
+                String[] lore = new String[rendered.loreParts.size()];
+                for (int i = 0; i < lore.length; i++) {
+                    lore[i] = DeliveryItemRenderer.join(rendered.loreParts.get(i), expire);
+                }
+                item.setLore(lore);
+            }
+
+            rendered.lastExpire = expire;
+            rendered.last = item.create();
+            return rendered.last;
+        }
+    }
+
+    private @NotNull Rendered compile(@NotNull Delivery delivery) {
+        final boolean expires = delivery.hasExpireDate();
+        CozyItem item = this.getItem(delivery);
+
+        // Replace every placeholder apart from the expire time.
+        final String name = delivery.parsePlaceholders(item.getName(), !expires);
+        item.setName(name);
+
+        List<String> lore = new ArrayList<>();
+        if (!item.getLore().isEmpty()) {
+            lore = List.of(delivery.parsePlaceholders(String.join("\n", item.getLore()), !expires).split("\n"));
+            item.setLore(lore.toArray(new String[0]));
+        }
+
+        // Split the lines containing the expire time.
+        String[] nameParts = name.contains(EXPIRE) ? name.split("\\{expire}", -1) : null;
+
+        List<String[]> loreParts = null;
+        if (lore.stream().anyMatch(line -> line.contains(EXPIRE))) {
+            loreParts = new ArrayList<>();
+            for (String line : lore) {
+                loreParts.add(line.split("\\{expire}", -1));
+            }
+        }
+
+        return new Rendered(this.generation, item.create(), nameParts, loreParts);
+    }
+
+    private @NotNull CozyItem getItem(@NotNull Delivery delivery) {
+        CozyItem item = delivery.getDeliveryContent().getItem();
+        if (item == null) return this.getDefaultItem();
+
+        // Check if the item is air.
+        if (item.getMaterial().equals(Material.AIR)) {
+            CozyDeliveries.getPlugin().getLogger().log(
+                    Level.WARNING,
+                    "Attempted to get the item assosicated to {delivery}, but it returned as material AIR."
+                            .replace("{delivery}", delivery.getDeliveryContent().toString())
+            );
+            delivery.getDeliveryContent().setCustomItem(null);
+            return this.getDefaultItem();
+        }
+
+        return new CozyItem(item.create().clone());
+    }
+
+    private static @NotNull String join(@NotNull String[] parts, @NotNull String expire) {
+        if (parts.length == 1) return parts[0];
+
+        StringBuilder builder = new StringBuilder(parts[0]);
+        for (int i = 1; i < parts.length; i++) {
+            builder.append(expire).append(parts[i]);
+        }
+        return builder.toString();
+    }
+}
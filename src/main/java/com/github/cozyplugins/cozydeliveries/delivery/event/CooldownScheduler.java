@@ -0,0 +1,310 @@
+/*
+ * CozyDeliveries - An item and money delivery service for a minecraft server.
+ * Copyright (C) 2024  Smuddgge
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.cozyplugins.cozydeliveries.delivery.event;
+
+import com.github.cozyplugins.cozydeliveries.CozyDeliveries;
+import com.github.cozyplugins.cozydeliveries.database.CooldownRecord;
+import com.github.cozyplugins.cozydeliveries.database.CooldownTable;
+import com.github.cozyplugins.cozydeliveries.database.DatabaseExecutor;
+import com.github.cozyplugins.cozydeliveries.database.migration.SchemaMigration;
+import com.github.smuddgge.squishydatabase.interfaces.Database;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+/**
+ * Represents the cooldown scheduler.
+ * Used to give cooldown event deliveries when
+ * a player's cooldown ends.
+ * <p>
+ * A player's cooldown is read from the database once
+ * when they join. The time it ends is kept in a queue
+ * ordered by that time, and a single task wakes up
+ * when the first cooldown ends.
+ */
+public class CooldownScheduler {
+
+    private final @NotNull Plugin plugin;
+    private final @NotNull Database database;
+    private final @NotNull DatabaseExecutor executor;
+    private final @NotNull SchemaMigration schemaMigration;
+    private final @NotNull PriorityQueue<Entry> queue;
+    private final @NotNull Map<UUID, Map<String, Entry>> playerMap;
+
+    private @Nullable BukkitTask task;
+    private long taskTimeStamp;
+
+    /**
+     * Represents a player's cooldown for an event.
+     * An entry is only valid while it is the
+     * entry kept in the player map.
+     */
+    private static class Entry {
+
+        private final long timeStampDue;
+        private final long lastDeliveryTimeStamp;
+        private final @NotNull UUID playerUuid;
+        private final @NotNull String eventIdentifier;
+
+        private Entry(long timeStampDue, long lastDeliveryTimeStamp,
+                      @NotNull UUID playerUuid, @NotNull String eventIdentifier) {
+
+            this.timeStampDue = timeStampDue;
+            this.lastDeliveryTimeStamp = lastDeliveryTimeStamp;
+            this.playerUuid = playerUuid;
+            this.eventIdentifier = eventIdentifier;
+        }
+    }
+
+    /**
+     * Used to create a new cooldown scheduler.
+     *
+     * @param plugin          The instance of the plugin used to schedule tasks.
+     * @param database        The database containing the cooldowns.
+     * @param executor        The executor used to load cooldowns in the background.
+     * @param schemaMigration The migration used to move
+     *                        version 1 cooldowns when they are loaded.
+     */
+    public CooldownScheduler(@NotNull Plugin plugin,
+                             @NotNull Database database,
+                             @NotNull DatabaseExecutor executor,
+                             @NotNull SchemaMigration schemaMigration) {
+
+        this.plugin = plugin;
+        this.database = database;
+        this.executor = executor;
+        this.schemaMigration = schemaMigration;
+        this.queue = new PriorityQueue<>(Comparator.comparingLong(entry -> entry.timeStampDue));
+        this.playerMap = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Used to load a player's cooldown for an event
+     * in the background and schedule when it ends.
+     *
+     * @param playerUuid    The player's uuid.
+     * @param deliveryEvent The cooldown delivery event.
+     */
+    public void loadAsync(@NotNull UUID playerUuid, @NotNull DeliveryEvent deliveryEvent) {
+        this.playerMap.computeIfAbsent(playerUuid, uuid -> new ConcurrentHashMap<>());
+
+        this.executor.execute(() -> {
+            try {
+                CooldownRecord record = this.getRecord(playerUuid, deliveryEvent.getIdentifier());
+                this.schedule(playerUuid, deliveryEvent, record.getLastDeliveryTimeStampMillis());
+
+            } catch (Exception exception) {
+                this.plugin.getLogger().log(Level.WARNING,
+                        "Failed to load the cooldown " + deliveryEvent.getIdentifier() + " for " + playerUuid, exception
+                );
+            }
+        }).exceptionally(throwable -> {
+            this.plugin.getLogger().log(Level.WARNING,
+                    "Failed to load the cooldown " + deliveryEvent.getIdentifier() + " for " + playerUuid, throwable
+            );
+            return null;
+        });
+    }
+
+    /**
+     * Used to schedule the players' cooldowns again
+     * after the delivery events are reloaded.
+     * <p>
+     * Cooldowns of events that were removed, or are no longer
+     * cooldown events, are stopped. The rest are scheduled again
+     * from their last delivery, so a changed cooldown length is used.
+     * Cooldown events that are new are loaded from the database.
+     *
+     * @param eventList The reloaded delivery events.
+     */
+    public void reload(@NotNull List<DeliveryEvent> eventList) {
+        List<DeliveryEvent> cooldownEventList = eventList.stream()
+                .filter(deliveryEvent -> deliveryEvent.getType() instanceof CooldownDeliveryEventType)
+                .toList();
+
+        Set<String> identifierSet = new HashSet<>();
+        for (DeliveryEvent deliveryEvent : cooldownEventList) {
+            identifierSet.add(deliveryEvent.getIdentifier());
+        }
+
+        for (Map.Entry<UUID, Map<String, Entry>> playerEntry : this.playerMap.entrySet()) {
+            final UUID playerUuid = playerEntry.getKey();
+            final Map<String, Entry> entryMap = playerEntry.getValue();
+
+            // Stop the cooldowns of events that no longer exist.
+            // Their entries left in the queue are no longer valid.
+            entryMap.keySet().retainAll(identifierSet);
+
+            for (DeliveryEvent deliveryEvent : cooldownEventList) {
+                Entry entry = entryMap.get(deliveryEvent.getIdentifier());
+
+                if (entry == null) {
+                    this.loadAsync(playerUuid, deliveryEvent);
+                    continue;
+                }
+
+                // Replaces the entry, so the old one in the queue is skipped.
+                this.schedule(playerUuid, deliveryEvent, entry.lastDeliveryTimeStamp);
+            }
+        }
+    }
+
+    /**
+     * Used to stop scheduling a player's cooldowns.
+     *
+     * @param playerUuid The player's uuid.
+     */
+    public void removePlayer(@NotNull UUID playerUuid) {
+        this.playerMap.remove(playerUuid);
+    }
+
+    /**
+     * Used to get the number of cooldowns
+     * waiting in the queue.
+     * This can include cooldowns of players that left,
+     * as they are only removed when they are due.
+     *
+     * @return The number of cooldowns.
+     */
+    public int getSize() {
+        synchronized (this.queue) {
+            return this.queue.size();
+        }
+    }
+
+    /**
+     * Used to stop the scheduler.
+     */
+    public void stop() {
+        synchronized (this.queue) {
+            if (this.task != null) this.task.cancel();
+            this.task = null;
+            this.queue.clear();
+        }
+        this.playerMap.clear();
+    }
+
+    private @NotNull CooldownRecord getRecord(@NotNull UUID playerUuid, @NotNull String eventIdentifier) {
+        return this.database.getTable(CooldownTable.class)
+                .getCooldownRecord(playerUuid, eventIdentifier)
+                .or(() -> this.schemaMigration.migrateCooldown(playerUuid, eventIdentifier))
+                .orElseGet(() -> new CooldownRecord(playerUuid, eventIdentifier, 0L));
+    }
+
+    private void schedule(@NotNull UUID playerUuid, @NotNull DeliveryEvent deliveryEvent, long lastDeliveryTimeStamp) {
+        final long cooldown = deliveryEvent.getConfigurationSection().getInteger("cooldown_seconds", 86400) * 1000L;
+        final Entry entry = new Entry(lastDeliveryTimeStamp + cooldown, lastDeliveryTimeStamp, playerUuid, deliveryEvent.getIdentifier());
+
+        // Check if the player has left.
+        Map<String, Entry> entryMap = this.playerMap.get(playerUuid);
+        if (entryMap == null) return;
+        entryMap.put(deliveryEvent.getIdentifier(), entry);
+
+        synchronized (this.queue) {
+            this.queue.add(entry);
+            this.wakeUpForFirst();
+        }
+    }
+
+    /**
+     * Used to make sure the task will run when
+     * the first cooldown in the queue ends.
+     * Must be called while holding the queue.
+     */
+    private void wakeUpForFirst() {
+        Entry first = this.queue.peek();
+        if (first == null) return;
+
+        // Check if the task already runs in time.
+        if (this.task != null && this.taskTimeStamp <= first.timeStampDue) return;
+        if (this.task != null) this.task.cancel();
+
+        final long delayTicks = Math.max(1L, (first.timeStampDue - System.currentTimeMillis() + 49L) / 50L);
+        this.taskTimeStamp = first.timeStampDue;
+        this.task = Bukkit.getScheduler().runTaskLaterAsynchronously(this.plugin, this::runDue, delayTicks);
+    }
+
+    private void runDue() {
+        final long now = System.currentTimeMillis();
+        List<Entry> dueList = new ArrayList<>();
+
+        synchronized (this.queue) {
+            while (!this.queue.isEmpty() && this.queue.peek().timeStampDue <= now) {
+                dueList.add(this.queue.poll());
+            }
+
+            this.task = null;
+            this.wakeUpForFirst();
+        }
+
+        for (Entry entry : dueList) {
+            try {
+                this.give(entry);
+            } catch (Exception exception) {
+                this.plugin.getLogger().log(Level.WARNING,
+                        "Failed to give the cooldown " + entry.eventIdentifier + " to " + entry.playerUuid, exception
+                );
+            }
+        }
+    }
+
+    private void give(@NotNull Entry entry) {
+
+        // Check if the entry is still valid.
+        Map<String, Entry> entryMap = this.playerMap.get(entry.playerUuid);
+        if (entryMap == null || entryMap.get(entry.eventIdentifier) != entry) return;
+
+        // Check if the event still exists.
+        DeliveryEvent deliveryEvent = CozyDeliveries.getAPI().orElseThrow()
+                .getEventConfiguration()
+                .getEvent(entry.eventIdentifier)
+                .orElse(null);
+
+        if (deliveryEvent == null) {
+            entryMap.remove(entry.eventIdentifier);
+            return;
+        }
+
+        // First update the database to stop duplication bugs.
+        CooldownRecord record = new CooldownRecord(entry.playerUuid, entry.eventIdentifier, 0L)
+                .setLastDeliveryTimeStampToNow();
+        this.database.getTable(CooldownTable.class).insertRecord(record);
+
+        // Give the delivery on the main thread.
+        Bukkit.getScheduler().runTask(this.plugin, () -> deliveryEvent.getType()
+                .getDeliveryEventHandler()
+                .onEvent(deliveryEvent, entry.playerUuid)
+        );
+
+        // Schedule the next delivery.
+        this.schedule(entry.playerUuid, deliveryEvent, record.getLastDeliveryTimeStampMillis());
+    }
+}
@@ -19,7 +19,6 @@
 package com.github.cozyplugins.cozydeliveries.delivery.event;
 
 import com.github.cozyplugins.cozydeliveries.CozyDeliveries;
-import com.github.cozyplugins.cozydeliveries.delivery.event.type.DefaultDeliveryEventType;
 import com.github.cozyplugins.cozylibrary.indicator.Replicable;
 import com.github.cozyplugins.cozylibrary.indicator.Savable;
 import com.github.smuddgge.squishyconfiguration.indicator.ConfigurationConvertable;
@@ -27,8 +26,8 @@ import com.github.smuddgge.squishyconfiguration.interfaces.ConfigurationSection;
 import com.github.smuddgge.squishyconfiguration.memory.MemoryConfigurationSection;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
-import java.util.Optional;
 import java.util.logging.Level;
 
 /**
@@ -38,6 +37,8 @@ public class DeliveryEvent implements ConfigurationConvertable<DeliveryEvent>, R
 
     private final @NotNull String identifier;
     private @NotNull ConfigurationSection section;
+    private @NotNull WeightedContentTable contentTable;
+    private @NotNull DeliveryEventType type;
 
     /**
      * Used to create a new delivery event.
@@ -47,6 +48,8 @@ public class DeliveryEvent implements ConfigurationConvertable<DeliveryEvent>, R
     public DeliveryEvent(@NotNull String identifier) {
         this.identifier = identifier;
         this.section = new MemoryConfigurationSection(new LinkedHashMap<>());
+        this.contentTable = WeightedContentTable.empty();
+        this.type = DeliveryEventTypeRegistry.getDefault();
     }
 
     /**
@@ -68,23 +71,51 @@ public class DeliveryEvent implements ConfigurationConvertable<DeliveryEvent>, R
         return this.section;
     }
 
+    /**
+     * Used to get the table of contents
+     * this event can give.
+     * The table is built when the event is
+     * loaded from the configuration.
+     *
+     * @return The content table.
+     */
+    public @NotNull WeightedContentTable getContentTable() {
+        return this.contentTable;
+    }
+
     /**
      * Used to get the event type used
      * in this event.
      * This can be used to get the event handler.
+     * The type is resolved when the event is
+     * loaded from the configuration.
      *
      * @return The event type.
      */
     public @NotNull DeliveryEventType getType() {
-        Optional<DeliveryEventType> optional = DeliveryEventType.getEventType(this.section.getString("type", "default"));
-        return optional.orElseGet(this::getDefaultWithWarning);
+        return this.type;
+    }
+
+    private @NotNull DeliveryEventType resolveType() {
+        final String identifier = this.section.getString("type", DeliveryEventTypeRegistry.DEFAULT_IDENTIFIER);
+        return DeliveryEventTypeRegistry.get(identifier).orElseGet(() -> {
+            CozyDeliveries.getPlugin().getLogger().log(Level.WARNING,
+                    "Incorrect delivery event type for " + this.identifier + ". It was " + identifier
+            );
+            return DeliveryEventTypeRegistry.getDefault();
+        });
     }
 
-    private @NotNull DefaultDeliveryEventType getDefaultWithWarning() {
-        CozyDeliveries.getPlugin().getLogger().log(Level.WARNING,
-                "Incorrect delivery event type for " + this.identifier + ". It was " + this.section.getString("type", "null")
-        );
-        return new DefaultDeliveryEventType();
+    private @NotNull WeightedContentTable createContentTable() {
+        try {
+            return WeightedContentTable.parse(this.section.getListString("deliveries", new ArrayList<>()));
+
+        } catch (IllegalArgumentException exception) {
+            CozyDeliveries.getPlugin().getLogger().log(Level.WARNING,
+                    "Incorrect deliveries for event " + this.identifier + ". " + exception.getMessage()
+            );
+            return WeightedContentTable.empty();
+        }
     }
 
     @Override
@@ -100,6 +131,8 @@ public class DeliveryEvent implements ConfigurationConvertable<DeliveryEvent>, R
     @Override
     public @NotNull DeliveryEvent convert(@NotNull ConfigurationSection section) {
         this.section = section;
+        this.contentTable = this.createContentTable();
+        this.type = this.resolveType();
         return this;
     }
 
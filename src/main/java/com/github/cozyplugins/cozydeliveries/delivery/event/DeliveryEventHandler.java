@@ -18,8 +18,10 @@
 
 package com.github.cozyplugins.cozydeliveries.delivery.event;
 
+import com.github.cozyplugins.cozydeliveries.delivery.Delivery;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -36,4 +38,18 @@ public interface DeliveryEventHandler {
      * @param playerUuid The instance of the player uuid to give the delivery too.
      */
     void onEvent(@NotNull DeliveryEvent event, @NotNull UUID playerUuid);
+
+    /**
+     * Used to create the deliveries the event
+     * should give without sending them.
+     * This can be called off the main thread, so it
+     * should not use the bukkit api.
+     *
+     * @param event      The instance of the delivery event.
+     * @param playerUuid The instance of the player uuid the deliveries are for.
+     * @return The deliveries to send.
+     */
+    default @NotNull List<Delivery> createDeliveries(@NotNull DeliveryEvent event, @NotNull UUID playerUuid) {
+        return List.of();
+    }
 }
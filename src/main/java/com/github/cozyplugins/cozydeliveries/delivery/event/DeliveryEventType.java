@@ -18,8 +18,9 @@
 
 package com.github.cozyplugins.cozydeliveries.delivery.event;
 
-import com.github.cozyplugins.cozydeliveries.delivery.event.type.CooldownDeliveryEventType;
-import com.github.cozyplugins.cozydeliveries.delivery.event.type.FirstJoinDeliveryEventType;
+import com.github.cozyplugins.cozydeliveries.CozyDeliveries;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerKickEvent;
 import org.jetbrains.annotations.NotNull;
@@ -30,6 +31,10 @@ import java.util.Optional;
  * Represents the delivery event type.
  * Contains different types that can be specified in
  * the event configuration directory.
+ * <p>
+ * A single instance of each type is kept in the
+ * {@link DeliveryEventTypeRegistry} and shared by every
+ * event that uses it.
  */
 public interface DeliveryEventType {
 
@@ -41,13 +46,66 @@ public interface DeliveryEventType {
      */
     @NotNull DeliveryEventHandler getDeliveryEventHandler();
 
+    /**
+     * Used to check if this type should be
+     * called when a player joins the server.
+     * Events with types that do not listen are
+     * skipped when a player joins.
+     *
+     * @return True if the type listens to joins.
+     */
+    default boolean isJoinListener() {
+        return true;
+    }
+
+    /**
+     * Used to check if this type should be
+     * called when a player leaves the server.
+     *
+     * @return True if the type listens to leaves.
+     */
+    default boolean isLeaveListener() {
+        return true;
+    }
+
     /**
      * Called when a player joins the server.
+     * This is called off the main thread, so the bukkit
+     * api should not be used. Deliveries that should be
+     * given can be added to the context, they are sent
+     * together once every event has been called.
+     * <p>
+     * By default this calls {@link #onPlayerJoin(PlayerJoinEvent, DeliveryEvent)}
+     * on the main thread, so types written before the
+     * join context existed still work.
+     *
+     * @param context       The player's join context.
+     * @param deliveryEvent The instance of the delivery event.
+     */
+    default void onPlayerJoin(@NotNull PlayerJoinContext context, @NotNull DeliveryEvent deliveryEvent) {
+        Bukkit.getScheduler().runTask(CozyDeliveries.getPlugin(), () -> {
+
+            // Check if the player is still online.
+            Player player = Bukkit.getPlayer(context.getPlayerUuid());
+            if (player == null) return;
+
+            this.onPlayerJoin(new PlayerJoinEvent(player, (String) null), deliveryEvent);
+        });
+    }
+
+    /**
+     * Called on the main thread when a player joins the server.
+     * Only called if {@link #onPlayerJoin(PlayerJoinContext, DeliveryEvent)}
+     * is not overridden.
      *
      * @param event         The instance of the event.
      * @param deliveryEvent The instance of the delivery event.
+     * @deprecated Override {@link #onPlayerJoin(PlayerJoinContext, DeliveryEvent)}
+     * instead, so the event is handled off the main thread.
      */
-    void onPlayerJoin(@NotNull PlayerJoinEvent event, @NotNull DeliveryEvent deliveryEvent);
+    @Deprecated
+    default void onPlayerJoin(@NotNull PlayerJoinEvent event, @NotNull DeliveryEvent deliveryEvent) {
+    }
 
     /**
      * Called when a player leaves the server.
@@ -66,12 +124,6 @@ public interface DeliveryEventType {
      * that matches the identifier.
      */
     static @NotNull Optional<DeliveryEventType> getEventType(@NotNull String identifier) {
-        if (identifier.equalsIgnoreCase("cooldown")) {
-            return Optional.of(new CooldownDeliveryEventType());
-        }
-        if (identifier.equalsIgnoreCase("first_join")) {
-            return Optional.of(new FirstJoinDeliveryEventType());
-        }
-        return Optional.empty();
+        return DeliveryEventTypeRegistry.get(identifier);
     }
 }
@@ -0,0 +1,105 @@
+/*
+ * CozyDeliveries - An item and money delivery service for a minecraft server.
+ * Copyright (C) 2024  Smuddgge
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.github.cozyplugins.cozydeliveries.delivery.event;
+
+import com.github.cozyplugins.cozydeliveries.delivery.event.type.CooldownDeliveryEventType;
+import com.github.cozyplugins.cozydeliveries.delivery.event.type.DefaultDeliveryEventType;
+import com.github.cozyplugins.cozydeliveries.delivery.event.type.FirstJoinDeliveryEventType;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Represents the delivery event type registry.
+ * Contains a single instance of each event type
+ * that can be specified in the event configuration directory.
+ * <p>
+ * Other plugins can register their own types. Events are
+ * bound to their type when the event configuration
+ * directory is reloaded, so a type should be registered
+ * before the directory is reloaded.
+ */
+public final class DeliveryEventTypeRegistry {
+
+    /**
+     * The identifier of the type used when
+     * the type is not stated.
+     */
+    public static final @NotNull String DEFAULT_IDENTIFIER = "default";
+
+    private static final @NotNull Map<String, DeliveryEventType> TYPE_MAP = new ConcurrentHashMap<>();
+
+    static {
+        DeliveryEventTypeRegistry.register(DEFAULT_IDENTIFIER, new DefaultDeliveryEventType());
+        DeliveryEventTypeRegistry.register("cooldown", new CooldownDeliveryEventType());
+        DeliveryEventTypeRegistry.register("first_join", new FirstJoinDeliveryEventType());
+    }
+
+    private DeliveryEventTypeRegistry() {
+    }
+
+    /**
+     * Used to register an event type.
+     * If a type is already registered with the
+     * identifier it will be replaced.
+     *
+     * @param identifier The identifier used in the configuration.
+     * @param type       The instance of the type.
+     */
+    public static void register(@NotNull String identifier, @NotNull DeliveryEventType type) {
+        TYPE_MAP.put(identifier.toLowerCase(Locale.ROOT), type);
+    }
+
+    /**
+     * Used to unregister an event type.
+     * The default type cannot be unregistered.
+     *
+     * @param identifier The identifier used in the configuration.
+     */
+    public static void unregister(@NotNull String identifier) {
+        final String key = identifier.toLowerCase(Locale.ROOT);
+        if (key.equals(DEFAULT_IDENTIFIER)) return;
+        TYPE_MAP.remove(key);
+    }
+
+    /**
+     * Used to get the event type registered
+     * with an identifier.
+     * The identifier is not case-sensitive.
+     *
+     * @param identifier The identifier to look for.
+     * @return The instance of the event type.
+     */
+    public static @NotNull Optional<DeliveryEventType> get(@NotNull String identifier) {
+        return Optional.ofNullable(TYPE_MAP.get(identifier.toLowerCase(Locale.ROOT)));
+    }
+
+    /**
+     * Used to get the default event type.
+     *
+     * @return The instance of the default event type.
+     */
+    public static @NotNull DeliveryEventType getDefault() {
+        return TYPE_MAP.get(DEFAULT_IDENTIFIER);
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * CozyDeliveries - An item and money delivery service for a minecraft server.
+ * Copyright (C) 2024  Smuddgge
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.github.cozyplugins.cozydeliveries.delivery.event;
+
+import com.github.cozyplugins.cozydeliveries.delivery.Delivery;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Represents a player joining the server.
+ * The player's data is copied on the main thread
+ * so the delivery events can be handled in the background
+ * without using the bukkit player.
+ * <p>
+ * The deliveries added by the events are sent
+ * together once every event has been handled.
+ */
+public class PlayerJoinContext {
+
+    private final @NotNull UUID playerUuid;
+    private final @NotNull String playerName;
+    private final boolean firstJoin;
+    private final long timeStampMillis;
+    private final @NotNull List<Delivery> deliveryList;
+
+    /**
+     * Used to create a new player join context.
+     *
+     * @param playerUuid      The player's uuid.
+     * @param playerName      The player's name.
+     * @param firstJoin       True if this is the first time the player joined.
+     * @param timeStampMillis The time stamp the player joined.
+     */
+    public PlayerJoinContext(@NotNull UUID playerUuid, @NotNull String playerName, boolean firstJoin, long timeStampMillis) {
+        this.playerUuid = playerUuid;
+        this.playerName = playerName;
+        this.firstJoin = firstJoin;
+        this.timeStampMillis = timeStampMillis;
+        this.deliveryList = new ArrayList<>();
+    }
+
+    /**
+     * Used to copy the data needed from a player.
+     * This should be called on the main thread.
+     *
+     * @param player The instance of the player.
+     * @return A new player join context.
+     */
+    public static @NotNull PlayerJoinContext of(@NotNull Player player) {
+        return new PlayerJoinContext(
+                player.getUniqueId(),
+                player.getName(),
+                !player.hasPlayedBefore(),
+                System.currentTimeMillis()
+        );
+    }
+
+    /**
+     * Used to get the player's uuid.
+     *
+     * @return The player's uuid.
+     */
+    public @NotNull UUID getPlayerUuid() {
+        return this.playerUuid;
+    }
+
+    /**
+     * Used to get the player's name.
+     *
+     * @return The player's name.
+     */
+    public @NotNull String getPlayerName() {
+        return this.playerName;
+    }
+
+    /**
+     * Used to check if this is the first time
+     * the player has joined the server.
+     *
+     * @return True if it is the player's first join.
+     */
+    public boolean isFirstJoin() {
+        return this.firstJoin;
+    }
+
+    /**
+     * Used to get the time stamp the player joined.
+     *
+     * @return The time stamp in milliseconds.
+     */
+    public long getTimeStampMillis() {
+        return this.timeStampMillis;
+    }
+
+    /**
+     * Used to add deliveries that should be
+     * sent to the player.
+     *
+     * @param deliveries The deliveries to send.
+     * @return This instance.
+     */
+    public @NotNull PlayerJoinContext addDeliveries(@NotNull Collection<Delivery> deliveries) {
+        this.deliveryList.addAll(deliveries);
+        return this;
+    }
+
+    /**
+     * Used to get the deliveries that will
+     * be sent to the player.
+     *
+     * @return The list of deliveries.
+     */
+    public @NotNull List<Delivery> getDeliveryList() {
+        return this.deliveryList;
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * CozyDeliveries - An item and money delivery service for a minecraft server.
+ * Copyright (C) 2024  Smuddgge
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.cozyplugins.cozydeliveries.delivery.event;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Represents a weighted table of content identifiers.
+ * Used to randomly pick the contents given by a delivery event.
+ * <p>
+ * The table is built with Vose's alias method, so each
+ * pick only needs one random index and one random number.
+ * The chance of an identifier being picked is its weight
+ * divided by the sum of the weights.
+ */
+public class WeightedContentTable {
+
+    private static final @NotNull WeightedContentTable EMPTY =
+            new WeightedContentTable(new String[0], new double[0], new double[0], new int[0]);
+
+    private final @NotNull String[] identifiers;
+    private final @NotNull double[] probabilities;
+    private final @NotNull double[] thresholds;
+    private final @NotNull int[] aliases;
+
+    private WeightedContentTable(@NotNull String[] identifiers,
+                                 @NotNull double[] probabilities,
+                                 @NotNull double[] thresholds,
+                                 @NotNull int[] aliases) {
+
+        this.identifiers = identifiers;
+        this.probabilities = probabilities;
+        this.thresholds = thresholds;
+        this.aliases = aliases;
+    }
+
+    /**
+     * Used to get an empty table.
+     *
+     * @return The empty table.
+     */
+    public static @NotNull WeightedContentTable empty() {
+        return WeightedContentTable.EMPTY;
+    }
+
+    /**
+     * Used to create a table from the list
+     * of deliveries in a delivery event.
+     * Each entry is the content identifier followed
+     * by its weight, for example "common_1 0.5".
+     * If an identifier is listed more than once the
+     * last weight is used.
+     *
+     * @param entryList The list of entries.
+     * @return The instance of the table.
+     * @throws IllegalArgumentException If an entry is not formatted correctly.
+     */
+    public static @NotNull WeightedContentTable parse(@NotNull List<String> entryList) {
+        return WeightedContentTable.create(WeightedContentTable.parseWeights(entryList));
+    }
+
+    /**
+     * Used to read the weights from the list
+     * of deliveries in a delivery event,
+     * without building a table.
+     * The entries are read the same way as {@link #parse(List)}.
+     *
+     * @param entryList The list of entries.
+     * @return The map of identifiers to weights, in list order.
+     * @throws IllegalArgumentException If an entry is not formatted correctly.
+     */
+    public static @NotNull Map<String, Double> parseWeights(@NotNull List<String> entryList) {
+        Map<String, Double> weightMap = new LinkedHashMap<>();
+
+        for (String entry : entryList) {
+            String[] parts = entry.trim().split("\\s+");
+
+            // Check if the entry has an identifier and weight.
+            if (parts.length != 2) throw new IllegalArgumentException(
+                    "Expected \"<content> <weight>\" but it was \"" + entry + "\""
+            );
+
+            final double weight;
+            try {
+                weight = Double.parseDouble(parts[1]);
+            } catch (NumberFormatException exception) {
+                throw new IllegalArgumentException("The weight in \"" + entry + "\" is not a number.");
+            }
+
+            if (!Double.isFinite(weight) || weight < 0) throw new IllegalArgumentException(
+                    "The weight in \"" + entry + "\" must be zero or more."
+            );
+
+            weightMap.put(parts[0], weight);
+        }
+
+        return weightMap;
+    }
+
+    /**
+     * Used to create a table from a map of
+     * content identifiers and weights.
+     * Identifiers with a weight of zero are never picked.
+     *
+     * @param weightMap The map of identifiers to weights.
+     * @return The instance of the table.
+     */
+    public static @NotNull WeightedContentTable create(@NotNull Map<String, Double> weightMap) {
+        List<String> identifierList = new ArrayList<>();
+        List<Double> weightList = new ArrayList<>();
+        double sum = 0D;
+
+        for (Map.Entry<String, Double> entry : weightMap.entrySet()) {
+            if (entry.getValue() <= 0D) continue;
+            identifierList.add(entry.getKey());
+            weightList.add(entry.getValue());
+            sum += entry.getValue();
+        }
+
+        final int size = identifierList.size();
+        if (size == 0) return WeightedContentTable.EMPTY;
+
+        String[] identifiers = identifierList.toArray(new String[0]);
+        double[] probabilities = new double[size];
+        double[] scaled = new double[size];
+        double[] thresholds = new double[size];
+        int[] aliases = new int[size];
+
+        // Scale the weights so the average is 1.
+        for (int i = 0; i < size; i++) {
+            probabilities[i] = weightList.get(i) / sum;
+            scaled[i] = probabilities[i] * size;
+        }
+
+        // Split into the columns below and above the average.
+        int[] small = new int[size];
+        int[] large = new int[size];
+        int smallSize = 0;
+        int largeSize = 0;
+
+        for (int i = 0; i < size; i++) {
+            if (scaled[i] < 1D) small[smallSize++] = i;
+            else large[largeSize++] = i;
+        }
+
+        // Fill each small column with part of a large column.
+        while (smallSize > 0 && largeSize > 0) {
+            final int less = small[--smallSize];
+            final int more = large[--largeSize];
+
+            thresholds[less] = scaled[less];
+            aliases[less] = more;
+
+            scaled[more] = (scaled[more] + scaled[less]) - 1D;
+            if (scaled[more] < 1D) small[smallSize++] = more;
+            else large[largeSize++] = more;
+        }
+
+        // The remaining columns are full, apart from rounding errors.
+        while (largeSize > 0) {
+            final int index = large[--largeSize];
+            thresholds[index] = 1D;
+            aliases[index] = index;
+        }
+
+        while (smallSize > 0) {
+            final int index = small[--smallSize];
+            thresholds[index] = 1D;
+            aliases[index] = index;
+        }
+
+        return new WeightedContentTable(identifiers, probabilities, thresholds, aliases);
+    }
+
+    /**
+     * Used to check if the table has nothing to pick.
+     *
+     * @return True if the table is empty.
+     */
+    public boolean isEmpty() {
+        return this.identifiers.length == 0;
+    }
+
+    /**
+     * Used to get the number of identifiers
+     * that can be picked.
+     *
+     * @return The number of identifiers.
+     */
+    public int getSize() {
+        return this.identifiers.length;
+    }
+
+    /**
+     * Used to get the identifiers that can be picked.
+     *
+     * @return The list of identifiers.
+     */
+    public @NotNull List<String> getIdentifiers() {
+        return List.of(this.identifiers);
+    }
+
+    /**
+     * Used to get the exact chance of an
+     * identifier being picked.
+     *
+     * @param identifier The content identifier.
+     * @return The chance between 0 and 1.
+     */
+    public double getProbability(@NotNull String identifier) {
+        for (int i = 0; i < this.identifiers.length; i++) {
+            if (this.identifiers[i].equals(identifier)) return this.probabilities[i];
+        }
+        return 0D;
+    }
+
+    /**
+     * Used to randomly pick an identifier.
+     *
+     * @return The identifier.
+     * @throws IllegalStateException If the table is empty.
+     */
+    public @NotNull String pick() {
+        return this.pick(ThreadLocalRandom.current());
+    }
+
+    /**
+     * Used to randomly pick an identifier.
+     *
+     * @param random The random number generator to use.
+     * @return The identifier.
+     * @throws IllegalStateException If the table is empty.
+     */
+    public @NotNull String pick(@NotNull Random random) {
+        if (this.isEmpty()) throw new IllegalStateException("Tried to pick from an empty table.");
+
+        final int column = random.nextInt(this.identifiers.length);
+        return random.nextDouble() < this.thresholds[column]
+                ? this.identifiers[column]
+                : this.identifiers[this.aliases[column]];
+    }
+
+    /**
+     * Used to randomly pick a number of identifiers.
+     * The same identifier can be picked more than once.
+     *
+     * @param amount The number of identifiers to pick.
+     * @return The list of identifiers.
+     * Empty if the table is empty.
+     */
+    public @NotNull List<String> pick(int amount) {
+        if (this.isEmpty() || amount <= 0) return new ArrayList<>();
+
+        final Random random = ThreadLocalRandom.current();
+        List<String> list = new ArrayList<>(amount);
+        for (int i = 0; i < amount; i++) {
+            list.add(this.pick(random));
+        }
+        return list;
+    }
+}
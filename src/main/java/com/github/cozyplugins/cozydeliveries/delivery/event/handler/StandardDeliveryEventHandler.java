@@ -23,10 +23,14 @@ import com.github.cozyplugins.cozydeliveries.delivery.Delivery;
 import com.github.cozyplugins.cozydeliveries.delivery.DeliveryContent;
 import com.github.cozyplugins.cozydeliveries.delivery.event.DeliveryEvent;
 import com.github.cozyplugins.cozydeliveries.delivery.event.DeliveryEventHandler;
+import com.github.cozyplugins.cozydeliveries.delivery.event.WeightedContentTable;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 import java.util.logging.Level;
 
 /**
@@ -37,18 +41,27 @@ public class StandardDeliveryEventHandler implements DeliveryEventHandler {
     @Override
     public void onEvent(@NotNull DeliveryEvent event, @NotNull UUID playerUuid) {
 
+        // Send the deliveries.
+        this.createDeliveries(event, playerUuid).forEach(
+                delivery -> CozyDeliveries.getAPI().orElseThrow().sendDelivery(delivery)
+        );
+    }
+
+    @Override
+    public @NotNull List<Delivery> createDeliveries(@NotNull DeliveryEvent event, @NotNull UUID playerUuid) {
+
         // Get the deliveries to choose from.
-        List<String> pickingList = event.getConfigurationSection().getListString("deliveries", new ArrayList<>());
+        WeightedContentTable table = event.getContentTable();
 
-        // Check if the list is empty.
-        if (pickingList.isEmpty()) return;
+        // Check if the table is empty.
+        if (table.isEmpty()) return List.of();
 
         // Create the list of deliveries.
         List<Delivery> deliveryList = new ArrayList<>();
 
         // Add the deliveries.
-        for (int i = 0; i < event.getConfigurationSection().getInteger("amount", 1); i++) {
-            DeliveryContent content = this.pickDeliveryContent(pickingList, playerUuid);
+        for (String identifier : table.pick(event.getConfigurationSection().getInteger("amount", 1))) {
+            DeliveryContent content = this.getDeliveryContent(identifier);
             if (content == null) continue;
 
             // Create the delivery.
@@ -67,46 +80,80 @@ public class StandardDeliveryEventHandler implements DeliveryEventHandler {
             deliveryList.add(delivery);
         }
 
-        // Send the deliveries.
-        deliveryList.forEach(
-                delivery -> CozyDeliveries.getAPI().orElseThrow().sendDelivery(delivery)
-        );
+        return deliveryList;
     }
 
-    public @Nullable DeliveryContent pickDeliveryContent(@NotNull List<String> deliveryIdentnfierList, @NotNull UUID playerUuid) {
-        Map<String, Double> map = this.createMap(deliveryIdentnfierList);
+    /**
+     * Used to randomly pick a delivery content.
+     * Delivery events should use their content table
+     * instead, as this parses the list on every call.
+     *
+     * @param deliveryIdentifierList The list of content identifiers and weights.
+     * @param playerUuid             The player the content is for.
+     * @return The picked content.
+     * Null if the list is empty or the content does not exist.
+     */
+    public @Nullable DeliveryContent pickDeliveryContent(@NotNull List<String> deliveryIdentifierList, @NotNull UUID playerUuid) {
+        WeightedContentTable table = WeightedContentTable.parse(deliveryIdentifierList);
+        if (table.isEmpty()) return null;
+        return this.getDeliveryContent(table.pick());
+    }
 
-        // If the min is 0.02 -> 200 places = 3 -> 1 / (10^(3-1)) = 0.
-        // IF the min is 0.023 -> 2300 places = 4
-        final double minValue = this.getMin(map);
-        final double factor = 1D / minValue;
-        final int places = String.valueOf(factor).length();
+    /**
+     * Used to read the content identifiers and
+     * weights from a delivery event's list.
+     *
+     * @param deliveryIdentifierList The list of content identifiers and weights.
+     * @return The map of identifiers to weights.
+     * @deprecated Use {@link WeightedContentTable#parse(List)}
+     * or {@link WeightedContentTable#parseWeights(List)} instead.
+     */
+    @Deprecated
+    public @NotNull Map<String, Double> createMap(@NotNull List<String> deliveryIdentifierList) {
+        return WeightedContentTable.parseWeights(deliveryIdentifierList);
+    }
 
-        // places = 3 -> 1 / (10^(3-1)) = 0.01 -> 100
-        final double increment = 1D / (Math.pow(10D, places - 1));
-        final double factorIncrement = 1D / increment;
+    /**
+     * Used to get the smallest weight.
+     *
+     * @param deliveryIdentifierMap The map of identifiers to weights.
+     * @return The smallest weight.
+     * @deprecated The weights are no longer rounded,
+     * use {@link WeightedContentTable} instead.
+     */
+    @Deprecated
+    public double getMin(@NotNull Map<String, Double> deliveryIdentifierMap) {
+        double min = deliveryIdentifierMap.values().stream().toList().get(0);
+        for (double number : deliveryIdentifierMap.values()) {
+            min = Math.min(min, number);
+        }
+        return min;
+    }
 
-        // [0.5, 0.5, 0.3] -> (1.3 * 100) == 130
-        final double outOf = this.getSum(map.values()) * factorIncrement;
+    /**
+     * Used to get the identifier at a place
+     * between 0 and the sum of the weights.
+     *
+     * @param randomPlace The place.
+     * @param map         The map of identifiers to weights.
+     * @return The identifier.
+     * Null if the place is past the sum of the weights.
+     * @deprecated Use {@link WeightedContentTable#pick()} instead.
+     */
+    @Deprecated
+    public @Nullable String getIdentifierForPlace(double randomPlace, @NotNull Map<String, Double> map) {
+        double currentPlace = 0D;
 
-        // Pick random number.
-        final int random = new Random().nextInt((int) outOf + 1);
+        for (Map.Entry<String, Double> entry : map.entrySet()) {
+            final double value = entry.getValue();
+            if (randomPlace < (value + currentPlace)) return entry.getKey();
+            currentPlace += value;
+        }
 
-        // Get the place in the map.
-        // rand(0-130) = 34 -> 34 / 100 = 0.34
-        final double randomPlace = ((double) random) / factorIncrement;
+        return null;
+    }
 
-        String identifier = this.getIdentifierForPlace(randomPlace, map);
-
-        // Check if the identifier randomly chosen is null.
-        if (identifier == null) {
-            CozyDeliveries.getPlugin().getLogger().log(
-                    Level.WARNING,
-                    "Something went wrong when calculating the random delivery.\n"
-                            + "places:" + places + " factorIncrement:" + factorIncrement + " outOf:" + outOf + " randomPlace:" + randomPlace
-            );
-            identifier = map.keySet().stream().toList().get(0);
-        }
+    private @Nullable DeliveryContent getDeliveryContent(@NotNull String identifier) {
 
         // Get the instance of the delivery content.
         DeliveryContent content = CozyDeliveries.getAPI().orElseThrow().getContentConfiguration().getType(identifier).orElse(null);
@@ -123,42 +170,4 @@ public class StandardDeliveryEventHandler implements DeliveryEventHandler {
 
         return content;
     }
-
-    public @NotNull Map<String, Double> createMap(@NotNull List<String> deliveryIdentnfierList) {
-        Map<String, Double> map = new LinkedHashMap<>();
-
-        for (String entry : deliveryIdentnfierList) {
-            map.put(entry.split(" ")[0], Double.parseDouble(entry.split(" ")[1]));
-        }
-
-        return map;
-    }
-
-    public double getMin(@NotNull Map<String, Double> deliveryIdentnfierMap) {
-        double min = deliveryIdentnfierMap.values().stream().toList().get(0);
-        for (double number : deliveryIdentnfierMap.values()) {
-            min = Math.min(min, number);
-        }
-        return min;
-    }
-
-    private double getSum(@NotNull Collection<Double> values) {
-        double sum = 0D;
-        for (double number : values) {
-            sum += number;
-        }
-        return sum;
-    }
-
-    public @Nullable String getIdentifierForPlace(double randomPlace, @NotNull Map<String, Double> map) {
-        double currentPlace = 0D;
-
-        for (Map.Entry<String, Double> entry : map.entrySet()) {
-            final double value = entry.getValue();
-            if (randomPlace < (value + currentPlace)) return entry.getKey();
-            currentPlace += value;
-        }
-
-        return null;
-    }
 }
@@ -21,8 +21,8 @@ package com.github.cozyplugins.cozydeliveries.delivery.event.type;
 import com.github.cozyplugins.cozydeliveries.delivery.event.DeliveryEvent;
 import com.github.cozyplugins.cozydeliveries.delivery.event.DeliveryEventHandler;
 import com.github.cozyplugins.cozydeliveries.delivery.event.DeliveryEventType;
+import com.github.cozyplugins.cozydeliveries.delivery.event.PlayerJoinContext;
 import com.github.cozyplugins.cozydeliveries.delivery.event.handler.StandardDeliveryEventHandler;
-import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerKickEvent;
 import org.jetbrains.annotations.NotNull;
 
@@ -32,13 +32,25 @@ import org.jetbrains.annotations.NotNull;
  */
 public class DefaultDeliveryEventType implements DeliveryEventType {
 
+    private final @NotNull DeliveryEventHandler handler = new StandardDeliveryEventHandler();
+
     @Override
     public @NotNull DeliveryEventHandler getDeliveryEventHandler() {
-        return new StandardDeliveryEventHandler();
+        return this.handler;
+    }
+
+    @Override
+    public boolean isJoinListener() {
+        return false;
+    }
+
+    @Override
+    public boolean isLeaveListener() {
+        return false;
     }
 
     @Override
-    public void onPlayerJoin(@NotNull PlayerJoinEvent event, @NotNull DeliveryEvent deliveryEvent) {
+    public void onPlayerJoin(@NotNull PlayerJoinContext context, @NotNull DeliveryEvent deliveryEvent) {
 
     }
 
@@ -21,22 +21,29 @@ package com.github.cozyplugins.cozydeliveries.delivery.event.type;
 import com.github.cozyplugins.cozydeliveries.delivery.event.DeliveryEvent;
 import com.github.cozyplugins.cozydeliveries.delivery.event.DeliveryEventHandler;
 import com.github.cozyplugins.cozydeliveries.delivery.event.DeliveryEventType;
+import com.github.cozyplugins.cozydeliveries.delivery.event.PlayerJoinContext;
 import com.github.cozyplugins.cozydeliveries.delivery.event.handler.StandardDeliveryEventHandler;
-import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerKickEvent;
 import org.jetbrains.annotations.NotNull;
 
 public class FirstJoinDeliveryEventType implements DeliveryEventType {
 
+    private final @NotNull DeliveryEventHandler handler = new StandardDeliveryEventHandler();
+
     @Override
     public @NotNull DeliveryEventHandler getDeliveryEventHandler() {
-        return new StandardDeliveryEventHandler();
+        return this.handler;
+    }
+
+    @Override
+    public boolean isLeaveListener() {
+        return false;
     }
 
     @Override
-    public void onPlayerJoin(@NotNull PlayerJoinEvent event, @NotNull DeliveryEvent deliveryEvent) {
-        if (event.getPlayer().hasPlayedBefore()) return;
-        this.getDeliveryEventHandler().onEvent(deliveryEvent, event.getPlayer().getUniqueId());
+    public void onPlayerJoin(@NotNull PlayerJoinContext context, @NotNull DeliveryEvent deliveryEvent) {
+        if (!context.isFirstJoin()) return;
+        context.addDeliveries(this.getDeliveryEventHandler().createDeliveries(deliveryEvent, context.getPlayerUuid()));
     }
 
     @Override
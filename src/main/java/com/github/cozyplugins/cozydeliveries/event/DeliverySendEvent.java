@@ -19,6 +19,7 @@
 package com.github.cozyplugins.cozydeliveries.event;
 
 import com.github.cozyplugins.cozydeliveries.delivery.Delivery;
+import org.bukkit.Bukkit;
 import org.bukkit.event.Cancellable;
 import org.bukkit.event.Event;
 import org.bukkit.event.HandlerList;
@@ -27,6 +28,8 @@ import org.jetbrains.annotations.NotNull;
 /**
  * Represents the delivery send event.
  * Called when a delivery is about to be sent.
+ * Deliveries given when a player joins are sent in the
+ * background, so this event can be asynchronous.
  */
 public class DeliverySendEvent extends Event implements Cancellable {
 
@@ -41,6 +44,7 @@ public class DeliverySendEvent extends Event implements Cancellable {
      * @param delivery The instance of the delivery.
      */
     public DeliverySendEvent(@NotNull Delivery delivery) {
+        super(!Bukkit.isPrimaryThread());
         this.delivery = delivery;
     }
 
@@ -19,8 +19,6 @@
 package com.github.cozyplugins.cozydeliveries.inventory;
 
 import com.github.cozyplugins.cozydeliveries.CozyDeliveries;
-import com.github.cozyplugins.cozydeliveries.database.PlayerRecord;
-import com.github.cozyplugins.cozydeliveries.database.PlayerTable;
 import com.github.cozyplugins.cozylibrary.inventory.ConfigurationInventory;
 import com.github.cozyplugins.cozylibrary.inventory.InventoryItem;
 import com.github.cozyplugins.cozylibrary.inventory.action.action.ClickAction;
@@ -177,14 +175,9 @@ public class AddItemsInventory extends ConfigurationInventory {
                     user.getPlayer().closeInventory();
 
                     // Update player stats.
-                    PlayerRecord record = CozyDeliveries.getAPI().orElseThrow().getDatabase()
-                            .getTable(PlayerTable.class)
-                            .getPlayerRecord(this.getOwner().getUniqueId())
-                            .orElse(new PlayerRecord(this.getOwner().getUniqueId()));
-
-                    CozyDeliveries.getAPI().orElseThrow().getDatabase()
-                            .getTable(PlayerTable.class)
-                            .insertRecord(record.incrementSent(1));
+                    CozyDeliveries.getAPI().orElseThrow()
+                            .getPlayerStatistics()
+                            .incrementSent(this.getOwner().getUniqueId(), 1);
                 });
     }
 
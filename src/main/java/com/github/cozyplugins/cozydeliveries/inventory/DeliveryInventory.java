@@ -19,29 +19,57 @@
 package com.github.cozyplugins.cozydeliveries.inventory;
 
 import com.github.cozyplugins.cozydeliveries.CozyDeliveries;
+import com.github.cozyplugins.cozydeliveries.cache.DeliveryCache;
+import com.github.cozyplugins.cozydeliveries.database.DeliveryClaimService;
 import com.github.cozyplugins.cozydeliveries.database.PlayerRecord;
+import com.github.cozyplugins.cozydeliveries.database.PlayerStatistics;
 import com.github.cozyplugins.cozydeliveries.database.PlayerTable;
 import com.github.cozyplugins.cozydeliveries.delivery.Delivery;
+import com.github.cozyplugins.cozydeliveries.placeholder.PlaceholderContext;
 import com.github.cozyplugins.cozylibrary.inventory.ConfigurationInventory;
 import com.github.cozyplugins.cozylibrary.inventory.InventoryItem;
 import com.github.cozyplugins.cozylibrary.inventory.action.action.ClickAction;
+import com.github.cozyplugins.cozylibrary.user.PlayerUser;
 import com.github.smuddgge.squishyconfiguration.interfaces.ConfigurationSection;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.Iterator;
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
 import java.util.logging.Level;
 
 /**
  * Represents the delivery inventory.
  * Contains all the player's deliveries.
+ * <p>
+ * The inventory keeps track of which delivery is in each slot.
+ * While it is open it listens to the delivery cache, so when a
+ * delivery is added or removed only the affected slots are changed.
+ * <p>
+ * Deliveries are shown a page at a time, oldest first.
+ * Only the deliveries on the current page are decoded and
+ * the next page is decoded in the background.
+ * <p>
+ * If the player is not in the delivery cache, the page and
+ * number of deliveries are read once on the database executor
+ * and kept until the page changes. The database library can
+ * not count or page rows, so this read still reads every row.
  */
-public class DeliveryInventory extends ConfigurationInventory {
+public class DeliveryInventory extends ConfigurationInventory implements DeliveryCache.Listener {
 
     private final @NotNull UUID deliveryPlayerUuid;
     private final @NotNull ConfigurationSection section;
+    private final @NotNull Map<Integer, Delivery> slotMap;
+    private final @NotNull List<Integer> deliverySlotList;
+    private boolean listening;
+    private int page;
+    private @Nullable DeliveryCache.Page loadedPage;
+    private int loadedPageIndex;
+    private boolean loadingPage;
+    private int loadedPageVersion;
 
     /**
      * Used to create a new instance of the
@@ -56,6 +84,21 @@ public class DeliveryInventory extends ConfigurationInventory {
 
         this.deliveryPlayerUuid = deliveryPlayerUuid;
         this.section = section;
+        this.slotMap = new LinkedHashMap<>();
+        this.deliverySlotList = new ArrayList<>();
+        this.listening = false;
+        this.page = 0;
+        this.loadedPage = null;
+        this.loadedPageIndex = -1;
+        this.loadingPage = false;
+        this.loadedPageVersion = 0;
+
+        // Stop listening for changes when closed.
+        this.addCloseAction((playerUser, inventory) -> {
+            CozyDeliveries.getAPI().orElseThrow().getDeliveryCache().removeListener(this.deliveryPlayerUuid, this);
+            this.listening = false;
+            return false;
+        });
     }
 
     @Override
@@ -64,6 +107,9 @@ public class DeliveryInventory extends ConfigurationInventory {
             case "delivery" -> this.onDeliveryItem(item);
             case "send" -> this.onSendItem(item);
             case "stats" -> this.onStatisticsItem(item);
+            case "claim_all" -> this.onClaimAllItem(item);
+            case "last_page" -> this.onLastPage(item);
+            case "next_page" -> this.onNextPage(item);
             default -> {
                 CozyDeliveries.getPlugin().getLogger().log(
                         Level.WARNING,
@@ -76,28 +122,343 @@ public class DeliveryInventory extends ConfigurationInventory {
 
     private @Nullable InventoryItem onDeliveryItem(@NotNull InventoryItem item) {
 
-        // Get the player's deliveries.
-        List<Delivery> deliveryList = CozyDeliveries.getAPI()
-                .orElseThrow().getDeliveryList(this.deliveryPlayerUuid);
+        // Listen for deliveries being added or removed.
+        if (!this.listening) {
+            CozyDeliveries.getAPI().orElseThrow().getDeliveryCache().addListener(this.deliveryPlayerUuid, this);
+            this.listening = true;
+        }
+
+        this.slotMap.clear();
+        this.deliverySlotList.clear();
+        this.deliverySlotList.addAll(item.getSlots());
+        final int pageSize = this.deliverySlotList.size();
+
+        // Get the deliveries on this page.
+        // If they are not loaded yet they are
+        // shown when they have been loaded.
+        DeliveryCache.Page deliveryPage = this.getPage(pageSize);
+        if (deliveryPage == null) return null;
 
         // Loop though the deliveries.
-        Iterator<Integer> slotIterator = item.getSlots().iterator();
-        for (Delivery delivery : deliveryList) {
+        Iterator<Integer> slotIterator = this.deliverySlotList.iterator();
+        for (Delivery delivery : deliveryPage.getDeliveryList()) {
 
             // Check if there are any more slots to assign.
-            if (!slotIterator.hasNext()) return null;
-            this.setItem(delivery.getInventoryItem(this::onGenerate).addSlot(slotIterator.next()));
+            if (!slotIterator.hasNext()) break;
+            this.setDeliveryItem(slotIterator.next(), delivery);
+        }
+
+        // Decode the next page in the background.
+        CozyDeliveries.getAPI().orElseThrow().getDeliveryCache()
+                .prefetchAsync(this.deliveryPlayerUuid, (this.page + 1) * pageSize, pageSize);
+
+        return null;
+    }
+
+    private @NotNull InventoryItem onLastPage(@NotNull InventoryItem item) {
+        return this.replacePagePlaceholders(item).addAction((ClickAction) (user, type, inventory) -> {
+            if (this.page == 0) return;
+            this.page--;
+            this.onGenerate(user);
+        });
+    }
+
+    private @NotNull InventoryItem onNextPage(@NotNull InventoryItem item) {
+        return this.replacePagePlaceholders(item).addAction((ClickAction) (user, type, inventory) -> {
+            if (!this.hasNextPage()) return;
+            this.page++;
+            this.onGenerate(user);
+        });
+    }
+
+    private @NotNull InventoryItem replacePagePlaceholders(@NotNull InventoryItem item) {
+        final int total = this.getTotal();
+        final int pageSize = Math.max(1, this.getPageSize());
+
+        return item
+                .replaceNameAndLore("{page}", Integer.toString(this.page + 1))
+                .replaceNameAndLore("{pages}", Integer.toString(Math.max(1, (total + pageSize - 1) / pageSize)))
+                .replaceNameAndLore("{total}", Integer.toString(total));
+    }
+
+    private boolean hasNextPage() {
+        return (this.page + 1) * this.getPageSize() < this.getTotal();
+    }
+
+    /**
+     * Used to get the current page of deliveries.
+     * If the player is in the delivery cache it is
+     * taken from the cache, otherwise the loaded page
+     * is used. If the page has not been loaded yet it
+     * starts loading in the background.
+     *
+     * @param pageSize The number of deliveries on a page.
+     * @return The page of deliveries.
+     * Null if it is still loading.
+     */
+    private @Nullable DeliveryCache.Page getPage(int pageSize) {
+        DeliveryCache cache = CozyDeliveries.getAPI().orElseThrow().getDeliveryCache();
+
+        // Check if the player is in the cache.
+        Optional<List<Delivery>> cachedPage = cache.getDeliveryPage(this.deliveryPlayerUuid, this.page * pageSize, pageSize);
+        OptionalInt cachedCount = cache.getDeliveryCount(this.deliveryPlayerUuid);
+        if (cachedPage.isPresent() && cachedCount.isPresent()) {
+            return new DeliveryCache.Page(cachedPage.get(), cachedCount.getAsInt());
         }
 
+        // Check if this page has already been loaded.
+        if (this.loadedPage != null && this.loadedPageIndex == this.page) return this.loadedPage;
+
+        this.loadPageAsync(pageSize);
         return null;
     }
 
+    /**
+     * Used to load the current page on the database executor.
+     * The inventory is generated again once it has loaded.
+     *
+     * @param pageSize The number of deliveries on a page.
+     */
+    private void loadPageAsync(int pageSize) {
+        if (this.loadingPage) return;
+        this.loadingPage = true;
+
+        final int pageIndex = this.page;
+        final int version = this.loadedPageVersion;
+        CozyDeliveries.getAPI().orElseThrow()
+                .getDeliveryPageAsync(this.deliveryPlayerUuid, pageIndex * pageSize, pageSize)
+                .whenComplete((deliveryPage, throwable) -> this.runOnMainThread(() -> {
+                    this.loadingPage = false;
+
+                    if (throwable != null) {
+                        CozyDeliveries.getPlugin().getLogger().log(
+                                Level.WARNING, "Failed to load the deliveries for " + this.deliveryPlayerUuid, throwable
+                        );
+                        return;
+                    }
+
+                    // Check if the page changed while loading.
+                    if (version != this.loadedPageVersion) {
+                        this.loadPageAsync(pageSize);
+                        return;
+                    }
+
+                    this.loadedPage = deliveryPage;
+                    this.loadedPageIndex = pageIndex;
+
+                    // Check if the inventory is still open.
+                    if (!this.listening || this.getOwner() == null) return;
+                    Player player = this.getOwner().getPlayer();
+                    if (player != null) this.onGenerate(new PlayerUser(player));
+                }));
+    }
+
+    /**
+     * Used to get the total number of deliveries
+     * across all pages.
+     *
+     * @return The total number of deliveries.
+     */
+    private int getTotal() {
+        OptionalInt cachedCount = CozyDeliveries.getAPI().orElseThrow()
+                .getDeliveryCache().getDeliveryCount(this.deliveryPlayerUuid);
+
+        if (cachedCount.isPresent()) return cachedCount.getAsInt();
+        return this.loadedPage == null ? 0 : this.loadedPage.getTotal();
+    }
+
+    /**
+     * Used to get the number of deliveries on a page.
+     * The delivery item should be above the page items
+     * in the configuration so its slots are known first.
+     *
+     * @return The number of delivery slots.
+     */
+    private int getPageSize() {
+        return this.deliverySlotList.size();
+    }
+
+    @Override
+    public void onDeliveryAdded(@NotNull Delivery delivery) {
+        this.runOnMainThread(() -> this.addDelivery(delivery));
+    }
+
+    @Override
+    public void onDeliveryRemoved(@NotNull UUID deliveryUuid) {
+        this.runOnMainThread(() -> this.removeDeliveries(Set.of(deliveryUuid)));
+    }
+
+    /**
+     * Used to show a delivery in the first empty delivery slot.
+     * If there are no empty slots it will be shown
+     * when a slot becomes free.
+     *
+     * @param delivery The instance of the delivery.
+     */
+    private void addDelivery(@NotNull Delivery delivery) {
+        if (delivery.hasExpireDate() && delivery.hasExpired()) return;
+
+        // Check if the delivery is already shown.
+        for (Delivery shown : this.slotMap.values()) {
+            if (shown.getUuid().equals(delivery.getUuid())) return;
+        }
+
+        for (int slot : this.deliverySlotList) {
+            if (this.slotMap.containsKey(slot)) continue;
+            this.setDeliveryItem(slot, delivery);
+            return;
+        }
+    }
+
+    private void setDeliveryItem(int slot, @NotNull Delivery delivery) {
+        this.slotMap.put(slot, delivery);
+        this.setItem(delivery.getInventoryItem(user -> this.removeDeliveries(Set.of(delivery.getUuid()))).addSlot(slot));
+    }
+
+    private void runOnMainThread(@NotNull Runnable runnable) {
+        if (Bukkit.isPrimaryThread()) {
+            runnable.run();
+            return;
+        }
+
+        Bukkit.getScheduler().runTask(CozyDeliveries.getPlugin(), runnable);
+    }
+
     private @NotNull InventoryItem onSendItem(@NotNull InventoryItem item) {
         return item.addAction((ClickAction) (user, type, inventory) -> {
             new PickPlayerInventory().open(user.getPlayer());
         });
     }
 
+    private @NotNull InventoryItem onClaimAllItem(@NotNull InventoryItem item) {
+        return item.addAction((ClickAction) (user, type, inventory) -> {
+
+            // Get the configuration section in the config.yml
+            ConfigurationSection section = CozyDeliveries.getAPI().orElseThrow()
+                    .getConfiguration().getSection("delivery");
+
+            // Get the deliveries without blocking the main thread.
+            // They are taken from the cache when the player is online.
+            CozyDeliveries.getAPI().orElseThrow()
+                    .getDeliveryListAsync(this.deliveryPlayerUuid)
+                    .whenComplete((deliveryList, throwable) -> this.runOnMainThread(() -> {
+
+                        if (throwable != null) {
+                            CozyDeliveries.getPlugin().getLogger().log(
+                                    Level.WARNING, "Failed to load the deliveries for " + this.deliveryPlayerUuid, throwable
+                            );
+                            return;
+                        }
+
+                        this.claimAll(user, section, deliveryList);
+                    }));
+        });
+    }
+
+    private void claimAll(@NotNull PlayerUser user, @NotNull ConfigurationSection section, @NotNull List<Delivery> deliveryList) {
+
+        // Check if there are any deliveries to claim.
+        if (deliveryList.isEmpty()) {
+            user.sendMessage(section.getAdaptedString(
+                    "claim_all_empty", "\n", "&7You dont have any deliveries to collect."
+            ));
+            return;
+        }
+
+        // Claim as many deliveries as fit in the inventory.
+        CozyDeliveries.getAPI().orElseThrow().getClaimService().claimAll(user, deliveryList).thenAccept(resultMap -> {
+            final long claimed = resultMap.values().stream()
+                    .filter(result -> result == DeliveryClaimService.Result.SUCCESS)
+                    .count();
+
+            if (claimed > 0) {
+                user.sendMessage(CozyDeliveries.getAPI().orElseThrow().getPlaceholderRegistry()
+                        .getTemplate("delivery.claim_all", "&7You have received &f{amount} &7deliveries.")
+                        .render(PlaceholderContext.of(this.deliveryPlayerUuid),
+                                (placeholder, context) -> placeholder.equals("amount") ? Long.toString(claimed) : null
+                        )
+                );
+            }
+
+            // Check if some deliveries did not fit.
+            if (resultMap.size() < deliveryList.size()
+                    || resultMap.containsValue(DeliveryClaimService.Result.INVENTORY_SPACE)) {
+                user.sendMessage(section.getAdaptedString(
+                        "inventory_space", "\n", "&7You dont have enough inventory space to collect this delivery."
+                ));
+            }
+
+            // Only refresh the slots of the deliveries that were removed.
+            Set<UUID> removedSet = new HashSet<>();
+            resultMap.forEach((deliveryUuid, result) -> {
+                if (result == DeliveryClaimService.Result.SUCCESS
+                        || result == DeliveryClaimService.Result.ALREADY_CLAIMED) {
+                    removedSet.add(deliveryUuid);
+                }
+            });
+            this.removeDeliveries(removedSet);
+        });
+    }
+
+    /**
+     * Used to refresh the slots of deliveries that
+     * have been removed.
+     * The empty slots are filled with deliveries that
+     * did not fit in the inventory, and the other
+     * slots are left as they are.
+     *
+     * @param removedSet The uuids of the removed deliveries.
+     */
+    private void removeDeliveries(@NotNull Set<UUID> removedSet) {
+        if (removedSet.isEmpty()) return;
+
+        // Find the slots that have changed.
+        List<Integer> changedSlotList = new ArrayList<>();
+        this.slotMap.entrySet().removeIf(entry -> {
+            if (!removedSet.contains(entry.getValue().getUuid())) return false;
+            changedSlotList.add(entry.getKey());
+            return true;
+        });
+
+        if (changedSlotList.isEmpty()) return;
+        Collections.sort(changedSlotList);
+
+        // Get the deliveries on this page that are not shown yet.
+        Set<UUID> shownSet = new HashSet<>();
+        this.slotMap.values().forEach(delivery -> shownSet.add(delivery.getUuid()));
+
+        final int pageSize = this.deliverySlotList.size();
+        Optional<List<Delivery>> cachedPage = CozyDeliveries.getAPI().orElseThrow().getDeliveryCache()
+                .getDeliveryPage(this.deliveryPlayerUuid, this.page * pageSize, pageSize + changedSlotList.size());
+
+        // Check if the player is not in the cache.
+        // The slots are emptied and the page is
+        // loaded again in the background.
+        if (cachedPage.isEmpty()) {
+            changedSlotList.forEach(slot -> this.setItem(new InventoryItem(new ItemStack(Material.AIR)).addSlot(slot)));
+            this.loadedPageIndex = -1;
+            this.loadedPageVersion++;
+            this.loadPageAsync(pageSize);
+            return;
+        }
+
+        Iterator<Delivery> remaining = cachedPage.get().stream()
+                .filter(delivery -> !shownSet.contains(delivery.getUuid()))
+                .filter(delivery -> !removedSet.contains(delivery.getUuid()))
+                .iterator();
+
+        for (int slot : changedSlotList) {
+
+            // Check if there are no more deliveries to show.
+            if (!remaining.hasNext()) {
+                this.setItem(new InventoryItem(new ItemStack(Material.AIR)).addSlot(slot));
+                continue;
+            }
+
+            this.setDeliveryItem(slot, remaining.next());
+        }
+    }
+
     private @NotNull InventoryItem onStatisticsItem(@NotNull InventoryItem item) {
 
         // Check if the database is disabled.
@@ -111,8 +472,15 @@ public class DeliveryInventory extends ConfigurationInventory {
                 .getPlayerRecord(this.deliveryPlayerUuid)
                 .orElse(new PlayerRecord());
 
+        // Add the counts that have not been written yet.
+        PlayerStatistics statistics = CozyDeliveries.getAPI().orElseThrow().getPlayerStatistics();
+
         return item
-                .replaceNameAndLore("{sent}", Integer.toString(record.getDeliveriesSent()))
-                .replaceNameAndLore("{from}", Integer.toString(record.getDeliveriesReceived()));
+                .replaceNameAndLore("{sent}", Integer.toString(
+                        record.getDeliveriesSent() + statistics.getPendingSent(this.deliveryPlayerUuid)
+                ))
+                .replaceNameAndLore("{from}", Integer.toString(
+                        record.getDeliveriesReceived() + statistics.getPendingReceived(this.deliveryPlayerUuid)
+                ));
     }
 }
@@ -19,20 +19,18 @@
 package com.github.cozyplugins.cozydeliveries.inventory;
 
 import com.github.cozyplugins.cozydeliveries.CozyDeliveries;
+import com.github.cozyplugins.cozydeliveries.cache.PlayerDirectory;
 import com.github.cozyplugins.cozylibrary.inventory.ConfigurationInventory;
 import com.github.cozyplugins.cozylibrary.inventory.InventoryItem;
 import com.github.cozyplugins.cozylibrary.inventory.action.action.ClickAction;
 import com.github.cozyplugins.cozylibrary.user.PlayerUser;
 import com.github.smuddgge.squishyconfiguration.interfaces.ConfigurationSection;
-import org.bukkit.Bukkit;
-import org.bukkit.OfflinePlayer;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.Arrays;
 import java.util.Iterator;
-import java.util.List;
 import java.util.Objects;
+import java.util.UUID;
 import java.util.logging.Level;
 
 /**
@@ -76,6 +74,7 @@ import java.util.logging.Level;
 public class PickPlayerInventory extends ConfigurationInventory {
 
     private int page;
+    private int playersPerPage;
 
     /**
      * Used to create a pick player inventory.
@@ -87,6 +86,7 @@ public class PickPlayerInventory extends ConfigurationInventory {
         );
 
         this.page = 0;
+        this.playersPerPage = 0;
     }
 
     @Override
@@ -112,34 +112,32 @@ public class PickPlayerInventory extends ConfigurationInventory {
     }
 
     private @Nullable InventoryItem onPlayer(@NotNull InventoryItem item) {
+        final PlayerDirectory directory = CozyDeliveries.getAPI().orElseThrow().getPlayerDirectory();
+        final UUID ownerUuid = Objects.requireNonNull(this.getOwner()).getUniqueId();
 
-        // Get the all the players you can send to.
-        List<OfflinePlayer> offlinePlayerList = Arrays.stream(Bukkit.getOfflinePlayers()).toList();
+        // Get the owner's position so they can be skipped.
+        final int ownerIndex = directory.indexOf(ownerUuid);
 
-        final int playersPerPage = item.getSlots().size();
-        final int playersToSkip = this.page * playersPerPage;
+        this.playersPerPage = item.getSlots().size();
+        final int firstPosition = this.page * this.playersPerPage;
 
-        // Loop though the deliveries.
+        // Get one extra player in case the owner is on this page.
+        final int firstIndex = ownerIndex >= 0 && ownerIndex <= firstPosition ? firstPosition + 1 : firstPosition;
         Iterator<Integer> slotIterator = item.getSlots().iterator();
-        int playerPosition = 0;
-        for (OfflinePlayer player : offlinePlayerList) {
-            if (player.getUniqueId() == Objects.requireNonNull(this.getOwner()).getUniqueId()) continue;
-            playerPosition++;
 
-            // Check if this player should be skipped as
-            // they are on a page before.
-            if (playersToSkip > playerPosition) continue;
+        for (PlayerDirectory.Entry player : directory.getPage(firstIndex, this.playersPerPage + 1)) {
+            if (player.getUuid().equals(ownerUuid)) continue;
 
             // Check if there are any more slots to assign.
             if (!slotIterator.hasNext()) return null;
             this.setItem(new InventoryItem(item.duplicate())
                     .addSlot(slotIterator.next())
-                    .replaceNameAndLore("{player}", Objects.requireNonNull(player.getName()))
-                    .setSkull(player.getUniqueId())
+                    .replaceNameAndLore("{player}", player.getName())
+                    .setSkull(player.getUuid())
                     .addAction((ClickAction) (playerUser, clickType, inventory) -> {
                         CozyDeliveries.getAPI().orElseThrow().createDelivery(
                                 Objects.requireNonNull(this.getOwner()),
-                                player.getUniqueId()
+                                player.getUuid()
                         );
                     })
             );
@@ -148,6 +146,14 @@ public class PickPlayerInventory extends ConfigurationInventory {
         return null;
     }
 
+    private boolean hasNextPage() {
+        final PlayerDirectory directory = CozyDeliveries.getAPI().orElseThrow().getPlayerDirectory();
+        final boolean containsOwner = directory.indexOf(Objects.requireNonNull(this.getOwner()).getUniqueId()) >= 0;
+        final int players = directory.getSize() - (containsOwner ? 1 : 0);
+
+        return (this.page + 1) * this.playersPerPage < players;
+    }
+
     private @NotNull InventoryItem onLastPage(@NotNull InventoryItem item) {
         return item.addAction((ClickAction) (playerUser, clickType, inventory) -> {
             if (this.page == 0) return;
@@ -158,6 +164,7 @@ public class PickPlayerInventory extends ConfigurationInventory {
 
     private @NotNull InventoryItem onNextPage(@NotNull InventoryItem item) {
         return item.addAction((ClickAction) (playerUser, clickType, inventory) -> {
+            if (!this.hasNextPage()) return;
             this.page++;
             this.onGenerate(new PlayerUser(Objects.requireNonNull(this.getOwner().getPlayer())));
         });
@@ -0,0 +1,108 @@
+/*
+ * CozyDeliveries - An item and money delivery service for a minecraft server.
+ * Copyright (C) 2024  Smuddgge
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.github.cozyplugins.cozydeliveries.metric;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Represents a latency recorder.
+ * Keeps a rolling window of the most recent samples
+ * so averages and percentiles can be reported
+ * without keeping every sample forever.
+ */
+public class LatencyRecorder {
+
+    private final @NotNull long[] samples;
+    private int index;
+    private long count;
+    private long totalNanos;
+    private long lastNanos;
+
+    /**
+     * Used to create a new latency recorder.
+     *
+     * @param windowSize The number of recent samples to keep.
+     */
+    public LatencyRecorder(int windowSize) {
+        this.samples = new long[Math.max(1, windowSize)];
+    }
+
+    /**
+     * Used to record a new sample.
+     *
+     * @param nanos The latency in nanoseconds.
+     */
+    public synchronized void record(long nanos) {
+        this.samples[this.index] = nanos;
+        this.index = (this.index + 1) % this.samples.length;
+        this.count++;
+        this.totalNanos += nanos;
+        this.lastNanos = nanos;
+    }
+
+    /**
+     * Used to get the number of samples recorded
+     * since this recorder was created.
+     *
+     * @return The number of samples.
+     */
+    public synchronized long getCount() {
+        return this.count;
+    }
+
+    /**
+     * Used to get the last recorded sample.
+     *
+     * @return The last latency in milliseconds.
+     */
+    public synchronized double getLastMillis() {
+        return this.lastNanos / 1_000_000D;
+    }
+
+    /**
+     * Used to get the average of all the samples
+     * recorded since this recorder was created.
+     *
+     * @return The average latency in milliseconds.
+     */
+    public synchronized double getAverageMillis() {
+        if (this.count == 0) return 0D;
+        return (this.totalNanos / (double) this.count) / 1_000_000D;
+    }
+
+    /**
+     * Used to get a percentile of the samples
+     * in the current window.
+     *
+     * @param percentile The percentile between 0 and 100.
+     * @return The latency in milliseconds.
+     */
+    public synchronized double getPercentileMillis(double percentile) {
+        final int size = (int) Math.min(this.count, this.samples.length);
+        if (size == 0) return 0D;
+
+        long[] sorted = Arrays.copyOf(this.samples, size);
+        Arrays.sort(sorted);
+
+        final int position = (int) Math.ceil((percentile / 100D) * size) - 1;
+        return sorted[Math.max(0, Math.min(size - 1, position))] / 1_000_000D;
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * CozyDeliveries - An item and money delivery service for a minecraft server.
+ * Copyright (C) 2024  Smuddgge
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.cozyplugins.cozydeliveries.placeholder;
+
+import com.github.cozyplugins.cozydeliveries.delivery.Delivery;
+import com.github.cozyplugins.cozydeliveries.delivery.DeliveryContent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.UUID;
+
+/**
+ * Represents the context a template is rendered in.
+ * Gives placeholder resolvers access to the delivery,
+ * content and player the string is for.
+ */
+public class PlaceholderContext {
+
+    private static final @NotNull PlaceholderContext EMPTY = new PlaceholderContext(null, null, null);
+
+    private final @Nullable Delivery delivery;
+    private final @Nullable DeliveryContent content;
+    private final @Nullable UUID playerUuid;
+
+    private PlaceholderContext(@Nullable Delivery delivery, @Nullable DeliveryContent content, @Nullable UUID playerUuid) {
+        this.delivery = delivery;
+        this.content = content;
+        this.playerUuid = playerUuid;
+    }
+
+    /**
+     * Used to get a context without a
+     * delivery, content or player.
+     *
+     * @return The empty context.
+     */
+    public static @NotNull PlaceholderContext empty() {
+        return PlaceholderContext.EMPTY;
+    }
+
+    /**
+     * Used to create a context for a delivery.
+     *
+     * @param delivery The instance of the delivery.
+     * @return The context.
+     */
+    public static @NotNull PlaceholderContext of(@NotNull Delivery delivery) {
+        return new PlaceholderContext(delivery, delivery.getDeliveryContent(), delivery.getToPlayerUuid());
+    }
+
+    /**
+     * Used to create a context for a delivery content.
+     *
+     * @param content The instance of the content.
+     * @return The context.
+     */
+    public static @NotNull PlaceholderContext of(@NotNull DeliveryContent content) {
+        return new PlaceholderContext(null, content, null);
+    }
+
+    /**
+     * Used to create a context for a player.
+     *
+     * @param playerUuid The player's uuid.
+     * @return The context.
+     */
+    public static @NotNull PlaceholderContext of(@NotNull UUID playerUuid) {
+        return new PlaceholderContext(null, null, playerUuid);
+    }
+
+    /**
+     * Used to get the delivery.
+     *
+     * @return The delivery, or null.
+     */
+    public @Nullable Delivery getDelivery() {
+        return this.delivery;
+    }
+
+    /**
+     * Used to get the delivery content.
+     *
+     * @return The content, or null.
+     */
+    public @Nullable DeliveryContent getContent() {
+        return this.content;
+    }
+
+    /**
+     * Used to get the player's uuid.
+     *
+     * @return The player's uuid, or null.
+     */
+    public @Nullable UUID getPlayerUuid() {
+        return this.playerUuid;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * CozyDeliveries - An item and money delivery service for a minecraft server.
+ * Copyright (C) 2024  Smuddgge
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.cozyplugins.cozydeliveries.placeholder;
+
+import com.github.smuddgge.squishyconfiguration.interfaces.ConfigurationSection;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Represents the placeholder registry.
+ * Contains the placeholder resolvers registered by this
+ * and other plugins, and the templates parsed from the
+ * configuration.
+ * <p>
+ * Configuration templates are parsed the first time they
+ * are used and kept until the configuration is reloaded.
+ */
+public class PlaceholderRegistry {
+
+    private static final int MAX_STRING_TEMPLATES = 1024;
+
+    private final @NotNull ConfigurationSection configuration;
+    private final @NotNull List<PlaceholderResolver> resolverList;
+    private final @NotNull Map<String, PlaceholderTemplate> configTemplateMap;
+    private final @NotNull Map<String, PlaceholderTemplate> stringTemplateMap;
+
+    /**
+     * Used to create a new placeholder registry.
+     *
+     * @param configuration The configuration to read templates from.
+     */
+    public PlaceholderRegistry(@NotNull ConfigurationSection configuration) {
+        this.configuration = configuration;
+        this.resolverList = new CopyOnWriteArrayList<>();
+        this.configTemplateMap = new ConcurrentHashMap<>();
+        this.stringTemplateMap = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Used to register a placeholder resolver.
+     * Resolvers are checked in the order they were registered.
+     *
+     * @param resolver The instance of the resolver.
+     * @return This instance.
+     */
+    public @NotNull PlaceholderRegistry register(@NotNull PlaceholderResolver resolver) {
+        this.resolverList.add(resolver);
+        return this;
+    }
+
+    /**
+     * Used to unregister a placeholder resolver.
+     *
+     * @param resolver The instance of the resolver.
+     * @return This instance.
+     */
+    public @NotNull PlaceholderRegistry unregister(@NotNull PlaceholderResolver resolver) {
+        this.resolverList.remove(resolver);
+        return this;
+    }
+
+    /**
+     * Used to get the value of a placeholder from
+     * the registered resolvers.
+     *
+     * @param placeholder The placeholder name without the brackets.
+     * @param context     The context the template is rendered in.
+     * @return The value of the placeholder.
+     * Null if no resolver knows the placeholder.
+     */
+    public @Nullable String resolve(@NotNull String placeholder, @NotNull PlaceholderContext context) {
+        for (PlaceholderResolver resolver : this.resolverList) {
+            String value = resolver.resolve(placeholder, context);
+            if (value != null) return value;
+        }
+        return null;
+    }
+
+    /**
+     * Used to get the template for a string in the configuration.
+     * A list of strings is joined with new lines.
+     *
+     * @param path         The path to the string.
+     * @param defaultValue The string used if the path does not exist.
+     * @return The template.
+     */
+    public @NotNull PlaceholderTemplate getTemplate(@NotNull String path, @NotNull String defaultValue) {
+        return this.configTemplateMap.computeIfAbsent(path, key -> PlaceholderTemplate.parse(
+                this.configuration.getAdaptedString(key, "\n", defaultValue), this
+        ));
+    }
+
+    /**
+     * Used to get the template for a string that
+     * is not in the configuration, for example an item's lore.
+     * The most recent templates are kept so they
+     * do not need parsing again.
+     *
+     * @param source The string to parse.
+     * @return The template.
+     */
+    public @NotNull PlaceholderTemplate compile(@NotNull String source) {
+        PlaceholderTemplate template = this.stringTemplateMap.get(source);
+        if (template != null) return template;
+
+        if (this.stringTemplateMap.size() >= MAX_STRING_TEMPLATES) this.stringTemplateMap.clear();
+
+        template = PlaceholderTemplate.parse(source, this);
+        this.stringTemplateMap.put(source, template);
+        return template;
+    }
+
+    /**
+     * Used to remove the parsed templates
+     * when the configuration is reloaded.
+     */
+    public void reload() {
+        this.configTemplateMap.clear();
+        this.stringTemplateMap.clear();
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * CozyDeliveries - An item and money delivery service for a minecraft server.
+ * Copyright (C) 2024  Smuddgge
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.cozyplugins.cozydeliveries.placeholder;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Represents a placeholder resolver.
+ * Used to get the value of a placeholder when
+ * a template is rendered.
+ * Other plugins can add their own placeholders with
+ * {@link PlaceholderRegistry#register(PlaceholderResolver)}.
+ */
+@FunctionalInterface
+public interface PlaceholderResolver {
+
+    /**
+     * Used to get the value of a placeholder.
+     *
+     * @param placeholder The placeholder name without the brackets.
+     *                    For example "player_name".
+     * @param context     The context the template is rendered in.
+     * @return The value of the placeholder.
+     * Null if this resolver does not know the placeholder.
+     */
+    @Nullable String resolve(@NotNull String placeholder, @NotNull PlaceholderContext context);
+}
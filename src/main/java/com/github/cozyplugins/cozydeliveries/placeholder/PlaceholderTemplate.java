@@ -0,0 +1,197 @@
+/*
+ * CozyDeliveries - An item and money delivery service for a minecraft server.
+ * Copyright (C) 2024  Smuddgge
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.cozyplugins.cozydeliveries.placeholder;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents a placeholder template.
+ * The string is split into literal and placeholder
+ * segments once, so rendering is a single pass
+ * with one string builder.
+ * <p>
+ * Placeholders are written as {name}. Placeholders that
+ * are not resolved are left in the string as they were.
+ */
+public class PlaceholderTemplate {
+
+    private final @NotNull String source;
+    private final @NotNull String[] segments;
+    private final @NotNull boolean[] placeholders;
+    private final int literalLength;
+    private final @Nullable PlaceholderRegistry registry;
+
+    private PlaceholderTemplate(@NotNull String source,
+                                @NotNull String[] segments,
+                                @NotNull boolean[] placeholders,
+                                @Nullable PlaceholderRegistry registry) {
+
+        this.source = source;
+        this.segments = segments;
+        this.placeholders = placeholders;
+        this.registry = registry;
+
+        int length = 0;
+        for (int i = 0; i < segments.length; i++) {
+            if (!placeholders[i]) length += segments[i].length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Used to parse a template.
+     * Only the given resolvers are used when rendering.
+     *
+     * @param source The string to parse.
+     * @return The template.
+     */
+    public static @NotNull PlaceholderTemplate parse(@NotNull String source) {
+        return PlaceholderTemplate.parse(source, null);
+    }
+
+    /**
+     * Used to parse a template.
+     * The resolvers in the registry are used for
+     * placeholders the given resolver does not know.
+     *
+     * @param source   The string to parse.
+     * @param registry The placeholder registry.
+     * @return The template.
+     */
+    public static @NotNull PlaceholderTemplate parse(@NotNull String source, @Nullable PlaceholderRegistry registry) {
+        List<String> segmentList = new ArrayList<>();
+        List<Boolean> placeholderList = new ArrayList<>();
+
+        int literalStart = 0;
+        int index = 0;
+        while (index < source.length()) {
+            final int open = source.indexOf('{', index);
+            if (open == -1) break;
+
+            final int close = source.indexOf('}', open + 1);
+            if (close == -1) break;
+
+            // Check if the brackets contain a placeholder name.
+            final String name = source.substring(open + 1, close);
+            if (name.isEmpty() || name.indexOf('{') != -1 || name.indexOf(' ') != -1) {
+                index = open + 1;
+                continue;
+            }
+
+            if (open > literalStart) {
+                segmentList.add(source.substring(literalStart, open));
+                placeholderList.add(false);
+            }
+
+            segmentList.add(name);
+            placeholderList.add(true);
+            literalStart = close + 1;
+            index = close + 1;
+        }
+
+        if (literalStart < source.length()) {
+            segmentList.add(source.substring(literalStart));
+            placeholderList.add(false);
+        }
+
+        boolean[] placeholders = new boolean[placeholderList.size()];
+        for (int i = 0; i < placeholders.length; i++) {
+            placeholders[i] = placeholderList.get(i);
+        }
+
+        return new PlaceholderTemplate(source, segmentList.toArray(new String[0]), placeholders, registry);
+    }
+
+    /**
+     * Used to get the string the
+     * template was parsed from.
+     *
+     * @return The source string.
+     */
+    public @NotNull String getSource() {
+        return this.source;
+    }
+
+    /**
+     * Used to check if the template contains
+     * a certain placeholder.
+     *
+     * @param placeholder The placeholder name without the brackets.
+     * @return True if it contains the placeholder.
+     */
+    public boolean contains(@NotNull String placeholder) {
+        for (int i = 0; i < this.segments.length; i++) {
+            if (this.placeholders[i] && this.segments[i].equals(placeholder)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Used to render the template.
+     *
+     * @param context The context the template is rendered in.
+     * @return The rendered string.
+     */
+    public @NotNull String render(@NotNull PlaceholderContext context) {
+        return this.render(context, (placeholder, ignored) -> null);
+    }
+
+    /**
+     * Used to render the template.
+     *
+     * @param context  The context the template is rendered in.
+     * @param resolver The resolver checked before the registry.
+     * @return The rendered string.
+     */
+    public @NotNull String render(@NotNull PlaceholderContext context, @NotNull PlaceholderResolver resolver) {
+        if (this.segments.length == 1 && !this.placeholders[0]) return this.segments[0];
+
+        StringBuilder builder = new StringBuilder(this.literalLength + 16 * this.segments.length);
+        this.render(builder, context, resolver);
+        return builder.toString();
+    }
+
+    /**
+     * Used to render the template into a string builder.
+     *
+     * @param builder  The builder to append to.
+     * @param context  The context the template is rendered in.
+     * @param resolver The resolver checked before the registry.
+     */
+    public void render(@NotNull StringBuilder builder, @NotNull PlaceholderContext context, @NotNull PlaceholderResolver resolver) {
+        for (int i = 0; i < this.segments.length; i++) {
+            final String segment = this.segments[i];
+
+            if (!this.placeholders[i]) {
+                builder.append(segment);
+                continue;
+            }
+
+            String value = resolver.resolve(segment, context);
+            if (value == null && this.registry != null) value = this.registry.resolve(segment, context);
+
+            // Leave unknown placeholders as they were.
+            if (value == null) builder.append('{').append(segment).append('}');
+            else builder.append(value);
+        }
+    }
+}
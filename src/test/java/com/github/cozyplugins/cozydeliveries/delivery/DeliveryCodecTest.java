@@ -0,0 +1,184 @@
+/*
+ * CozyDeliveries - An item and money delivery service for a minecraft server.
+ * Copyright (C) 2024  Smuddgge
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.github.cozyplugins.cozydeliveries.delivery;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link DeliveryCodec}.
+ * The content does not contain items, as items
+ * need a running server to be serialized.
+ */
+public class DeliveryCodecTest {
+
+    @Test
+    public void testRoundTrip() {
+        Delivery delivery = this.createDelivery("Server", 1_700_000_600_000L);
+
+        final String encoded = DeliveryCodec.encode(delivery);
+        Delivery decoded = DeliveryCodec.decode(encoded, delivery.getUuid(), delivery.getTimeStampMillis());
+
+        assertTrue(DeliveryCodec.isEncoded(encoded));
+        assertEquals(delivery.getUuid(), decoded.getUuid());
+        assertEquals(delivery.getToPlayerUuid(), decoded.getToPlayerUuid());
+        assertEquals(delivery.getFromName(), decoded.getFromName());
+        assertEquals(delivery.getTimeStampMillis(), decoded.getTimeStampMillis());
+        assertEquals(delivery.getTimeStampExpire(), decoded.getTimeStampExpire());
+
+        DeliveryContent content = decoded.getDeliveryContent();
+        assertEquals(250, content.getMoney());
+        assertEquals(List.of("give {player} diamond 1", "say {player} got a delivery"), content.getCommandList());
+        assertEquals(List.of("&7A present", "&7with unicode ✦"), content.getLore());
+        assertTrue(content.getItemList().isEmpty());
+    }
+
+    @Test
+    public void testRoundTripWithoutSender() {
+        Delivery delivery = this.createDelivery(null, -1L);
+        Delivery decoded = DeliveryCodec.decode(DeliveryCodec.encode(delivery), delivery.getUuid(), delivery.getTimeStampMillis());
+
+        assertNull(decoded.getFromName());
+        assertEquals(-1L, decoded.getTimeStampExpire());
+    }
+
+    @Test
+    public void testRoundTripLongStrings() {
+        final String longLine = "&7" + "a".repeat(70_000) + " ✦";
+        Delivery delivery = this.createDelivery(longLine, -1L);
+        delivery.getDeliveryContent().getCommandList().add("say " + longLine);
+        delivery.getDeliveryContent().setLore(List.of(longLine));
+
+        Delivery decoded = DeliveryCodec.decode(DeliveryCodec.encode(delivery), delivery.getUuid(), delivery.getTimeStampMillis());
+
+        assertEquals(longLine, decoded.getFromName());
+        assertEquals("say " + longLine, decoded.getDeliveryContent().getCommandList().get(2));
+        assertEquals(List.of(longLine), decoded.getDeliveryContent().getLore());
+    }
+
+    @Test
+    public void testDecodeVersion1() throws IOException {
+        final UUID playerUuid = UUID.randomUUID();
+        final UUID deliveryUuid = UUID.randomUUID();
+
+        // Written the way version 1 of the codec wrote deliveries.
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(buffer)) {
+            output.writeByte(1);
+            output.writeLong(playerUuid.getMostSignificantBits());
+            output.writeLong(playerUuid.getLeastSignificantBits());
+            output.writeBoolean(true);
+            output.writeUTF("Server");
+            output.writeLong(1_700_000_600_000L);
+            output.writeInt(250);
+            output.writeInt(1);
+            output.writeUTF("say {player} got a delivery");
+            output.writeInt(1);
+            output.writeUTF("&7with unicode ✦");
+            output.writeInt(0);
+            output.writeBoolean(false);
+        }
+
+        final String encoded = DeliveryCodec.PREFIX + Base64.getEncoder().encodeToString(buffer.toByteArray());
+        Delivery decoded = DeliveryCodec.decode(encoded, deliveryUuid, 1_700_000_000_000L);
+
+        assertEquals(deliveryUuid, decoded.getUuid());
+        assertEquals(playerUuid, decoded.getToPlayerUuid());
+        assertEquals("Server", decoded.getFromName());
+        assertEquals(1_700_000_600_000L, decoded.getTimeStampExpire());
+        assertEquals(250, decoded.getDeliveryContent().getMoney());
+        assertEquals(List.of("say {player} got a delivery"), decoded.getDeliveryContent().getCommandList());
+        assertEquals(List.of("&7with unicode ✦"), decoded.getDeliveryContent().getLore());
+        assertEquals("Server", DeliveryCodec.decodeHeader(encoded).getFromName());
+    }
+
+    @Test
+    public void testDecodeHeader() {
+        Delivery delivery = this.createDelivery("Smudge", 1_700_000_600_000L);
+        DeliveryCodec.Header header = DeliveryCodec.decodeHeader(DeliveryCodec.encode(delivery));
+
+        assertEquals(delivery.getToPlayerUuid(), header.getToPlayerUuid());
+        assertEquals("Smudge", header.getFromName());
+        assertEquals(1_700_000_600_000L, header.getTimeStampExpire());
+    }
+
+    @Test
+    public void testSharedContentMatchesDelivery() {
+        Delivery delivery = this.createDelivery("Server", -1L);
+        byte[] content = DeliveryCodec.encodeContent(delivery.getDeliveryContent());
+
+        assertEquals(
+                DeliveryCodec.encode(delivery),
+                DeliveryCodec.encode(delivery.getToPlayerUuid(), delivery.getFromName(), -1L, content)
+        );
+    }
+
+    @Test
+    public void testDecodeJsonHeader() {
+        final UUID playerUuid = UUID.randomUUID();
+        DeliveryCodec.Header header = DeliveryCodec.decodeJsonHeader("{\"to_player_uuid\":\"" + playerUuid
+                + "\",\"from_name\":\"Server\",\"time_stamp_expire_millis\":1.7000006E12,"
+                + "\"content\":{\"money\":5,\"items\":{\"0\":{\"material\":\"DIAMOND\"}}}}");
+
+        assertEquals(playerUuid, header.getToPlayerUuid());
+        assertEquals("Server", header.getFromName());
+        assertEquals(1_700_000_600_000L, header.getTimeStampExpire());
+    }
+
+    @Test
+    public void testDecodeJsonHeaderWithoutSender() {
+        final UUID playerUuid = UUID.randomUUID();
+        DeliveryCodec.Header header = DeliveryCodec.decodeJsonHeader(
+                "{\"to_player_uuid\":\"" + playerUuid + "\",\"from_name\":null,\"time_stamp_expire_millis\":-1}"
+        );
+
+        assertNull(header.getFromName());
+        assertEquals(-1L, header.getTimeStampExpire());
+        assertThrows(RuntimeException.class, () -> DeliveryCodec.decodeJsonHeader("{\"from_name\":\"Server\"}"));
+    }
+
+    @Test
+    public void testJsonIsNotEncoded() {
+        assertFalse(DeliveryCodec.isEncoded("{\"from_name\":\"Server\"}"));
+        assertThrows(RuntimeException.class, () -> DeliveryCodec.decodeHeader("{\"from_name\":\"Server\"}"));
+    }
+
+    private @NotNull Delivery createDelivery(@Nullable String fromName, long timeStampExpire) {
+        DeliveryContent content = new DeliveryContent();
+        content.setMoney(250);
+        content.getCommandList().add("give {player} diamond 1");
+        content.getCommandList().add("say {player} got a delivery");
+        content.setLore(List.of("&7A present", "&7with unicode ✦"));
+
+        return new Delivery(UUID.randomUUID(), 1_700_000_000_000L)
+                .setFromName(fromName)
+                .setTimeStampExpire(timeStampExpire)
+                .setDeliveryContent(content);
+    }
+}
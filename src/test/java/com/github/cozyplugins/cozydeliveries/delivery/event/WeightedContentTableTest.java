@@ -0,0 +1,109 @@
+/*
+ * CozyDeliveries - An item and money delivery service for a minecraft server.
+ * Copyright (C) 2024  Smuddgge
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.github.cozyplugins.cozydeliveries.delivery.event;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link WeightedContentTable}.
+ */
+public class WeightedContentTableTest {
+
+    private static final int PICKS = 200_000;
+    private static final double TOLERANCE = 0.01;
+
+    @Test
+    public void testFrequenciesMatchWeights() {
+        Map<String, Double> weightMap = new LinkedHashMap<>();
+        weightMap.put("common", 7D);
+        weightMap.put("uncommon", 2D);
+        weightMap.put("rare", 0.75D);
+        weightMap.put("legendary", 0.25D);
+        weightMap.put("disabled", 0D);
+
+        WeightedContentTable table = WeightedContentTable.create(weightMap);
+        Map<String, Integer> countMap = this.pick(table, new Random(20240101L));
+
+        assertEquals(4, table.getSize());
+        assertFalse(countMap.containsKey("disabled"));
+
+        for (String identifier : table.getIdentifiers()) {
+            final double expected = weightMap.get(identifier) / 10D;
+            final double actual = countMap.getOrDefault(identifier, 0) / (double) PICKS;
+
+            assertEquals(expected, table.getProbability(identifier), 1e-12);
+            assertEquals(expected, actual, TOLERANCE, "Frequency of " + identifier);
+        }
+    }
+
+    @Test
+    public void testSameSeedPicksTheSame() {
+        WeightedContentTable table = WeightedContentTable.parse(List.of("a 1", "b 2", "c 3"));
+        assertEquals(this.pick(table, new Random(7L)), this.pick(table, new Random(7L)));
+    }
+
+    @Test
+    public void testSingleEntryIsAlwaysPicked() {
+        WeightedContentTable table = WeightedContentTable.parse(List.of("only 0.3"));
+        assertEquals(Map.of("only", PICKS), this.pick(table, new Random(1L)));
+    }
+
+    @Test
+    public void testParseUsesLastWeight() {
+        WeightedContentTable table = WeightedContentTable.parse(List.of("a 1", "b 1", "a 3"));
+        assertEquals(0.75D, table.getProbability("a"), 1e-12);
+        assertEquals(0.25D, table.getProbability("b"), 1e-12);
+    }
+
+    @Test
+    public void testParseWeightsKeepsOrderAndWeights() {
+        Map<String, Double> weightMap = WeightedContentTable.parseWeights(List.of("b 0.5", "a  2", "c 0"));
+        assertEquals(List.of("b", "a", "c"), new ArrayList<>(weightMap.keySet()));
+        assertEquals(List.of(0.5D, 2D, 0D), new ArrayList<>(weightMap.values()));
+    }
+
+    @Test
+    public void testParseRejectsInvalidEntries() {
+        assertThrows(IllegalArgumentException.class, () -> WeightedContentTable.parse(List.of("a")));
+        assertThrows(IllegalArgumentException.class, () -> WeightedContentTable.parse(List.of("a one")));
+        assertThrows(IllegalArgumentException.class, () -> WeightedContentTable.parse(List.of("a -1")));
+    }
+
+    @Test
+    public void testEmptyTable() {
+        WeightedContentTable table = WeightedContentTable.parse(List.of("a 0"));
+        assertTrue(table.isEmpty());
+        assertTrue(table.pick(3).isEmpty());
+        assertThrows(IllegalStateException.class, table::pick);
+    }
+
+    private @NotNull Map<String, Integer> pick(@NotNull WeightedContentTable table, @NotNull Random random) {
+
+        Map<String, Integer> countMap = new HashMap<>();
+        for (int i = 0; i < PICKS; i++) {
+            countMap.merge(table.pick(random), 1, Integer::sum);
+        }
+        return countMap;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * CozyDeliveries - An item and money delivery service for a minecraft server.
+ * Copyright (C) 2024  Smuddgge
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.github.cozyplugins.cozydeliveries.placeholder;
+
+import com.github.smuddgge.squishyconfiguration.memory.MemoryConfigurationSection;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link PlaceholderTemplate}.
+ */
+public class PlaceholderTemplateTest {
+
+    private static final PlaceholderResolver RESOLVER = (placeholder, context) -> switch (placeholder) {
+        case "sender" -> "Smudge";
+        case "amount" -> "3";
+        case "empty" -> "";
+        default -> null;
+    };
+
+    @Test
+    public void testRender() {
+        PlaceholderTemplate template = PlaceholderTemplate.parse("&7You have &f{amount} &7deliveries from &f{sender}");
+        assertEquals("&7You have &f3 &7deliveries from &fSmudge", template.render(PlaceholderContext.empty(), RESOLVER));
+    }
+
+    @Test
+    public void testUnknownPlaceholdersAreKept() {
+        PlaceholderTemplate template = PlaceholderTemplate.parse("{sender} {unknown}{empty}!");
+        assertEquals("Smudge {unknown}!", template.render(PlaceholderContext.empty(), RESOLVER));
+    }
+
+    @Test
+    public void testBracketsThatAreNotPlaceholders() {
+        final String source = "{} { spaced } {{sender}} {unclosed";
+        PlaceholderTemplate template = PlaceholderTemplate.parse(source);
+
+        assertEquals("{} { spaced } {Smudge} {unclosed", template.render(PlaceholderContext.empty(), RESOLVER));
+        assertTrue(template.contains("sender"));
+        assertFalse(template.contains(" spaced "));
+    }
+
+    @Test
+    public void testLiteralAndEmptyTemplates() {
+        assertEquals("No placeholders", PlaceholderTemplate.parse("No placeholders").render(PlaceholderContext.empty()));
+        assertEquals("", PlaceholderTemplate.parse("").render(PlaceholderContext.empty()));
+        assertEquals("Smudge", PlaceholderTemplate.parse("{sender}").render(PlaceholderContext.empty(), RESOLVER));
+    }
+
+    @Test
+    public void testResolverIsCheckedBeforeRegistry() {
+        PlaceholderRegistry registry = this.createRegistry(Map.of())
+                .register((placeholder, context) -> placeholder.equals("server") ? "Lobby" : null)
+                .register((placeholder, context) -> placeholder.equals("sender") ? "Registry" : null);
+
+        PlaceholderTemplate template = PlaceholderTemplate.parse("{sender} on {server}", registry);
+        assertEquals("Smudge on Lobby", template.render(PlaceholderContext.empty(), RESOLVER));
+        assertEquals("Registry on Lobby", template.render(PlaceholderContext.empty()));
+    }
+
+    @Test
+    public void testRegistryTemplatesAreKeptUntilReload() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("message", "&7Hello {sender}");
+        PlaceholderRegistry registry = this.createRegistry(map);
+
+        PlaceholderTemplate template = registry.getTemplate("message", "default");
+        assertSame(template, registry.getTemplate("message", "default"));
+        assertEquals("&7Hello Smudge", template.render(PlaceholderContext.empty(), RESOLVER));
+        assertEquals("default", registry.getTemplate("missing", "default").getSource());
+
+        registry.reload();
+        assertNotSame(template, registry.getTemplate("message", "default"));
+    }
+
+    @Test
+    public void testCompiledTemplatesAreReused() {
+        PlaceholderRegistry registry = this.createRegistry(Map.of());
+
+        PlaceholderTemplate template = registry.compile("&7From {sender}");
+        assertSame(template, registry.compile("&7From {sender}"));
+        assertEquals("&7From Smudge", template.render(PlaceholderContext.empty(), RESOLVER));
+
+        registry.reload();
+        assertNotSame(template, registry.compile("&7From {sender}"));
+    }
+
+    @Test
+    public void testUnregisteredResolverIsNotUsed() {
+        PlaceholderResolver resolver = (placeholder, context) -> placeholder.equals("server") ? "Lobby" : null;
+        PlaceholderRegistry registry = this.createRegistry(Map.of()).register(resolver);
+        PlaceholderTemplate template = registry.compile("{server}");
+
+        assertEquals("Lobby", template.render(PlaceholderContext.empty()));
+        registry.unregister(resolver);
+        assertEquals("{server}", template.render(PlaceholderContext.empty()));
+    }
+
+    private @NotNull PlaceholderRegistry createRegistry(@NotNull Map<String, Object> map) {
+        return new PlaceholderRegistry(new MemoryConfigurationSection(new LinkedHashMap<>(map)));
+    }
+}